@@ -0,0 +1,264 @@
+package org.coldis.library.persistence.configuration;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.ClassUtils;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Names and instruments the Hikari pools of every persistence unit (the primary, each
+ * {@link SecondaryDatasourcesRegistrar secondary} and their {@link ReplicaRoutingDataSource
+ * replicas}), and checks their sizing at startup.
+ *
+ * <p>
+ * An unnamed pool is named after its unit ({@code primary} for the {@code dataSource} bean,
+ * {@code <name>} for {@code <name>DataSource}; replicas are {@code <unit>-replica-<index>}). When
+ * Micrometer is on the classpath with a {@code MeterRegistry} bean, every pool gets Hikari's
+ * Micrometer tracker ({@code hikaricp.connections.active/idle/pending}, {@code .acquire},
+ * {@code .usage}, …) tagged with {@code pool=<pool name>}, so each unit's pool can be told apart.
+ * Disabled with {@code org.coldis.configuration.persistence.pool-metrics.enabled=false}.
+ * </p>
+ *
+ * <p>
+ * Once the application is ready, the maximum pool sizes are added up per database server (host and
+ * port of the JDBC url) and a warning is logged when they exceed what the server accepts
+ * ({@code max_connections} minus {@code superuser_reserved_connections}) — this instance alone could
+ * then exhaust it, before counting any other instance. Disabled with
+ * {@code org.coldis.configuration.persistence.pool-sizing-check.enabled=false}.
+ * </p>
+ *
+ * <p>
+ * With the lock service's in-JVM tier enabled
+ * ({@code org.coldis.configuration.persistence.lock.local-tier.enabled=true}), a primary datasource
+ * that does not connect lazily yet is wrapped in a {@link LazyConnectionDataSourceProxy}. The
+ * transaction manager takes its connection when the transaction begins, so the local waiters would
+ * otherwise each hold a pool connection while they wait for a permit.
+ * </p>
+ */
+public class DataSourcePoolConfigurer implements BeanPostProcessor, BeanFactoryAware, EnvironmentAware, ApplicationListener<ApplicationReadyEvent> {
+
+	/** Logger. */
+	private static final Logger LOGGER = LoggerFactory.getLogger(DataSourcePoolConfigurer.class);
+
+	/** Primary datasource bean name. */
+	private static final String PRIMARY_BEAN_NAME = "dataSource";
+
+	/** Datasource bean name suffix. */
+	private static final String BEAN_NAME_SUFFIX = "DataSource";
+
+	/** Database server part (host and port) of a JDBC url. */
+	private static final Pattern SERVER_PATTERN = Pattern.compile("^jdbc:[^:]+://([^/?]+)");
+
+	/** Connections a server accepts from regular users. */
+	private static final String AVAILABLE_CONNECTIONS_QUERY = "SELECT current_setting('max_connections')::int - current_setting('superuser_reserved_connections')::int";
+
+	/** Whether Micrometer is on the classpath. */
+	private static final boolean MICROMETER_PRESENT = ClassUtils.isPresent("io.micrometer.core.instrument.MeterRegistry",
+			DataSourcePoolConfigurer.class.getClassLoader());
+
+	/** Bean factory. */
+	private BeanFactory beanFactory;
+
+	/** Environment. */
+	private Environment environment;
+
+	/** Configured pools. */
+	private final List<HikariDataSource> pools = new CopyOnWriteArrayList<>();
+
+	/**
+	 * @see org.springframework.beans.factory.BeanFactoryAware#setBeanFactory(org.springframework.beans.factory.BeanFactory)
+	 */
+	@Override
+	public void setBeanFactory(
+			final BeanFactory beanFactory) throws BeansException {
+		this.beanFactory = beanFactory;
+	}
+
+	/**
+	 * @see org.springframework.context.EnvironmentAware#setEnvironment(org.springframework.core.env.Environment)
+	 */
+	@Override
+	public void setEnvironment(
+			final Environment environment) {
+		this.environment = environment;
+	}
+
+	/**
+	 * Gets the unit of a datasource bean.
+	 *
+	 * @param  beanName Bean name.
+	 * @return          The unit name.
+	 */
+	private static String getUnit(
+			final String beanName) {
+		String unit = beanName;
+		if (DataSourcePoolConfigurer.PRIMARY_BEAN_NAME.equals(beanName)) {
+			unit = "primary";
+		}
+		else if (beanName.endsWith(DataSourcePoolConfigurer.BEAN_NAME_SUFFIX)) {
+			unit = beanName.substring(0, beanName.length() - DataSourcePoolConfigurer.BEAN_NAME_SUFFIX.length());
+		}
+		return unit;
+	}
+
+	/**
+	 * @see org.springframework.beans.factory.config.BeanPostProcessor#postProcessBeforeInitialization(java.lang.Object,
+	 *      java.lang.String)
+	 */
+	@Override
+	public Object postProcessBeforeInitialization(
+			final Object bean,
+			final String beanName) throws BeansException {
+		if (bean instanceof final DataSource dataSource) {
+			final String unit = DataSourcePoolConfigurer.getUnit(beanName);
+			final List<DataSource> dataSources = new ArrayList<>();
+			if (dataSource instanceof final ReplicaRoutingDataSource routingDataSource) {
+				dataSources.add(routingDataSource.getPrimaryDataSource());
+				dataSources.addAll(routingDataSource.getReplicaDataSources());
+			}
+			else {
+				dataSources.add(dataSource);
+			}
+			for (final DataSource actualDataSource : dataSources) {
+				if (actualDataSource instanceof final HikariDataSource pool) {
+					if (pool.getPoolName() == null) {
+						pool.setPoolName(unit);
+					}
+					if (DataSourcePoolConfigurer.MICROMETER_PRESENT
+							&& this.environment.getProperty("org.coldis.configuration.persistence.pool-metrics.enabled", Boolean.class, true)) {
+						MicrometerPools.instrument(this.beanFactory, pool);
+					}
+					this.pools.add(pool);
+				}
+			}
+		}
+		return bean;
+	}
+
+	/**
+	 * @see org.springframework.beans.factory.config.BeanPostProcessor#postProcessAfterInitialization(java.lang.Object,
+	 *      java.lang.String)
+	 */
+	@Override
+	public Object postProcessAfterInitialization(
+			final Object bean,
+			final String beanName) throws BeansException {
+		Object actualBean = bean;
+		if (DataSourcePoolConfigurer.PRIMARY_BEAN_NAME.equals(beanName) && (bean instanceof final DataSource dataSource)
+				&& !(bean instanceof LazyConnectionDataSourceProxy)
+				&& this.environment.getProperty("org.coldis.configuration.persistence.lock.local-tier.enabled", Boolean.class, false)) {
+			final LazyConnectionDataSourceProxy lazyDataSource = new LazyConnectionDataSourceProxy();
+			lazyDataSource.setTargetDataSource(dataSource);
+			// Known defaults spare a connection at startup.
+			if (dataSource instanceof final HikariDataSource hikariDataSource) {
+				lazyDataSource.setDefaultAutoCommit(hikariDataSource.isAutoCommit());
+				if (hikariDataSource.getTransactionIsolation() != null) {
+					lazyDataSource.setDefaultTransactionIsolationName(hikariDataSource.getTransactionIsolation());
+				}
+				else {
+					lazyDataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+				}
+			}
+			lazyDataSource.afterPropertiesSet();
+			actualBean = lazyDataSource;
+		}
+		return actualBean;
+	}
+
+	/**
+	 * Checks the pool sizing once the application is ready.
+	 *
+	 * @see org.springframework.context.ApplicationListener#onApplicationEvent(org.springframework.context.ApplicationEvent)
+	 */
+	@Override
+	public void onApplicationEvent(
+			final ApplicationReadyEvent event) {
+		if (this.environment.getProperty("org.coldis.configuration.persistence.pool-sizing-check.enabled", Boolean.class, true)) {
+			final Map<String, List<HikariDataSource>> poolsByServer = new LinkedHashMap<>();
+			for (final HikariDataSource pool : this.pools) {
+				final Matcher matcher = (pool.getJdbcUrl() == null) ? null : DataSourcePoolConfigurer.SERVER_PATTERN.matcher(pool.getJdbcUrl());
+				if ((matcher != null) && matcher.find() && !pool.isClosed()) {
+					poolsByServer.computeIfAbsent(matcher.group(1), server -> new ArrayList<>()).add(pool);
+				}
+			}
+			poolsByServer.forEach(this::checkSizing);
+		}
+	}
+
+	/**
+	 * Warns when the pools of one server may take more connections than it accepts.
+	 *
+	 * @param server Server (host and port).
+	 * @param pools  Pools of the server.
+	 */
+	private void checkSizing(
+			final String server,
+			final List<HikariDataSource> pools) {
+		final int maximumPoolSize = pools.stream().mapToInt(HikariDataSource::getMaximumPoolSize).sum();
+		try (Connection connection = pools.get(0).getConnection();
+				Statement statement = connection.createStatement();
+				ResultSet resultSet = statement.executeQuery(DataSourcePoolConfigurer.AVAILABLE_CONNECTIONS_QUERY)) {
+			resultSet.next();
+			final int availableConnections = resultSet.getInt(1);
+			if (maximumPoolSize > availableConnections) {
+				DataSourcePoolConfigurer.LOGGER.warn("Pools " + pools.stream().map(HikariDataSource::getPoolName).toList() + " of server '" + server
+						+ "' may open up to " + maximumPoolSize + " connections, but the server only accepts " + availableConnections + ".");
+			}
+		}
+		catch (final Exception exception) {
+			DataSourcePoolConfigurer.LOGGER.debug("Could not check the pool sizing of server '" + server + "'.", exception);
+		}
+	}
+
+	/**
+	 * Micrometer support (only loaded when Micrometer is on the classpath).
+	 */
+	private static final class MicrometerPools {
+
+		/**
+		 * Registers Hikari's Micrometer tracker on a pool, unless it already has a tracker or there is
+		 * no meter registry.
+		 *
+		 * @param beanFactory Bean factory.
+		 * @param pool        Pool.
+		 */
+		private static void instrument(
+				final BeanFactory beanFactory,
+				final HikariDataSource pool) {
+			if ((pool.getMetricRegistry() == null) && (pool.getMetricsTrackerFactory() == null)) {
+				final MeterRegistry registry = beanFactory.getBeanProvider(MeterRegistry.class).getIfUnique();
+				if (registry != null) {
+					pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+				}
+			}
+		}
+
+	}
+
+}
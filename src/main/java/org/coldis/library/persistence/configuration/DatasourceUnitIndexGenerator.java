@@ -0,0 +1,126 @@
+package org.coldis.library.persistence.configuration;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedSourceVersion;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link DatasourceUnit} index generator: writes every annotated type of the module, with its unit
+ * and whether it is an interface (repository) or a class (entity), to
+ * {@value DatasourceUnitScan#INDEX_LOCATION}, which {@link DatasourceUnitScan} reads instead of
+ * scanning the classpath.
+ *
+ * <p>
+ * The index is trusted per classpath root: a root (module jar or output directory) with an index is
+ * read from it, and every root without one is still scanned. The index of a root must then list all
+ * of its annotated types. An incremental compilation only sees some of them, so the entries of the
+ * previous index are merged in, except for the types that no longer exist or are no longer annotated.
+ * Set {@code -Dorg.coldis.configuration.persistence.datasource-unit-index.ignore=true} to scan
+ * every root regardless.
+ * </p>
+ */
+@SupportedSourceVersion(value = SourceVersion.RELEASE_21)
+@SupportedAnnotationTypes(value = { "org.coldis.library.persistence.configuration.DatasourceUnit" })
+public class DatasourceUnitIndexGenerator extends AbstractProcessor {
+
+	/**
+	 * Logger.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(DatasourceUnitIndexGenerator.class);
+
+	/**
+	 * Index entries (type name to {@code <unit>,<kind>}), gathered over every round.
+	 */
+	private final Map<String, String> entries = new TreeMap<>();
+
+	/**
+	 * Merges the entries of the previous index (left by an earlier, possibly full, compilation) whose
+	 * types still exist and are still annotated, unless gathered again in this compilation.
+	 */
+	private void mergePreviousIndex() {
+		final Properties previous = new Properties();
+		try {
+			final FileObject index = this.processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", DatasourceUnitScan.INDEX_LOCATION);
+			try (Reader reader = index.openReader(true)) {
+				previous.load(reader);
+			}
+		}
+		catch (final IOException | IllegalArgumentException exception) {
+			// No previous index (a clean build).
+		}
+		for (final String name : previous.stringPropertyNames()) {
+			if (!this.entries.containsKey(name)) {
+				final TypeElement type = this.processingEnv.getElementUtils().getTypeElement(name.replace('$', '.'));
+				if ((type != null) && (type.getAnnotation(DatasourceUnit.class) != null)) {
+					this.entries.put(name, previous.getProperty(name));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes the index.
+	 *
+	 * @throws IOException If the index cannot be written.
+	 */
+	private void writeIndex() throws IOException {
+		final FileObject index = this.processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", DatasourceUnitScan.INDEX_LOCATION);
+		try (Writer writer = index.openWriter()) {
+			for (final Map.Entry<String, String> entry : this.entries.entrySet()) {
+				writer.write(entry.getKey() + "=" + entry.getValue() + "\n");
+			}
+		}
+	}
+
+	/**
+	 * @see javax.annotation.processing.AbstractProcessor#process(java.util.Set,
+	 *      javax.annotation.processing.RoundEnvironment)
+	 */
+	@Override
+	public boolean process(
+			final Set<? extends TypeElement> annotations,
+			final RoundEnvironment roundEnv) {
+		for (final Element element : roundEnv.getElementsAnnotatedWith(DatasourceUnit.class)) {
+			if (element instanceof final TypeElement type) {
+				final String kind = (type.getKind() == ElementKind.INTERFACE) ? DatasourceUnitScan.INDEX_INTERFACE : DatasourceUnitScan.INDEX_CLASS;
+				this.entries.put(this.processingEnv.getElementUtils().getBinaryName(type).toString(),
+						type.getAnnotation(DatasourceUnit.class).value() + "," + kind);
+			}
+		}
+		if (roundEnv.processingOver()) {
+			this.mergePreviousIndex();
+		}
+		if (roundEnv.processingOver() && !this.entries.isEmpty()) {
+			try {
+				this.writeIndex();
+				DatasourceUnitIndexGenerator.LOGGER.debug("Datasource unit index written with " + this.entries.size() + " types.");
+			}
+			catch (final IOException exception) {
+				this.processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+						"Could not write the datasource unit index: " + exception.getLocalizedMessage());
+			}
+		}
+		// Other processors may handle the annotated types as well.
+		return false;
+	}
+
+}
@@ -1,54 +1,115 @@
 package org.coldis.library.persistence.configuration;
 
 import java.io.IOException;
+import java.net.URL;
 import java.util.Collection;
+import java.util.Enumeration;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
 import java.util.Set;
+import java.util.TreeSet;
 
+import org.springframework.core.SpringProperties;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.UrlResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.core.io.support.ResourcePatternResolver;
 import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
 import org.springframework.core.type.classreading.MetadataReaderFactory;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
 
 /**
  * Classpath scan result for {@link DatasourceUnit} annotated types under the given base packages
  * (read from class metadata, without loading classes). {@link SecondaryDatasourcesRegistrar} uses it
  * to assign entities to each secondary unit (and to fail fast on unknown unit names), and
  * {@link PrimaryJpaConfiguration} uses it to keep annotated types out of the primary unit.
+ *
+ * <p>
+ * Classpath roots with a {@value #INDEX_LOCATION} index (written at compile time by
+ * {@link DatasourceUnitIndexGenerator}) are read from it instead of scanned; the base packages are
+ * still scanned in every root without an index (e.g. a module built without the processor), so a
+ * partial index never hides annotated types. Set
+ * {@code -Dorg.coldis.configuration.persistence.datasource-unit-index.ignore=true} (or the same
+ * entry in {@code spring.properties}) to always scan.
+ * </p>
  */
 final class DatasourceUnitScan {
 
+	/** Index location (one per classpath entry). */
+	static final String INDEX_LOCATION = "META-INF/coldis/datasource-units.properties";
+
+	/** Index kind of annotated classes (entities). */
+	static final String INDEX_CLASS = "class";
+
+	/** Index kind of annotated interfaces (repositories). */
+	static final String INDEX_INTERFACE = "interface";
+
+	/** Flag to ignore the index. */
+	private static final String IGNORE_INDEX_PROPERTY = "org.coldis.configuration.persistence.datasource-unit-index.ignore";
+
+	/** Indexes by class loader, by classpath root URL (empty when the class loader has none). */
+	private static final Map<ClassLoader, Map<String, Properties>> INDEXES = new ConcurrentReferenceHashMap<>();
+
+	/** Scan results by class loader and base package (entries are softly referenced). */
+	private static final Map<List<Object>, DatasourceUnitScan> PACKAGE_SCANS = new ConcurrentReferenceHashMap<>();
+
 	/** Every annotated type name (entities and repositories), across all units. */
-	private final Set<String> annotatedClassNames;
+	private final Set<String> annotatedClassNames = new LinkedHashSet<>();
 
 	/** Annotated type names by unit (entities and repositories). */
-	private final Map<String, Set<String>> classNamesByUnit;
+	private final Map<String, Set<String>> classNamesByUnit = new LinkedHashMap<>();
 
 	/** Annotated non-interface type names by unit — each unit's managed entity classes. */
-	private final Map<String, Set<String>> entityClassNamesByUnit;
+	private final Map<String, Set<String>> entityClassNamesByUnit = new LinkedHashMap<>();
+
+	/**
+	 * Empty result.
+	 */
+	private DatasourceUnitScan() {
+	}
+
+	/**
+	 * Adds an annotated type.
+	 *
+	 * @param className Type name.
+	 * @param unit      Unit name.
+	 * @param entity    Whether the type is an entity (not an interface).
+	 */
+	private void add(
+			final String className,
+			final String unit,
+			final boolean entity) {
+		this.annotatedClassNames.add(className);
+		this.classNamesByUnit.computeIfAbsent(unit, key -> new LinkedHashSet<>()).add(className);
+		if (entity) {
+			this.entityClassNamesByUnit.computeIfAbsent(unit, key -> new LinkedHashSet<>()).add(className);
+		}
+	}
 
 	/**
-	 * @param annotatedClassNames    Every annotated type name.
-	 * @param classNamesByUnit       Annotated type names by unit.
-	 * @param entityClassNamesByUnit Annotated non-interface type names by unit.
+	 * Adds every annotated type of another result.
+	 *
+	 * @param scan Other result.
 	 */
-	private DatasourceUnitScan(
-			final Set<String> annotatedClassNames,
-			final Map<String, Set<String>> classNamesByUnit,
-			final Map<String, Set<String>> entityClassNamesByUnit) {
-		this.annotatedClassNames = annotatedClassNames;
-		this.classNamesByUnit = classNamesByUnit;
-		this.entityClassNamesByUnit = entityClassNamesByUnit;
+	private void addAll(
+			final DatasourceUnitScan scan) {
+		scan.classNamesByUnit.forEach((unit, classNames) -> classNames
+				.forEach(className -> this.add(className, unit, scan.entityClassNamesByUnit.getOrDefault(unit, Set.of()).contains(className))));
 	}
 
 	/**
-	 * Scans the base packages for {@link DatasourceUnit} annotated types.
+	 * Finds the {@link DatasourceUnit} annotated types under the base packages: from the index of each
+	 * classpath root that has one, scanning the others. Each index is only read, and each package only
+	 * resolved, once per class loader (the result is cached), so the primary unit and the secondary
+	 * units share the work.
 	 *
 	 * @param  resourceLoader Resource loader.
 	 * @param  basePackages   Base packages to scan.
@@ -57,35 +118,124 @@ final class DatasourceUnitScan {
 	public static DatasourceUnitScan of(
 			final ResourceLoader resourceLoader,
 			final Collection<String> basePackages) {
-		final Set<String> annotatedClassNames = new LinkedHashSet<>();
-		final Map<String, Set<String>> classNamesByUnit = new LinkedHashMap<>();
-		final Map<String, Set<String>> entityClassNamesByUnit = new LinkedHashMap<>();
+		final ClassLoader classLoader = Objects.requireNonNullElse(resourceLoader.getClassLoader(), ClassUtils.getDefaultClassLoader());
+		final Map<String, Properties> indexes = SpringProperties.getFlag(DatasourceUnitScan.IGNORE_INDEX_PROPERTY) ? Map.of()
+				: DatasourceUnitScan.INDEXES.computeIfAbsent(classLoader, DatasourceUnitScan::loadIndexes);
+		final DatasourceUnitScan result = new DatasourceUnitScan();
+		for (final String basePackage : basePackages) {
+			result.addAll(DatasourceUnitScan.PACKAGE_SCANS.computeIfAbsent(List.of(classLoader, basePackage, indexes.isEmpty()),
+					key -> DatasourceUnitScan.scanPackage(resourceLoader, classLoader, indexes, basePackage)));
+		}
+		return result;
+	}
+
+	/**
+	 * Loads every index of a class loader.
+	 *
+	 * @param  classLoader Class loader.
+	 * @return             The indexes by classpath root URL (empty if there is none).
+	 */
+	private static Map<String, Properties> loadIndexes(
+			final ClassLoader classLoader) {
+		try {
+			final Map<String, Properties> indexes = new LinkedHashMap<>();
+			final Enumeration<URL> urls = classLoader.getResources(DatasourceUnitScan.INDEX_LOCATION);
+			while (urls.hasMoreElements()) {
+				final URL url = urls.nextElement();
+				final String root = url.toString().substring(0, url.toString().length() - DatasourceUnitScan.INDEX_LOCATION.length());
+				indexes.put(root, PropertiesLoaderUtils.loadProperties(new UrlResource(url)));
+			}
+			return indexes;
+		}
+		catch (final IOException exception) {
+			throw new IllegalStateException("Could not load the datasource unit indexes from '" + DatasourceUnitScan.INDEX_LOCATION + "'.", exception);
+		}
+	}
+
+	/**
+	 * Finds the annotated types of one base package: the indexed ones, then those of every classpath
+	 * root holding the package without an index.
+	 *
+	 * @param  resourceLoader Resource loader.
+	 * @param  classLoader    Class loader.
+	 * @param  indexes        Indexes by classpath root URL.
+	 * @param  basePackage    Base package.
+	 * @return                The scan result.
+	 */
+	private static DatasourceUnitScan scanPackage(
+			final ResourceLoader resourceLoader,
+			final ClassLoader classLoader,
+			final Map<String, Properties> indexes,
+			final String basePackage) {
+		final DatasourceUnitScan result = new DatasourceUnitScan();
+		final String packagePath = ClassUtils.convertClassNameToResourcePath(basePackage) + "/";
+		if (indexes.isEmpty()) {
+			DatasourceUnitScan.scanLocation(resourceLoader, ResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX + packagePath, result);
+		}
+		else {
+			indexes.values().forEach(index -> DatasourceUnitScan.addIndexed(index, basePackage, result));
+			try {
+				final Enumeration<URL> packageUrls = classLoader.getResources(packagePath);
+				while (packageUrls.hasMoreElements()) {
+					final String packageUrl = packageUrls.nextElement().toString();
+					if (!indexes.containsKey(packageUrl.substring(0, packageUrl.length() - packagePath.length()))) {
+						DatasourceUnitScan.scanLocation(resourceLoader, packageUrl, result);
+					}
+				}
+			}
+			catch (final IOException exception) {
+				throw new IllegalStateException("Could not resolve base package '" + basePackage + "' for @DatasourceUnit types.", exception);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Adds the indexed annotated types under a base package.
+	 *
+	 * @param index       Index.
+	 * @param basePackage Base package.
+	 * @param result      Result to add to.
+	 */
+	private static void addIndexed(
+			final Properties index,
+			final String basePackage,
+			final DatasourceUnitScan result) {
+		for (final String className : new TreeSet<>(index.stringPropertyNames())) {
+			if (className.startsWith(basePackage + ".")) {
+				final String[] entry = index.getProperty(className).split(",");
+				result.add(className, entry[0], (entry.length < 2) || !DatasourceUnitScan.INDEX_INTERFACE.equals(entry[1]));
+			}
+		}
+	}
+
+	/**
+	 * Scans a package location for {@link DatasourceUnit} annotated types.
+	 *
+	 * @param resourceLoader Resource loader.
+	 * @param location       Package location (ending with {@code /}).
+	 * @param result         Result to add to.
+	 */
+	private static void scanLocation(
+			final ResourceLoader resourceLoader,
+			final String location,
+			final DatasourceUnitScan result) {
 		final PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver(resourceLoader);
 		final MetadataReaderFactory metadataReaderFactory = new CachingMetadataReaderFactory(resourceLoader);
 		try {
-			for (final String basePackage : basePackages) {
-				final Resource[] resources = resolver.getResources(
-						ResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX + ClassUtils.convertClassNameToResourcePath(basePackage) + "/**/*.class");
-				for (final Resource resource : resources) {
-					if (resource.isReadable()) {
-						final AnnotationMetadata metadata = metadataReaderFactory.getMetadataReader(resource).getAnnotationMetadata();
-						final Map<String, Object> attributes = metadata.getAnnotationAttributes(DatasourceUnit.class.getName());
-						if (attributes != null) {
-							final String unit = (String) attributes.get("value");
-							annotatedClassNames.add(metadata.getClassName());
-							classNamesByUnit.computeIfAbsent(unit, key -> new LinkedHashSet<>()).add(metadata.getClassName());
-							if (!metadata.isInterface()) {
-								entityClassNamesByUnit.computeIfAbsent(unit, key -> new LinkedHashSet<>()).add(metadata.getClassName());
-							}
-						}
+			for (final Resource resource : resolver.getResources(location + "**/*.class")) {
+				if (resource.isReadable()) {
+					final AnnotationMetadata metadata = metadataReaderFactory.getMetadataReader(resource).getAnnotationMetadata();
+					final Map<String, Object> attributes = metadata.getAnnotationAttributes(DatasourceUnit.class.getName());
+					if (attributes != null) {
+						result.add(metadata.getClassName(), (String) attributes.get("value"), !metadata.isInterface());
 					}
 				}
 			}
 		}
 		catch (final IOException exception) {
-			throw new IllegalStateException("Could not scan base packages '" + basePackages + "' for @DatasourceUnit types.", exception);
+			throw new IllegalStateException("Could not scan '" + location + "' for @DatasourceUnit types.", exception);
 		}
-		return new DatasourceUnitScan(annotatedClassNames, classNamesByUnit, entityClassNamesByUnit);
 	}
 
 	/**
@@ -19,7 +19,8 @@ import org.springframework.context.annotation.PropertySource;
 )
 @PropertySource(value = { PersistenceAutoConfiguration.PERSISTENCE_PROPERTIES })
 @Import(value = { AopTransactionManagementAutoConfiguration.class, ProxyTransactionManagementAutoConfiguration.class, JpaAutoConfiguration.class,
-		PrimaryJpaConfiguration.class, SecondaryDatasourcesRegistrar.class })
+		PrimaryJpaConfiguration.class, SecondaryDatasourcesRegistrar.class, DataSourcePoolConfigurer.class, QueryBudgetConfiguration.class,
+		PersistenceInstrumentationConfiguration.class })
 @AutoConfigureBefore(value = { JpaBaseConfiguration.class, HibernateJpaAutoConfiguration.class })
 public class PersistenceAutoConfiguration {
 
@@ -0,0 +1,145 @@
+package org.coldis.library.persistence.configuration;
+
+import org.coldis.library.persistence.instrumentation.MicrometerInstrumentationBackend;
+import org.coldis.library.persistence.instrumentation.PersistenceInstrumentation;
+import org.coldis.library.persistence.instrumentation.RepositoryInstrumentationInterceptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.util.ClassUtils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * {@link PersistenceInstrumentation} support, enabled with
+ * {@code org.coldis.configuration.persistence.instrumentation.enabled=true}: instruments every
+ * repository proxy (primary and secondary units) and binds the instrumentation to the application's
+ * {@code MeterRegistry} (when Micrometer is on the classpath; no-op otherwise).
+ */
+@Configuration
+@ConditionalOnProperty(
+		name = "org.coldis.configuration.persistence.instrumentation.enabled",
+		havingValue = "true",
+		matchIfMissing = false
+)
+public class PersistenceInstrumentationConfiguration {
+
+	/** Logger. */
+	private static final Logger LOGGER = LoggerFactory.getLogger(PersistenceInstrumentationConfiguration.class);
+
+	/** Whether Micrometer is on the classpath. */
+	private static final boolean MICROMETER_PRESENT = ClassUtils.isPresent("io.micrometer.core.instrument.MeterRegistry",
+			PersistenceInstrumentationConfiguration.class.getClassLoader());
+
+	/**
+	 * Adds the instrumentation interceptor to every repository proxy.
+	 *
+	 * @return The repository factory post processor.
+	 */
+	@Bean
+	@Role(value = BeanDefinition.ROLE_INFRASTRUCTURE)
+	public static BeanPostProcessor persistenceInstrumentationRepositoryPostProcessor() {
+		return new BeanPostProcessor() {
+
+			@Override
+			public Object postProcessBeforeInitialization(
+					final Object bean,
+					final String beanName) throws BeansException {
+				if (bean instanceof final RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+					// First advice, so the latency includes the repository's own transaction.
+					factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+							(proxyFactory, repositoryInformation) -> proxyFactory
+									.addAdvice(0, new RepositoryInstrumentationInterceptor(repositoryInformation.getRepositoryInterface()))));
+				}
+				return bean;
+			}
+
+		};
+	}
+
+	/**
+	 * Binds the instrumentation to the meter registry.
+	 *
+	 * @return The instrumentation binder.
+	 */
+	@Bean
+	public static InstrumentationBinder persistenceInstrumentationBinder() {
+		return new InstrumentationBinder();
+	}
+
+	/**
+	 * Binds the instrumentation to the meter registry once every singleton (including the registry)
+	 * exists, and unbinds it when the context closes.
+	 */
+	static class InstrumentationBinder implements BeanFactoryAware, SmartInitializingSingleton, DisposableBean {
+
+		/** Bean factory. */
+		private BeanFactory beanFactory;
+
+		/**
+		 * @see org.springframework.beans.factory.BeanFactoryAware#setBeanFactory(org.springframework.beans.factory.BeanFactory)
+		 */
+		@Override
+		public void setBeanFactory(
+				final BeanFactory beanFactory) throws BeansException {
+			this.beanFactory = beanFactory;
+		}
+
+		/**
+		 * @see org.springframework.beans.factory.SmartInitializingSingleton#afterSingletonsInstantiated()
+		 */
+		@Override
+		public void afterSingletonsInstantiated() {
+			if (PersistenceInstrumentationConfiguration.MICROMETER_PRESENT) {
+				MicrometerBinding.bind(this.beanFactory);
+			}
+			else {
+				PersistenceInstrumentationConfiguration.LOGGER.info("Persistence instrumentation enabled, but Micrometer is not on the classpath.");
+			}
+		}
+
+		/**
+		 * @see org.springframework.beans.factory.DisposableBean#destroy()
+		 */
+		@Override
+		public void destroy() {
+			PersistenceInstrumentation.setBackend(null);
+		}
+
+	}
+
+	/**
+	 * Micrometer support (only loaded when Micrometer is on the classpath).
+	 */
+	private static final class MicrometerBinding {
+
+		/**
+		 * Binds the instrumentation to the unique meter registry, if any.
+		 *
+		 * @param beanFactory Bean factory.
+		 */
+		private static void bind(
+				final BeanFactory beanFactory) {
+			final MeterRegistry registry = beanFactory.getBeanProvider(MeterRegistry.class).getIfUnique();
+			if (registry != null) {
+				PersistenceInstrumentation.setBackend(new MicrometerInstrumentationBackend(registry));
+			}
+			else {
+				PersistenceInstrumentationConfiguration.LOGGER.info("Persistence instrumentation enabled, but there is no (unique) meter registry.");
+			}
+		}
+
+	}
+
+}
@@ -11,11 +11,15 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.domain.EntityScanPackages;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.boot.orm.jpa.EntityManagerFactoryBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
@@ -43,6 +47,15 @@ import jakarta.persistence.EntityManagerFactory;
 		havingValue = "true")
 public class PrimaryJpaConfiguration {
 
+	/** Primary unit properties prefix (read replicas). */
+	public static final String PRIMARY_PROPERTY_PREFIX = "org.coldis.configuration.persistence.primary";
+
+	/** Primary pool tuning properties prefix. */
+	public static final String HIKARI_PROPERTY_PREFIX = "spring.datasource.hikari";
+
+	/** Whether secondary pools start from the primary pool tuning (off by default). */
+	public static final String INHERIT_HIKARI_PROPERTY = "org.coldis.configuration.persistence.pool-tuning.inherit-primary";
+
 	/** Bean factory (used to read the registered entity-scan packages). */
 	@Autowired
 	private BeanFactory beanFactory;
@@ -51,6 +64,10 @@ public class PrimaryJpaConfiguration {
 	@Autowired
 	private ResourceLoader resourceLoader;
 
+	/** Environment (used to bind the pool tuning and the read replicas). */
+	@Autowired
+	private Environment environment;
+
 	/**
 	 * Primary datasource properties (bound from {@code spring.datasource}).
 	 *
@@ -64,15 +81,24 @@ public class PrimaryJpaConfiguration {
 	}
 
 	/**
-	 * Primary datasource (pool tuning bound from {@code spring.datasource.hikari}).
+	 * Primary datasource (pool tuning bound from {@code spring.datasource.hikari}). With read replicas
+	 * configured under {@code org.coldis.configuration.persistence.primary.replicas[<index>].*}, a
+	 * {@link ReplicaRoutingDataSource} sending read-only transactions to them.
 	 *
 	 * @return The primary datasource.
 	 */
 	@Primary
 	@Bean
-	@ConfigurationProperties(prefix = "spring.datasource.hikari")
 	public DataSource dataSource() {
-		return this.dataSourceProperties().initializeDataSourceBuilder().build();
+		final DataSourceProperties properties = this.dataSourceProperties();
+		final DataSource dataSource = properties.initializeDataSourceBuilder().build();
+		final Binder binder = Binder.get(this.environment);
+		binder.bind(PrimaryJpaConfiguration.HIKARI_PROPERTY_PREFIX, Bindable.ofInstance(dataSource));
+		final ReplicaRoutingProperties routingProperties = binder
+				.bind(PrimaryJpaConfiguration.PRIMARY_PROPERTY_PREFIX, Bindable.of(ReplicaRoutingProperties.class)).orElse(null);
+		return ReplicaRoutingDataSource.of(this.environment, "primary", PrimaryJpaConfiguration.PRIMARY_PROPERTY_PREFIX,
+				List.of(PrimaryJpaConfiguration.HIKARI_PROPERTY_PREFIX), dataSource, routingProperties, properties.determineUsername(),
+				properties.determinePassword(), properties.determineDriverClassName());
 	}
 
 	/**
@@ -92,7 +118,15 @@ public class PrimaryJpaConfiguration {
 		final Set<String> secondaryClassNames = DatasourceUnitScan.of(this.resourceLoader, packages).getAnnotatedClassNames();
 		final PersistenceManagedTypes managedTypes = new PersistenceManagedTypesScanner(this.resourceLoader,
 				className -> !secondaryClassNames.contains(className)).scan(packages.toArray(new String[] {}));
-		return builder.dataSource(this.dataSource()).persistenceUnit("default").managedTypes(managedTypes).build();
+		final LocalContainerEntityManagerFactoryBean entityManagerFactory = builder.dataSource(this.dataSource()).persistenceUnit("default")
+				.managedTypes(managedTypes).build();
+		// Bootstraps alongside the secondary units when they bootstrap in parallel.
+		if (this.environment.getProperty(SecondaryDatasourcesRegistrar.PARALLEL_BOOTSTRAP_PROPERTY, Boolean.class, false)
+				&& this.beanFactory.containsBean(SecondaryDatasourcesRegistrar.BOOTSTRAP_EXECUTOR_BEAN_NAME)) {
+			entityManagerFactory
+					.setBootstrapExecutor(this.beanFactory.getBean(SecondaryDatasourcesRegistrar.BOOTSTRAP_EXECUTOR_BEAN_NAME, AsyncTaskExecutor.class));
+		}
+		return entityManagerFactory;
 	}
 
 	/**
@@ -0,0 +1,113 @@
+package org.coldis.library.persistence.configuration;
+
+import java.lang.reflect.Method;
+
+import org.coldis.library.persistence.repository.PostgresJpaRepositoryImpl;
+import org.coldis.library.persistence.repository.QueryBudget;
+import org.coldis.library.persistence.repository.QueryBudgetInterceptor;
+import org.springframework.aop.framework.AbstractAdvisingBeanPostProcessor;
+import org.springframework.aop.support.StaticMethodMatcherPointcutAdvisor;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * {@link QueryBudget} support (disabled with
+ * {@code org.coldis.configuration.persistence.query-budget.enabled=false}).
+ *
+ * <p>
+ * Every repository proxy of a {@link PostgresJpaRepositoryImpl}-based repository (primary and
+ * secondary units) gets a {@link QueryBudgetInterceptor} inside its transaction interceptor, which
+ * applies the current budget to the transaction. Only beans with {@link QueryBudget} service methods
+ * are proxied (by a dedicated advising post-processor, class-based for those beans only; an existing
+ * proxy just gets the advisor) to open the budget scope around those methods.
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(
+		name = "org.coldis.configuration.persistence.query-budget.enabled",
+		havingValue = "true",
+		matchIfMissing = true
+)
+public class QueryBudgetConfiguration {
+
+	/**
+	 * Adds the budget interceptor to every repository proxy.
+	 *
+	 * @return The repository factory post processor.
+	 */
+	@Bean
+	@Role(value = BeanDefinition.ROLE_INFRASTRUCTURE)
+	public static BeanPostProcessor queryBudgetRepositoryPostProcessor() {
+		return new BeanPostProcessor() {
+
+			@Override
+			public Object postProcessBeforeInitialization(
+					final Object bean,
+					final String beanName) throws BeansException {
+				if (bean instanceof final RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+					factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) -> {
+						// Only these repositories can apply a budget to their transaction.
+						if (PostgresJpaRepositoryImpl.class.isAssignableFrom(repositoryInformation.getRepositoryBaseClass())) {
+							proxyFactory.addAdvice(new QueryBudgetInterceptor(repositoryInformation.getRepositoryInterface()));
+						}
+					}));
+				}
+				return bean;
+			}
+
+		};
+	}
+
+	/**
+	 * Opens the budget scope around budgeted service methods.
+	 *
+	 * @return The service budget post processor.
+	 */
+	@Bean
+	@Role(value = BeanDefinition.ROLE_INFRASTRUCTURE)
+	public static BeanPostProcessor queryBudgetServicePostProcessor() {
+		return new ServiceBudgetPostProcessor();
+	}
+
+	/**
+	 * Proxies the beans with budgeted (non-repository) methods, or adds the budget advisor to their
+	 * existing proxy — ahead of its other advisors, so the scope is opened outside the transaction
+	 * (the budget is applied lazily, by the repositories).
+	 */
+	static class ServiceBudgetPostProcessor extends AbstractAdvisingBeanPostProcessor {
+
+		/** Serial. */
+		private static final long serialVersionUID = 6271564478117253853L;
+
+		/**
+		 * Default constructor.
+		 */
+		ServiceBudgetPostProcessor() {
+			this.advisor = new StaticMethodMatcherPointcutAdvisor(new QueryBudgetInterceptor(null)) {
+
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				public boolean matches(
+						final Method method,
+						final Class<?> targetClass) {
+					// Repositories apply their own budgets (inside their transactions).
+					return !Repository.class.isAssignableFrom(targetClass) && (QueryBudgetInterceptor.findBudget(method, targetClass) != null);
+				}
+
+			};
+			this.setBeforeExistingAdvisors(true);
+			// Budgeted services need not implement an interface.
+			this.setProxyTargetClass(true);
+		}
+
+	}
+
+}
@@ -0,0 +1,59 @@
+package org.coldis.library.persistence.configuration;
+
+/**
+ * One read replica of a persistence unit, bound from {@code <unit prefix>.replicas[<index>].*} (see
+ * {@link ReplicaRoutingProperties}). Credentials and driver default to the unit's own. Pool tuning
+ * starts from the unit's Hikari settings and is then overridden by the
+ * {@code replicas[<index>].hikari.*} sub-tree.
+ */
+public class ReplicaDatasourceProperties {
+
+	/** JDBC url. */
+	private String url;
+
+	/** JDBC username (optional; the unit's when absent). */
+	private String username;
+
+	/** JDBC password (optional; the unit's when absent). */
+	private String password;
+
+	/** JDBC driver class name (optional; the unit's, or inferred from the url, when absent). */
+	private String driverClassName;
+
+	public String getUrl() {
+		return this.url;
+	}
+
+	public void setUrl(
+			final String url) {
+		this.url = url;
+	}
+
+	public String getUsername() {
+		return this.username;
+	}
+
+	public void setUsername(
+			final String username) {
+		this.username = username;
+	}
+
+	public String getPassword() {
+		return this.password;
+	}
+
+	public void setPassword(
+			final String password) {
+		this.password = password;
+	}
+
+	public String getDriverClassName() {
+		return this.driverClassName;
+	}
+
+	public void setDriverClassName(
+			final String driverClassName) {
+		this.driverClassName = driverClassName;
+	}
+
+}
@@ -0,0 +1,356 @@
+package org.coldis.library.persistence.configuration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+/**
+ * Datasource of a persistence unit with read replicas: connections of read-only transactions
+ * ({@code @Transactional(readOnly = true)}, and so
+ * {@link org.coldis.library.persistence.repository.PostgresJpaRepository#findByIdForRead(Object)}
+ * when called outside a read-write transaction) go to one of the replica pools, every other
+ * connection goes to the primary pool.
+ *
+ * <p>
+ * The read-only flag is only known once the transaction has started, after the transaction manager
+ * asked for its connection, so this is a {@link LazyConnectionDataSourceProxy}: the physical
+ * connection is only taken (and routed) on the first statement. Replicas are picked according to
+ * {@link ReplicaSelection}. When a maximum lag is configured, each replica's replay lag is checked
+ * periodically and lagging (or unreachable) replicas stop taking reads until they catch up; with no
+ * healthy replica, reads fall back to the primary.
+ * </p>
+ *
+ * <p>
+ * A read-only transaction may not see writes the caller committed just before (replication is
+ * asynchronous), so read-your-writes paths should stay in read-write transactions.
+ * </p>
+ */
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+	/** Logger. */
+	private static final Logger LOGGER = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+	/** Primary lookup key. */
+	private static final String PRIMARY_KEY = "primary";
+
+	/**
+	 * Replay lag query (milliseconds): zero when everything received has been replayed (an idle
+	 * primary must not make the replica look late) or when not a standby at all.
+	 */
+	private static final String LAG_QUERY = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+			+ "ELSE COALESCE(EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())) * 1000, 0) END";
+
+	/** Runs the replica lag checks (of every unit). */
+	private static final ScheduledExecutorService LAG_CHECKER = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+			.name("replica-lag-checker")
+			.daemon(true)
+			.factory());
+
+	/** Unit name. */
+	private final String unit;
+
+	/** Primary datasource. */
+	private final DataSource primary;
+
+	/** Replicas. */
+	private final List<Replica> replicas;
+
+	/** Replica selection. */
+	private final ReplicaSelection selection;
+
+	/** Next turn (round robin and ties). */
+	private final AtomicInteger turn = new AtomicInteger();
+
+	/** Scheduled lag check ({@code null} when disabled). */
+	private final ScheduledFuture<?> lagCheck;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param unit             Unit name.
+	 * @param primary          Primary datasource.
+	 * @param replicas         Replica datasources.
+	 * @param selection        Replica selection.
+	 * @param maxLag           Maximum replica lag ({@code null} for no lag check).
+	 * @param lagCheckInterval How often the replica lag is checked.
+	 */
+	public ReplicaRoutingDataSource(
+			final String unit,
+			final DataSource primary,
+			final List<DataSource> replicas,
+			final ReplicaSelection selection,
+			final Duration maxLag,
+			final Duration lagCheckInterval) {
+		this.unit = unit;
+		this.primary = primary;
+		this.replicas = replicas.stream().map(Replica::new).toList();
+		this.selection = (selection == null) ? ReplicaSelection.ROUND_ROBIN : selection;
+		final Router router = new Router();
+		final Map<Object, Object> targets = new HashMap<>();
+		targets.put(ReplicaRoutingDataSource.PRIMARY_KEY, primary);
+		for (int index = 0; index < replicas.size(); index++) {
+			targets.put(index, replicas.get(index));
+		}
+		router.setTargetDataSources(targets);
+		router.setDefaultTargetDataSource(primary);
+		router.afterPropertiesSet();
+		this.setTargetDataSource(router);
+		// Known defaults spare a connection at startup.
+		if (primary instanceof final HikariDataSource hikariDataSource) {
+			this.setDefaultAutoCommit(hikariDataSource.isAutoCommit());
+			if (hikariDataSource.getTransactionIsolation() != null) {
+				this.setDefaultTransactionIsolationName(hikariDataSource.getTransactionIsolation());
+			}
+			else {
+				this.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+			}
+		}
+		this.afterPropertiesSet();
+		this.lagCheck = ((maxLag == null) || this.replicas.isEmpty()) ? null
+				: ReplicaRoutingDataSource.LAG_CHECKER.scheduleWithFixedDelay(() -> this.checkLag(maxLag), 0L, lagCheckInterval.toMillis(),
+						TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Creates a unit datasource: the primary itself if the unit has no replicas, otherwise a routing
+	 * datasource over the primary and Hikari pools for each replica.
+	 *
+	 * @param  environment     Environment.
+	 * @param  unit            Unit name.
+	 * @param  prefix          Unit properties prefix (replicas are bound from
+	 *                             {@code <prefix>.replicas[<index>]}).
+	 * @param  hikariPrefixes  Unit Hikari properties prefixes (replica pools start from them, in
+	 *                             order).
+	 * @param  primary         Primary datasource.
+	 * @param  properties      Unit replica properties.
+	 * @param  username        Unit username.
+	 * @param  password        Unit password.
+	 * @param  driverClassName Unit driver class name.
+	 * @return                 The unit datasource.
+	 */
+	public static DataSource of(
+			final Environment environment,
+			final String unit,
+			final String prefix,
+			final List<String> hikariPrefixes,
+			final DataSource primary,
+			final ReplicaRoutingProperties properties,
+			final String username,
+			final String password,
+			final String driverClassName) {
+		DataSource dataSource = primary;
+		if ((properties != null) && (properties.getReplicas() != null) && !properties.getReplicas().isEmpty()) {
+			final List<DataSource> replicas = new ArrayList<>();
+			for (int index = 0; index < properties.getReplicas().size(); index++) {
+				final ReplicaDatasourceProperties replica = properties.getReplicas().get(index);
+				final DataSourceBuilder<HikariDataSource> builder = DataSourceBuilder.create().type(HikariDataSource.class).url(replica.getUrl())
+						.username(StringUtils.defaultIfBlank(replica.getUsername(), username))
+						.password(StringUtils.defaultIfBlank(replica.getPassword(), password));
+				final String replicaDriverClassName = StringUtils.defaultIfBlank(replica.getDriverClassName(), driverClassName);
+				if (StringUtils.isNotBlank(replicaDriverClassName)) {
+					builder.driverClassName(replicaDriverClassName);
+				}
+				final HikariDataSource replicaDataSource = builder.build();
+				for (final String hikariPrefix : hikariPrefixes) {
+					Binder.get(environment).bind(hikariPrefix, Bindable.ofInstance(replicaDataSource));
+				}
+				// The unit's connection settings and pool name are not inherited.
+				replicaDataSource.setJdbcUrl(replica.getUrl());
+				replicaDataSource.setUsername(StringUtils.defaultIfBlank(replica.getUsername(), username));
+				replicaDataSource.setPassword(StringUtils.defaultIfBlank(replica.getPassword(), password));
+				replicaDataSource.setPoolName(null);
+				Binder.get(environment).bind(prefix + ".replicas[" + index + "].hikari", Bindable.ofInstance(replicaDataSource));
+				if (replicaDataSource.getPoolName() == null) {
+					final String primaryPoolName = (primary instanceof final HikariDataSource hikariDataSource) ? hikariDataSource.getPoolName() : null;
+					replicaDataSource.setPoolName(StringUtils.defaultIfBlank(primaryPoolName, unit) + "-replica-" + index);
+				}
+				replicas.add(replicaDataSource);
+			}
+			dataSource = new ReplicaRoutingDataSource(unit, primary, replicas, properties.getReplicaSelection(), properties.getReplicaMaxLag(),
+					properties.getReplicaLagCheckInterval());
+		}
+		return dataSource;
+	}
+
+	/**
+	 * Gets the primary datasource.
+	 *
+	 * @return The primary datasource.
+	 */
+	public DataSource getPrimaryDataSource() {
+		return this.primary;
+	}
+
+	/**
+	 * Gets the replica datasources.
+	 *
+	 * @return The replica datasources.
+	 */
+	public List<DataSource> getReplicaDataSources() {
+		return this.replicas.stream().map(replica -> replica.dataSource).toList();
+	}
+
+	/**
+	 * Picks a healthy replica.
+	 *
+	 * @return The replica index ({@code null} if no replica is healthy).
+	 */
+	private Integer selectReplica() {
+		Integer selected = null;
+		final int size = this.replicas.size();
+		final int start = Math.floorMod(this.turn.getAndIncrement(), Math.max(1, size));
+		int selectedLoad = Integer.MAX_VALUE;
+		for (int offset = 0; offset < size; offset++) {
+			final int index = (start + offset) % size;
+			final Replica replica = this.replicas.get(index);
+			if (replica.healthy) {
+				if (this.selection == ReplicaSelection.ROUND_ROBIN) {
+					selected = index;
+					break;
+				}
+				final int load = replica.getActiveConnections();
+				if (load < selectedLoad) {
+					selected = index;
+					selectedLoad = load;
+				}
+			}
+		}
+		return selected;
+	}
+
+	/**
+	 * Checks every replica's lag, taking lagging or unreachable replicas out of rotation.
+	 *
+	 * @param maxLag Maximum replica lag.
+	 */
+	private void checkLag(
+			final Duration maxLag) {
+		for (int index = 0; index < this.replicas.size(); index++) {
+			final Replica replica = this.replicas.get(index);
+			boolean healthy;
+			String reason;
+			try (Connection connection = replica.dataSource.getConnection();
+					PreparedStatement statement = connection.prepareStatement(ReplicaRoutingDataSource.LAG_QUERY);
+					ResultSet resultSet = statement.executeQuery()) {
+				resultSet.next();
+				final long lagMillis = resultSet.getLong(1);
+				healthy = (lagMillis <= maxLag.toMillis());
+				reason = "lag of " + lagMillis + "ms";
+			}
+			catch (final Exception exception) {
+				healthy = false;
+				reason = exception.getLocalizedMessage();
+			}
+			if (healthy != replica.healthy) {
+				replica.healthy = healthy;
+				if (healthy) {
+					ReplicaRoutingDataSource.LOGGER.info("Replica " + index + " of unit '" + this.unit + "' is back in rotation (" + reason + ").");
+				}
+				else {
+					ReplicaRoutingDataSource.LOGGER.warn("Replica " + index + " of unit '" + this.unit + "' taken out of rotation (" + reason + ").");
+				}
+			}
+		}
+	}
+
+	/**
+	 * Stops the lag check and closes the primary and replica pools.
+	 *
+	 * @see java.lang.AutoCloseable#close()
+	 */
+	@Override
+	public void close() throws Exception {
+		if (this.lagCheck != null) {
+			this.lagCheck.cancel(false);
+		}
+		for (final Replica replica : this.replicas) {
+			if (replica.dataSource instanceof final AutoCloseable closeable) {
+				closeable.close();
+			}
+		}
+		if (this.primary instanceof final AutoCloseable closeable) {
+			closeable.close();
+		}
+	}
+
+	/**
+	 * A replica and its health.
+	 */
+	private static final class Replica {
+
+		/** Datasource. */
+		private final DataSource dataSource;
+
+		/** Whether the replica takes reads. */
+		private volatile boolean healthy = true;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param dataSource Datasource.
+		 */
+		private Replica(final DataSource dataSource) {
+			this.dataSource = dataSource;
+		}
+
+		/**
+		 * Gets the active connections of the replica pool (zero if unknown or not started).
+		 */
+		private int getActiveConnections() {
+			int activeConnections = 0;
+			if (this.dataSource instanceof final HikariDataSource hikariDataSource) {
+				final HikariPoolMXBean pool = hikariDataSource.getHikariPoolMXBean();
+				activeConnections = (pool == null) ? 0 : pool.getActiveConnections();
+			}
+			return activeConnections;
+		}
+
+	}
+
+	/**
+	 * Routes on the current transaction's read-only flag.
+	 */
+	private final class Router extends AbstractRoutingDataSource {
+
+		/**
+		 * @see org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource#determineCurrentLookupKey()
+		 */
+		@Override
+		protected Object determineCurrentLookupKey() {
+			Object key = ReplicaRoutingDataSource.PRIMARY_KEY;
+			if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+				final Integer replica = ReplicaRoutingDataSource.this.selectReplica();
+				key = (replica == null) ? ReplicaRoutingDataSource.PRIMARY_KEY : replica;
+			}
+			return key;
+		}
+
+	}
+
+}
@@ -0,0 +1,65 @@
+package org.coldis.library.persistence.configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas of a persistence unit. Bound from
+ * {@code org.coldis.configuration.persistence.primary.*} for the primary unit (see
+ * {@link PrimaryJpaConfiguration}) and from
+ * {@code org.coldis.configuration.persistence.datasources.<name>.*} for each secondary unit (see
+ * {@link SecondaryDatasourceProperties}). With no replicas the unit keeps its plain pool; otherwise
+ * its datasource becomes a {@link ReplicaRoutingDataSource}.
+ */
+public class ReplicaRoutingProperties {
+
+	/** Read replicas. */
+	private List<ReplicaDatasourceProperties> replicas = new ArrayList<>();
+
+	/** How read-only connections pick a replica. */
+	private ReplicaSelection replicaSelection = ReplicaSelection.ROUND_ROBIN;
+
+	/** Maximum replica lag before a replica stops taking reads (optional; no lag check when absent). */
+	private Duration replicaMaxLag;
+
+	/** How often the replica lag is checked (when {@link #getReplicaMaxLag()} is set). */
+	private Duration replicaLagCheckInterval = Duration.ofSeconds(5);
+
+	public List<ReplicaDatasourceProperties> getReplicas() {
+		return this.replicas;
+	}
+
+	public void setReplicas(
+			final List<ReplicaDatasourceProperties> replicas) {
+		this.replicas = replicas;
+	}
+
+	public ReplicaSelection getReplicaSelection() {
+		return this.replicaSelection;
+	}
+
+	public void setReplicaSelection(
+			final ReplicaSelection replicaSelection) {
+		this.replicaSelection = replicaSelection;
+	}
+
+	public Duration getReplicaMaxLag() {
+		return this.replicaMaxLag;
+	}
+
+	public void setReplicaMaxLag(
+			final Duration replicaMaxLag) {
+		this.replicaMaxLag = replicaMaxLag;
+	}
+
+	public Duration getReplicaLagCheckInterval() {
+		return this.replicaLagCheckInterval;
+	}
+
+	public void setReplicaLagCheckInterval(
+			final Duration replicaLagCheckInterval) {
+		this.replicaLagCheckInterval = replicaLagCheckInterval;
+	}
+
+}
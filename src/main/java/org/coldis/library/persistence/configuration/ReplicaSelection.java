@@ -0,0 +1,19 @@
+package org.coldis.library.persistence.configuration;
+
+/**
+ * How a read-only connection picks one of the (healthy) replicas of a unit (see
+ * {@link ReplicaRoutingDataSource}).
+ */
+public enum ReplicaSelection {
+
+	/**
+	 * Replicas take turns.
+	 */
+	ROUND_ROBIN,
+
+	/**
+	 * The replica whose pool has the fewest active connections (ties take turns).
+	 */
+	LEAST_LOADED
+
+}
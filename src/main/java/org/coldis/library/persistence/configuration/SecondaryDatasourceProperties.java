@@ -6,9 +6,10 @@ package org.coldis.library.persistence.configuration;
  * name and drives the bean names ({@code <name>DataSource}, {@code <name>EntityManagerFactory},
  * {@code <name>TransactionManager}) and the {@link DatasourceUnit @DatasourceUnit} value that binds
  * entities and repositories to the unit. Pool tuning is bound separately from the
- * {@code <name>.hikari.*} sub-tree onto the Hikari datasource.
+ * {@code <name>.hikari.*} sub-tree onto the Hikari datasource. Read replicas (see
+ * {@link ReplicaRoutingProperties}) are configured under {@code <name>.replicas[<index>].*}.
  */
-public class SecondaryDatasourceProperties {
+public class SecondaryDatasourceProperties extends ReplicaRoutingProperties {
 
 	/** JDBC url. */
 	private String url;
@@ -22,6 +23,9 @@ public class SecondaryDatasourceProperties {
 	/** JDBC driver class name (optional; inferred from the url when absent). */
 	private String driverClassName;
 
+	/** Whether the unit only bootstraps on first use. */
+	private Boolean lazy = false;
+
 	public String getUrl() {
 		return this.url;
 	}
@@ -58,4 +62,13 @@ public class SecondaryDatasourceProperties {
 		this.driverClassName = driverClassName;
 	}
 
+	public Boolean getLazy() {
+		return this.lazy;
+	}
+
+	public void setLazy(
+			final Boolean lazy) {
+		this.lazy = lazy;
+	}
+
 }
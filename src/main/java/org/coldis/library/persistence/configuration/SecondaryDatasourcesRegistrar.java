@@ -10,8 +10,11 @@ import javax.sql.DataSource;
 
 import org.apache.commons.lang3.StringUtils;
 import org.coldis.library.persistence.repository.PostgresJpaRepositoryImpl;
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.config.ConstructorArgumentValues;
 import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.parsing.BeanComponentDefinition;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.beans.factory.support.RootBeanDefinition;
 import org.springframework.boot.context.properties.bind.Bindable;
@@ -24,11 +27,14 @@ import org.springframework.context.annotation.ImportBeanDefinitionRegistrar;
 import org.springframework.core.annotation.AnnotationAttributes;
 import org.springframework.core.env.Environment;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.core.type.filter.TypeFilter;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.data.jpa.repository.config.JpaRepositoryConfigExtension;
 import org.springframework.data.repository.config.AnnotationRepositoryConfigurationSource;
+import org.springframework.data.repository.config.BootstrapMode;
 import org.springframework.data.repository.config.RepositoryConfigurationDelegate;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
@@ -63,6 +69,15 @@ import com.zaxxer.hikari.HikariDataSource;
  * {@code enableDefaultTransactions = false}), so a secondary unit can never silently diverge from the
  * primary.
  * </p>
+ *
+ * <p>
+ * With {@code org.coldis.configuration.persistence.parallel-bootstrap.enabled=true}, entity manager
+ * factories are built in the background (on Spring's {@code bootstrapExecutor} when the application
+ * defines one), and the first repository needed starts every eager unit at once, so units bootstrap
+ * in parallel rather than one after the other. A rarely used unit can be marked
+ * {@code <name>.lazy=true}: its beans are lazy and its repositories are injected as lazy proxies, so
+ * it only bootstraps on first use.
+ * </p>
  */
 public class SecondaryDatasourcesRegistrar implements ImportBeanDefinitionRegistrar, EnvironmentAware, ResourceLoaderAware {
 
@@ -72,6 +87,15 @@ public class SecondaryDatasourcesRegistrar implements ImportBeanDefinitionRegist
 	/** Base package property (the same one driving the primary entity/repository scan). */
 	public static final String BASE_PACKAGE_PROPERTY = "org.coldis.configuration.persistence.jpa.base-package";
 
+	/** Parallel bootstrap property (unit entity manager factories are built in the background). */
+	public static final String PARALLEL_BOOTSTRAP_PROPERTY = "org.coldis.configuration.persistence.parallel-bootstrap.enabled";
+
+	/** Executor bootstrapping the units when {@link #PARALLEL_BOOTSTRAP_PROPERTY} is enabled. */
+	public static final String BOOTSTRAP_EXECUTOR_BEAN_NAME = "persistenceBootstrapExecutor";
+
+	/** Spring's background bootstrap executor (used by the units when the application defines it). */
+	private static final String SPRING_BOOTSTRAP_EXECUTOR_BEAN_NAME = "bootstrapExecutor";
+
 	/** Environment. */
 	private Environment environment;
 
@@ -159,36 +183,94 @@ public class SecondaryDatasourcesRegistrar implements ImportBeanDefinitionRegist
 			final List<String> basePackages = this.resolveBasePackages();
 			final DatasourceUnitScan scan = DatasourceUnitScan.of(this.resourceLoader, basePackages);
 			this.validateUnits(datasources, scan);
+			final boolean parallelBootstrap = this.environment.getProperty(SecondaryDatasourcesRegistrar.PARALLEL_BOOTSTRAP_PROPERTY, Boolean.class, false);
+			if (parallelBootstrap && !registry.containsBeanDefinition(SecondaryDatasourcesRegistrar.BOOTSTRAP_EXECUTOR_BEAN_NAME)) {
+				this.registerBootstrapExecutor(registry);
+			}
+			final List<String> eagerEntityManagerFactories = new ArrayList<>();
 			for (final Map.Entry<String, SecondaryDatasourceProperties> entry : datasources.entrySet()) {
 				final String name = entry.getKey();
 				final SecondaryDatasourceProperties properties = entry.getValue();
-				this.registerDataSource(registry, name, properties);
-				this.registerEntityManagerFactory(registry, name, scan.getEntityClassNames(name));
-				this.registerTransactionManager(registry, name);
-				this.registerRepositories(registry, name, basePackages);
+				final boolean lazy = Boolean.TRUE.equals(properties.getLazy());
+				this.registerDataSource(registry, name, properties, lazy);
+				this.registerEntityManagerFactory(registry, name, scan.getEntityClassNames(name), parallelBootstrap, lazy);
+				this.registerTransactionManager(registry, name, lazy);
+				if (!lazy) {
+					eagerEntityManagerFactories.add(name + "EntityManagerFactory");
+				}
+			}
+			for (final Map.Entry<String, SecondaryDatasourceProperties> entry : datasources.entrySet()) {
+				final boolean lazy = Boolean.TRUE.equals(entry.getValue().getLazy());
+				final List<BeanComponentDefinition> repositories = this.registerRepositories(registry, entry.getKey(), basePackages, lazy);
+				// The first repository needed starts every eager unit's bootstrap, not only its own.
+				if (parallelBootstrap && !lazy) {
+					repositories.forEach(repository -> ((AbstractBeanDefinition) repository.getBeanDefinition())
+							.setDependsOn(eagerEntityManagerFactories.toArray(new String[] {})));
+				}
 			}
 		}
 	}
 
+	/**
+	 * Registers the {@value #BOOTSTRAP_EXECUTOR_BEAN_NAME} bean: Spring's {@code bootstrapExecutor}
+	 * when the application defines one, otherwise a dedicated executor.
+	 */
+	private void registerBootstrapExecutor(
+			final BeanDefinitionRegistry registry) {
+		final RootBeanDefinition definition = new RootBeanDefinition(AsyncTaskExecutor.class);
+		definition.setInstanceSupplier(() -> {
+			final AsyncTaskExecutor executor;
+			if ((registry instanceof final BeanFactory beanFactory) && beanFactory.containsBean(SecondaryDatasourcesRegistrar.SPRING_BOOTSTRAP_EXECUTOR_BEAN_NAME)
+					&& beanFactory.isTypeMatch(SecondaryDatasourcesRegistrar.SPRING_BOOTSTRAP_EXECUTOR_BEAN_NAME, AsyncTaskExecutor.class)) {
+				executor = beanFactory.getBean(SecondaryDatasourcesRegistrar.SPRING_BOOTSTRAP_EXECUTOR_BEAN_NAME, AsyncTaskExecutor.class);
+			}
+			else {
+				executor = new SimpleAsyncTaskExecutor("persistence-bootstrap-");
+			}
+			return executor;
+		});
+		registry.registerBeanDefinition(SecondaryDatasourcesRegistrar.BOOTSTRAP_EXECUTOR_BEAN_NAME, definition);
+	}
+
 	/**
 	 * Registers the {@code <name>DataSource} bean (a Hikari datasource with its {@code <name>.hikari.*}
-	 * pool tuning bound in).
+	 * pool tuning bound in, or a {@link ReplicaRoutingDataSource} over it when the entry has
+	 * replicas).
 	 */
 	private void registerDataSource(
 			final BeanDefinitionRegistry registry,
 			final String name,
-			final SecondaryDatasourceProperties properties) {
+			final SecondaryDatasourceProperties properties,
+			final boolean lazy) {
 		final String prefix = SecondaryDatasourcesRegistrar.DATASOURCES_PROPERTY_PREFIX + "." + name;
-		final RootBeanDefinition definition = new RootBeanDefinition(HikariDataSource.class);
-		definition.setInstanceSupplier(() -> this.createDataSource(prefix, properties));
+		final boolean replicated = (properties.getReplicas() != null) && !properties.getReplicas().isEmpty();
+		final RootBeanDefinition definition = new RootBeanDefinition(replicated ? ReplicaRoutingDataSource.class : HikariDataSource.class);
+		final List<String> hikariPrefixes = this.isInheritingPrimaryTuning() ? List.of(PrimaryJpaConfiguration.HIKARI_PROPERTY_PREFIX, prefix + ".hikari")
+				: List.of(prefix + ".hikari");
+		definition.setInstanceSupplier(() -> ReplicaRoutingDataSource.of(this.environment, name, prefix, hikariPrefixes,
+				this.createDataSource(name, prefix, properties), properties, properties.getUsername(), properties.getPassword(),
+				properties.getDriverClassName()));
 		definition.setDestroyMethodName("close");
+		definition.setLazyInit(lazy);
 		registry.registerBeanDefinition(name + "DataSource", definition);
 	}
 
 	/**
-	 * Builds a Hikari datasource from an entry's properties.
+	 * Whether secondary (and their replica) pools start from the primary's
+	 * {@code spring.datasource.hikari.*} tuning ({@code pool-tuning.inherit-primary=true}; off by
+	 * default, as the primary's sizing and driver properties rarely fit another database).
+	 */
+	private boolean isInheritingPrimaryTuning() {
+		return this.environment.getProperty(PrimaryJpaConfiguration.INHERIT_HIKARI_PROPERTY, Boolean.class, false);
+	}
+
+	/**
+	 * Builds a Hikari datasource from an entry's properties and its own {@code <name>.hikari.*}
+	 * tuning (on top of the primary's {@code spring.datasource.hikari.*} one when opted in, see
+	 * {@link #isInheritingPrimaryTuning()}); it is named after the entry unless the entry names it.
 	 */
 	private HikariDataSource createDataSource(
+			final String name,
 			final String prefix,
 			final SecondaryDatasourceProperties properties) {
 		final DataSourceBuilder<HikariDataSource> builder = DataSourceBuilder.create().type(HikariDataSource.class)
@@ -197,19 +279,32 @@ public class SecondaryDatasourcesRegistrar implements ImportBeanDefinitionRegist
 			builder.driverClassName(properties.getDriverClassName());
 		}
 		final HikariDataSource dataSource = builder.build();
+		if (this.isInheritingPrimaryTuning()) {
+			Binder.get(this.environment).bind(PrimaryJpaConfiguration.HIKARI_PROPERTY_PREFIX, Bindable.ofInstance(dataSource));
+			// The primary's connection settings and pool name are not inherited.
+			dataSource.setJdbcUrl(properties.getUrl());
+			dataSource.setUsername(properties.getUsername());
+			dataSource.setPassword(properties.getPassword());
+			dataSource.setPoolName(null);
+		}
 		Binder.get(this.environment).bind(prefix + ".hikari", Bindable.ofInstance(dataSource));
+		if (dataSource.getPoolName() == null) {
+			dataSource.setPoolName(name);
+		}
 		return dataSource;
 	}
 
 	/**
 	 * Registers the {@code <name>EntityManagerFactory} bean, built from the shared
 	 * {@link EntityManagerFactoryBuilder} over the entry's datasource and the entities annotated with
-	 * the entry's {@link DatasourceUnit} name.
+	 * the entry's {@link DatasourceUnit} name (in the background with parallel bootstrap).
 	 */
 	private void registerEntityManagerFactory(
 			final BeanDefinitionRegistry registry,
 			final String name,
-			final String[] entityClassNames) {
+			final String[] entityClassNames,
+			final boolean parallelBootstrap,
+			final boolean lazy) {
 		final RootBeanDefinition definition = new RootBeanDefinition();
 		definition.setBeanClass(SecondaryDatasourcesRegistrar.class);
 		definition.setFactoryMethodName("createEntityManagerFactory");
@@ -218,7 +313,11 @@ public class SecondaryDatasourcesRegistrar implements ImportBeanDefinitionRegist
 		arguments.addIndexedArgumentValue(1, new RuntimeBeanReference(name + "DataSource"));
 		arguments.addIndexedArgumentValue(2, name);
 		arguments.addIndexedArgumentValue(3, entityClassNames);
+		arguments.addIndexedArgumentValue(4,
+				parallelBootstrap ? new RuntimeBeanReference(SecondaryDatasourcesRegistrar.BOOTSTRAP_EXECUTOR_BEAN_NAME) : null,
+				AsyncTaskExecutor.class.getName());
 		definition.setConstructorArgumentValues(arguments);
+		definition.setLazyInit(lazy);
 		registry.registerBeanDefinition(name + "EntityManagerFactory", definition);
 	}
 
@@ -230,14 +329,22 @@ public class SecondaryDatasourcesRegistrar implements ImportBeanDefinitionRegist
 	 * @param  dataSource        Entry datasource.
 	 * @param  unit              Persistence unit name.
 	 * @param  entityClassNames  Entity classes managed by the unit.
+	 * @param  bootstrapExecutor Executor bootstrapping the unit in the background ({@code null} to
+	 *                               bootstrap it right away).
 	 * @return                   The secondary entity manager factory.
 	 */
 	public static LocalContainerEntityManagerFactoryBean createEntityManagerFactory(
 			final EntityManagerFactoryBuilder builder,
 			final DataSource dataSource,
 			final String unit,
-			final String[] entityClassNames) {
-		return builder.dataSource(dataSource).persistenceUnit(unit).managedTypes(PersistenceManagedTypes.of(entityClassNames)).build();
+			final String[] entityClassNames,
+			final AsyncTaskExecutor bootstrapExecutor) {
+		final LocalContainerEntityManagerFactoryBean entityManagerFactory = builder.dataSource(dataSource).persistenceUnit(unit)
+				.managedTypes(PersistenceManagedTypes.of(entityClassNames)).build();
+		if (bootstrapExecutor != null) {
+			entityManagerFactory.setBootstrapExecutor(bootstrapExecutor);
+		}
+		return entityManagerFactory;
 	}
 
 	/**
@@ -245,28 +352,35 @@ public class SecondaryDatasourcesRegistrar implements ImportBeanDefinitionRegist
 	 */
 	private void registerTransactionManager(
 			final BeanDefinitionRegistry registry,
-			final String name) {
+			final String name,
+			final boolean lazy) {
 		final RootBeanDefinition definition = new RootBeanDefinition(JpaTransactionManager.class);
 		final ConstructorArgumentValues arguments = new ConstructorArgumentValues();
 		arguments.addIndexedArgumentValue(0, new RuntimeBeanReference(name + "EntityManagerFactory"));
 		definition.setConstructorArgumentValues(arguments);
+		definition.setLazyInit(lazy);
 		registry.registerBeanDefinition(name + "TransactionManager", definition);
 	}
 
 	/**
 	 * Registers the entry's repositories — those annotated with the entry's {@link DatasourceUnit}
 	 * name, anywhere under the base packages — bound to its entity manager factory / transaction
-	 * manager, via Spring Data's programmatic configuration.
+	 * manager, via Spring Data's programmatic configuration. Repositories of a lazy unit use Spring
+	 * Data's lazy bootstrap mode (injected as lazy proxies, created on first use).
+	 *
+	 * @return The registered repository definitions.
 	 */
-	private void registerRepositories(
+	private List<BeanComponentDefinition> registerRepositories(
 			final BeanDefinitionRegistry registry,
 			final String name,
-			final List<String> basePackages) {
+			final List<String> basePackages,
+			final boolean lazy) {
 		final AnnotationMetadata metadata = AnnotationMetadata.introspect(RepositoryConfigurationTemplate.class);
 		final AnnotationRepositoryConfigurationSource configurationSource = new NamedRepositoryConfigurationSource(metadata, this.resourceLoader,
-				this.environment, registry, basePackages, name, name + "EntityManagerFactory", name + "TransactionManager");
+				this.environment, registry, basePackages, name, name + "EntityManagerFactory", name + "TransactionManager",
+				lazy ? BootstrapMode.LAZY : BootstrapMode.DEFAULT);
 		final RepositoryConfigurationDelegate delegate = new RepositoryConfigurationDelegate(configurationSource, this.resourceLoader, this.environment);
-		delegate.registerRepositoriesIn(registry, new JpaRepositoryConfigExtension());
+		return delegate.registerRepositoriesIn(registry, new JpaRepositoryConfigExtension());
 	}
 
 	/**
@@ -300,6 +414,9 @@ public class SecondaryDatasourcesRegistrar implements ImportBeanDefinitionRegist
 		/** Transaction manager bean name for this entry. */
 		private final String transactionManagerRef;
 
+		/** Repository bootstrap mode for this entry. */
+		private final BootstrapMode bootstrapMode;
+
 		private NamedRepositoryConfigurationSource(
 				final AnnotationMetadata metadata,
 				final ResourceLoader resourceLoader,
@@ -308,12 +425,19 @@ public class SecondaryDatasourcesRegistrar implements ImportBeanDefinitionRegist
 				final List<String> basePackages,
 				final String unit,
 				final String entityManagerFactoryRef,
-				final String transactionManagerRef) {
+				final String transactionManagerRef,
+				final BootstrapMode bootstrapMode) {
 			super(metadata, EnableJpaRepositories.class, resourceLoader, environment, registry);
 			this.basePackages = org.springframework.data.util.Streamable.of(basePackages);
 			this.unit = unit;
 			this.entityManagerFactoryRef = entityManagerFactoryRef;
 			this.transactionManagerRef = transactionManagerRef;
+			this.bootstrapMode = bootstrapMode;
+		}
+
+		@Override
+		public BootstrapMode getBootstrapMode() {
+			return this.bootstrapMode;
 		}
 
 		@Override
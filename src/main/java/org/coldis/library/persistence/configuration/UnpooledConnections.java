@@ -0,0 +1,125 @@
+package org.coldis.library.persistence.configuration;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.ClassUtils;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.util.DriverDataSource;
+
+/**
+ * Opens long-lived connections outside the pool (session locks, {@code LISTEN} connections), so
+ * they neither take a pool slot for minutes nor trip the pool's leak detection, and closing them
+ * really closes them (and so drops every session-level state, such as advisory locks).
+ *
+ * <p>
+ * For a Hikari pool the connection comes from the driver datasource the pool wraps (whether it is
+ * configured with a {@code jdbcUrl}, a {@code dataSourceClassName} or a datasource instance), with
+ * the pool's credentials, catalog, schema and {@code connectionInitSql} applied as the pool would. A
+ * replica-routing datasource uses its primary, and a lazy connection proxy its target. Any other
+ * datasource is used as is.
+ * </p>
+ */
+public final class UnpooledConnections {
+
+	/** Driver datasource types a Hikari pool may wrap. */
+	private static final List<Class<?>> DRIVER_DATASOURCE_TYPES = new ArrayList<>();
+
+	static {
+		UnpooledConnections.DRIVER_DATASOURCE_TYPES.add(DriverDataSource.class);
+		if (ClassUtils.isPresent("org.postgresql.ds.common.BaseDataSource", UnpooledConnections.class.getClassLoader())) {
+			UnpooledConnections.DRIVER_DATASOURCE_TYPES.add(ClassUtils.resolveClassName("org.postgresql.ds.common.BaseDataSource",
+					UnpooledConnections.class.getClassLoader()));
+		}
+	}
+
+	/**
+	 * No instances.
+	 */
+	private UnpooledConnections() {
+	}
+
+	/**
+	 * Gets the driver datasource a Hikari pool wraps.
+	 *
+	 * @param  dataSource   Hikari datasource.
+	 * @return              The driver datasource.
+	 * @throws SQLException If the pool wraps an unknown datasource type.
+	 */
+	private static DataSource getDriverDataSource(
+			final HikariDataSource dataSource) throws SQLException {
+		DataSource driverDataSource = dataSource.getDataSource();
+		if (driverDataSource == null) {
+			// A lazily started pool only creates its driver datasource on the first connection.
+			if (dataSource.getHikariPoolMXBean() == null) {
+				dataSource.getConnection().close();
+			}
+			for (final Class<?> type : UnpooledConnections.DRIVER_DATASOURCE_TYPES) {
+				if (dataSource.isWrapperFor(type)) {
+					driverDataSource = (DataSource) dataSource.unwrap(type);
+					break;
+				}
+			}
+		}
+		if (driverDataSource == null) {
+			throw new SQLException("Could not unwrap the driver datasource of pool " + dataSource.getPoolName() + ".");
+		}
+		return driverDataSource;
+	}
+
+	/**
+	 * Opens a connection outside the pool, in auto-commit mode (the caller closes it).
+	 *
+	 * @param  dataSource   Datasource (the primary is used for a replica-routing datasource, the
+	 *                          target for a lazy connection proxy).
+	 * @return              The connection.
+	 * @throws SQLException If the connection cannot be opened.
+	 */
+	public static Connection open(
+			final DataSource dataSource) throws SQLException {
+		DataSource primaryDataSource = dataSource;
+		if (primaryDataSource instanceof final ReplicaRoutingDataSource routingDataSource) {
+			primaryDataSource = routingDataSource.getPrimaryDataSource();
+		}
+		else if (primaryDataSource instanceof final LazyConnectionDataSourceProxy lazyDataSource) {
+			primaryDataSource = lazyDataSource.getTargetDataSource();
+		}
+		final Connection connection;
+		if (primaryDataSource instanceof final HikariDataSource hikariDataSource) {
+			final DataSource driverDataSource = UnpooledConnections.getDriverDataSource(hikariDataSource);
+			connection = (hikariDataSource.getUsername() == null) ? driverDataSource.getConnection()
+					: driverDataSource.getConnection(hikariDataSource.getUsername(), hikariDataSource.getPassword());
+			try {
+				if (hikariDataSource.getCatalog() != null) {
+					connection.setCatalog(hikariDataSource.getCatalog());
+				}
+				if (hikariDataSource.getSchema() != null) {
+					connection.setSchema(hikariDataSource.getSchema());
+				}
+				if (hikariDataSource.getConnectionInitSql() != null) {
+					try (Statement statement = connection.createStatement()) {
+						statement.execute(hikariDataSource.getConnectionInitSql());
+					}
+				}
+				connection.setAutoCommit(true);
+			}
+			catch (final SQLException exception) {
+				connection.close();
+				throw exception;
+			}
+		}
+		else {
+			connection = primaryDataSource.getConnection();
+			connection.setAutoCommit(true);
+		}
+		return connection;
+	}
+
+}
@@ -2,6 +2,7 @@ package org.coldis.library.persistence.converter;
 
 import org.coldis.library.model.view.ModelView;
 import org.coldis.library.persistence.configuration.JpaAutoConfiguration;
+import org.coldis.library.persistence.instrumentation.PersistenceInstrumentation;
 import org.coldis.library.serialization.ObjectMapperHelper;
 import org.springframework.core.annotation.AnnotationUtils;
 
@@ -21,6 +22,18 @@ public abstract class AbstractJsonConverter<ObjectType> implements AttributeConv
 	 */
 	private static final Class<?> DEFAULT_SERIALIZATION_VIEW = ModelView.PersistentAndSensitive.class;
 
+	/**
+	 * Instrumented serialization.
+	 */
+	private final PersistenceInstrumentation.Operation toDatabaseOperation = PersistenceInstrumentation
+			.operation(PersistenceInstrumentation.CONVERTER_METER, "converter", this.getClass().getSimpleName(), "direction", "to-database");
+
+	/**
+	 * Instrumented deserialization.
+	 */
+	private final PersistenceInstrumentation.Operation toEntityOperation = PersistenceInstrumentation
+			.operation(PersistenceInstrumentation.CONVERTER_METER, "converter", this.getClass().getSimpleName(), "direction", "to-entity");
+
 	/**
 	 * Returns the object mapper.
 	 *
@@ -38,11 +51,22 @@ public abstract class AbstractJsonConverter<ObjectType> implements AttributeConv
 			final ObjectType originalObject) {
 		String serializedObject = null;
 		if (originalObject != null) {
-			// Gets the serialization view.
-			final PersistenceView persistenceViewAnnotation = AnnotationUtils.findAnnotation(originalObject.getClass(), PersistenceView.class);
-			final Class<?> persistenceView = (persistenceViewAnnotation == null ? AbstractJsonConverter.DEFAULT_SERIALIZATION_VIEW
-					: persistenceViewAnnotation.value());
-			serializedObject = ObjectMapperHelper.serialize(this.getObjectMapper(), originalObject, persistenceView, false);
+			final boolean instrumented = PersistenceInstrumentation.isEnabled();
+			final long start = instrumented ? System.nanoTime() : 0L;
+			boolean failed = true;
+			try {
+				// Gets the serialization view.
+				final PersistenceView persistenceViewAnnotation = AnnotationUtils.findAnnotation(originalObject.getClass(), PersistenceView.class);
+				final Class<?> persistenceView = (persistenceViewAnnotation == null ? AbstractJsonConverter.DEFAULT_SERIALIZATION_VIEW
+						: persistenceViewAnnotation.value());
+				serializedObject = ObjectMapperHelper.serialize(this.getObjectMapper(), originalObject, persistenceView, false);
+				failed = false;
+			}
+			finally {
+				if (instrumented) {
+					this.toDatabaseOperation.record(System.nanoTime() - start, 1L, failed);
+				}
+			}
 		}
 		return serializedObject;
 	}
@@ -64,7 +88,22 @@ public abstract class AbstractJsonConverter<ObjectType> implements AttributeConv
 	@Override
 	public ObjectType convertToEntityAttribute(
 			final String jsonObject) {
-		return jsonObject == null ? null : this.convertToEntityAttribute(this.getObjectMapper(), jsonObject);
+		ObjectType entityAttribute = null;
+		if (jsonObject != null) {
+			final boolean instrumented = PersistenceInstrumentation.isEnabled();
+			final long start = instrumented ? System.nanoTime() : 0L;
+			boolean failed = true;
+			try {
+				entityAttribute = this.convertToEntityAttribute(this.getObjectMapper(), jsonObject);
+				failed = false;
+			}
+			finally {
+				if (instrumented) {
+					this.toEntityOperation.record(System.nanoTime() - start, 1L, failed);
+				}
+			}
+		}
+		return entityAttribute;
 	}
 
 }
@@ -30,6 +30,12 @@ public @interface HistoricalEntity {
 	 */
 	public String stateColumnDefinition() default "JSONB";
 
+	/**
+	 * Entity history id sequence allocation size (ids pre-allocated per sequence round-trip). Must
+	 * match the sequence increment in the database.
+	 */
+	public int sequenceAllocationSize() default 50;
+
 	/**
 	 * Entity history repository template relative path (from resources).
 	 */
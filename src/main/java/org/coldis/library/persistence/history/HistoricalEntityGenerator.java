@@ -110,6 +110,7 @@ public class HistoricalEntityGenerator extends AbstractProcessor {
 				((PackageElement) entityType.getEnclosingElement()).getQualifiedName().toString(),
 				entityType.getSimpleName().toString(), 
 				historicalEntity.stateColumnDefinition(),
+				historicalEntity.sequenceAllocationSize(),
 				historicalEntity.repositoryTemplatePath(),
 				historicalEntity.repositoryBeanName(),
 				historicalEntity.producerServiceTemplatePath(),
@@ -67,6 +67,11 @@ public class HistoricalEntityMetadata {
 	 */
 	private String stateColumnDefinition;
 
+	/**
+	 * Entity history id sequence allocation size.
+	 */
+	private Integer sequenceAllocationSize;
+
 	/**
 	 * Entity history repository template path.
 	 */
@@ -115,6 +120,7 @@ public class HistoricalEntityMetadata {
 	 * @param originalEntityPackageName
 	 * @param originalEntityTypeName
 	 * @param stateColumnDefinition
+	 * @param sequenceAllocationSize
 	 * @param repositoryTemplatePath
 	 * @param repositoryBeanName
 	 * @param producerServiceTemplatePath
@@ -132,6 +138,7 @@ public class HistoricalEntityMetadata {
 			final String originalEntityPackageName,
 			final String originalEntityTypeName,
 			final String stateColumnDefinition,
+			final Integer sequenceAllocationSize,
 			final String repositoryTemplatePath,
 			final String repositoryBeanName,
 			final String producerServiceTemplatePath,
@@ -146,6 +153,7 @@ public class HistoricalEntityMetadata {
 		this.originalEntityPackageName = originalEntityPackageName;
 		this.originalEntityTypeName = originalEntityTypeName;
 		this.stateColumnDefinition = stateColumnDefinition;
+		this.sequenceAllocationSize = sequenceAllocationSize;
 		this.repositoryTemplatePath = repositoryTemplatePath;
 		this.repositoryBeanName = repositoryBeanName;
 		this.producerServiceTemplatePath = producerServiceTemplatePath;
@@ -296,6 +304,25 @@ public class HistoricalEntityMetadata {
 		this.stateColumnDefinition = stateColumnDefinition;
 	}
 
+	/**
+	 * Gets the sequenceAllocationSize.
+	 *
+	 * @return The sequenceAllocationSize.
+	 */
+	public Integer getSequenceAllocationSize() {
+		return this.sequenceAllocationSize;
+	}
+
+	/**
+	 * Sets the sequenceAllocationSize.
+	 *
+	 * @param sequenceAllocationSize New sequenceAllocationSize.
+	 */
+	public void setSequenceAllocationSize(
+			final Integer sequenceAllocationSize) {
+		this.sequenceAllocationSize = sequenceAllocationSize;
+	}
+
 	/**
 	 * Gets the sequence name.
 	 *
@@ -0,0 +1,52 @@
+package org.coldis.library.persistence.instrumentation;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Micrometer instrumentation backend. Every operation gets a {@code <meter>} timer (latency
+ * histogram and call count), a {@code <meter>.rows} counter and a {@code <meter>.errors} counter.
+ */
+public class MicrometerInstrumentationBackend implements PersistenceInstrumentation.Backend {
+
+	/** Meter registry. */
+	private final MeterRegistry registry;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param registry Meter registry.
+	 */
+	public MicrometerInstrumentationBackend(final MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	/**
+	 * @see org.coldis.library.persistence.instrumentation.PersistenceInstrumentation.Backend#create(java.lang.String,
+	 *      java.lang.String[])
+	 */
+	@Override
+	public PersistenceInstrumentation.Recorder create(
+			final String meter,
+			final String[] tags) {
+		final Timer timer = Timer.builder(meter).tags(tags).publishPercentileHistogram().register(this.registry);
+		final Counter rows = Counter.builder(meter + ".rows").tags(tags).register(this.registry);
+		final Counter errors = Counter.builder(meter + ".errors").tags(tags).register(this.registry);
+		return (
+				nanos,
+				handledRows,
+				failed) -> {
+			timer.record(nanos, TimeUnit.NANOSECONDS);
+			if (handledRows > 0) {
+				rows.increment(handledRows);
+			}
+			if (failed) {
+				errors.increment();
+			}
+		};
+	}
+
+}
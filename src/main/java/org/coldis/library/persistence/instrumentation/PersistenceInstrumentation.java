@@ -0,0 +1,161 @@
+package org.coldis.library.persistence.instrumentation;
+
+/**
+ * Opt-in latency instrumentation of the persistence layer: repository methods, lock acquisitions
+ * ({@code LockServiceComponent}) and JSON attribute converters. Enabled with
+ * {@code org.coldis.configuration.persistence.instrumentation.enabled=true}.
+ *
+ * <p>
+ * Each {@link Operation} records a latency histogram (which also counts the calls), the rows it
+ * handled and its errors, through the current {@link Backend} — Micrometer when present (see
+ * {@link MicrometerInstrumentationBackend}), nothing otherwise. Operations are created once and
+ * cached by the instrumented code; recording allocates nothing, so it can stay on in production.
+ * </p>
+ */
+public final class PersistenceInstrumentation {
+
+	/** Repository method meter ({@code repository} and {@code method} tags). */
+	public static final String REPOSITORY_METER = "coldis.persistence.repository";
+
+	/**
+	 * Lock acquisition meter ({@code behavior} and {@code type} tags; partial acquisitions are tagged
+	 * {@code behavior=AVAILABLE}).
+	 */
+	public static final String LOCK_METER = "coldis.persistence.lock";
+
+	/** Attribute converter meter ({@code converter} and {@code direction} tags). */
+	public static final String CONVERTER_METER = "coldis.persistence.converter";
+
+	/** Current backend ({@code null} when disabled). */
+	private static volatile Backend backend;
+
+	/**
+	 * No instances.
+	 */
+	private PersistenceInstrumentation() {
+	}
+
+	/**
+	 * Sets the backend.
+	 *
+	 * @param backend Backend ({@code null} to disable the instrumentation).
+	 */
+	public static void setBackend(
+			final Backend backend) {
+		PersistenceInstrumentation.backend = backend;
+	}
+
+	/**
+	 * Whether the instrumentation is enabled (checked before timing, so a disabled instrumentation
+	 * does not even read the clock).
+	 *
+	 * @return Whether the instrumentation is enabled.
+	 */
+	public static boolean isEnabled() {
+		return PersistenceInstrumentation.backend != null;
+	}
+
+	/**
+	 * Creates an operation (to be cached by the caller).
+	 *
+	 * @param  meter Meter name.
+	 * @param  tags  Tags (alternating keys and values).
+	 * @return       The operation.
+	 */
+	public static Operation operation(
+			final String meter,
+			final String... tags) {
+		return new Operation(meter, tags);
+	}
+
+	/**
+	 * Instrumentation backend.
+	 */
+	public interface Backend {
+
+		/**
+		 * Creates the recorder of an operation.
+		 *
+		 * @param  meter Meter name.
+		 * @param  tags  Tags (alternating keys and values).
+		 * @return       The recorder.
+		 */
+		Recorder create(
+				String meter,
+				String[] tags);
+
+	}
+
+	/**
+	 * Operation measurements recorder.
+	 */
+	public interface Recorder {
+
+		/**
+		 * Records one call.
+		 *
+		 * @param nanos  Duration (nanoseconds).
+		 * @param rows   Rows handled.
+		 * @param failed Whether the call failed.
+		 */
+		void record(
+				long nanos,
+				long rows,
+				boolean failed);
+
+	}
+
+	/**
+	 * Instrumented operation. Binds its recorder lazily, and again whenever the backend changes.
+	 */
+	public static final class Operation {
+
+		/** Meter name. */
+		private final String meter;
+
+		/** Tags. */
+		private final String[] tags;
+
+		/** Backend the recorder was created by. */
+		private volatile Backend boundBackend;
+
+		/** Recorder. */
+		private volatile Recorder recorder;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param meter Meter name.
+		 * @param tags  Tags (alternating keys and values).
+		 */
+		private Operation(final String meter, final String[] tags) {
+			this.meter = meter;
+			this.tags = tags.clone();
+		}
+
+		/**
+		 * Records one call (ignored when the instrumentation is disabled).
+		 *
+		 * @param nanos  Duration (nanoseconds).
+		 * @param rows   Rows handled.
+		 * @param failed Whether the call failed.
+		 */
+		public void record(
+				final long nanos,
+				final long rows,
+				final boolean failed) {
+			final Backend currentBackend = PersistenceInstrumentation.backend;
+			if (currentBackend != null) {
+				Recorder currentRecorder = this.recorder;
+				if ((currentRecorder == null) || (this.boundBackend != currentBackend)) {
+					currentRecorder = currentBackend.create(this.meter, this.tags);
+					this.recorder = currentRecorder;
+					this.boundBackend = currentBackend;
+				}
+				currentRecorder.record(nanos, rows, failed);
+			}
+		}
+
+	}
+
+}
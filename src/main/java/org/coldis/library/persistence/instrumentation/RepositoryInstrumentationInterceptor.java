@@ -0,0 +1,112 @@
+package org.coldis.library.persistence.instrumentation;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Modifying;
+
+/**
+ * Instruments the methods of a repository ({@value PersistenceInstrumentation#REPOSITORY_METER},
+ * tagged with the repository interface and method names). Added outside the repository's
+ * transaction interceptor, so the latency includes the commit of the transactions the method starts.
+ *
+ * <p>
+ * Rows are the size of a returned collection or slice, 1 for a returned entity (or present
+ * {@link Optional}), and the update count of {@link Modifying} methods.
+ * </p>
+ */
+public class RepositoryInstrumentationInterceptor implements MethodInterceptor {
+
+	/** Operations by method. */
+	private final Map<Method, MethodOperation> operations = new ConcurrentHashMap<>();
+
+	/** Repository interface. */
+	private final Class<?> repositoryInterface;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param repositoryInterface Repository interface.
+	 */
+	public RepositoryInstrumentationInterceptor(final Class<?> repositoryInterface) {
+		this.repositoryInterface = repositoryInterface;
+	}
+
+	/**
+	 * Counts the rows of a result.
+	 *
+	 * @param  result    Result.
+	 * @param  modifying Whether the method is a modifying query.
+	 * @return           The rows.
+	 */
+	private static long countRows(
+			final Object result,
+			final boolean modifying) {
+		long rows = 1L;
+		if (result == null) {
+			rows = 0L;
+		}
+		else if (result instanceof final Collection<?> collection) {
+			rows = collection.size();
+		}
+		else if (result instanceof final Slice<?> slice) {
+			rows = slice.getNumberOfElements();
+		}
+		else if (result instanceof final Optional<?> optional) {
+			rows = optional.isPresent() ? 1L : 0L;
+		}
+		else if (modifying && (result instanceof final Number count)) {
+			rows = count.longValue();
+		}
+		return rows;
+	}
+
+	/**
+	 * @see org.aopalliance.intercept.MethodInterceptor#invoke(org.aopalliance.intercept.MethodInvocation)
+	 */
+	@Override
+	public Object invoke(
+			final MethodInvocation invocation) throws Throwable {
+		Object result;
+		if (PersistenceInstrumentation.isEnabled()) {
+			// Looked up before computing, so the hot path does not even allocate the lambda.
+			MethodOperation operation = this.operations.get(invocation.getMethod());
+			if (operation == null) {
+				operation = this.operations.computeIfAbsent(invocation.getMethod(),
+						method -> new MethodOperation(
+								PersistenceInstrumentation.operation(PersistenceInstrumentation.REPOSITORY_METER, "repository",
+										this.repositoryInterface.getSimpleName(), "method", method.getName()),
+								AnnotatedElementUtils.hasAnnotation(method, Modifying.class)));
+			}
+			final long start = System.nanoTime();
+			try {
+				result = invocation.proceed();
+			}
+			catch (final Throwable throwable) {
+				operation.operation().record(System.nanoTime() - start, 0L, true);
+				throw throwable;
+			}
+			operation.operation().record(System.nanoTime() - start, RepositoryInstrumentationInterceptor.countRows(result, operation.modifying()), false);
+		}
+		else {
+			result = invocation.proceed();
+		}
+		return result;
+	}
+
+	/**
+	 * Instrumented repository method.
+	 *
+	 * @param operation Operation.
+	 * @param modifying Whether the method is a modifying query.
+	 */
+	private record MethodOperation(PersistenceInstrumentation.Operation operation, boolean modifying) {}
+
+}
@@ -133,16 +133,15 @@ public class KeyValueServiceComponent {
 	}
 
 	/**
-	 * Deletes a key entry.
+	 * Deletes a key entry (no-op if absent). Deletes through the entity, so an instance already loaded
+	 * in the persistence context is removed with the row.
 	 *
 	 * @param key The key.
 	 */
 	@Transactional(propagation = Propagation.REQUIRED)
 	public void delete(
 			final String key) {
-		if (this.repository.existsById(key)) {
-			this.repository.deleteById(key);
-		}
+		this.repository.findById(key).ifPresent(this.repository::delete);
 	}
 
 	/**
@@ -0,0 +1,257 @@
+package org.coldis.library.persistence.lock;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-JVM tier in front of the database locks of {@link LockServiceComponent}: one fair permit per
+ * lock key, taken before the database lock and kept until the transaction completes, so at most one
+ * local transaction per key contends in Postgres while the others queue in the JVM (without a
+ * database wait, nor — with a lazily connecting datasource — a connection).
+ *
+ * <p>
+ * Permits are taken in key order (so overlapping local batches cannot deadlock) and only once per
+ * transaction (a transaction re-locking its own key does not wait on itself). Non-blocking
+ * acquisitions answer locally, without a database round trip, when another local transaction holds
+ * a key. Blocking acquisitions wait for a permit at most as long as the transaction's effective
+ * {@code lock_timeout} (as the database wait would), and give up when interrupted.
+ * </p>
+ */
+final class LocalLockTier {
+
+	/** Permits by lock key (removed once nobody holds or waits for them). */
+	private final Map<String, LocalKey> permits = new ConcurrentHashMap<>();
+
+	/**
+	 * Takes the permits of the given keys that the current transaction does not hold yet.
+	 *
+	 * @param  prefix      Lock identity prefix (type and namespace).
+	 * @param  keys        Keys.
+	 * @param  nonBlocking                Whether to give up when another local transaction holds a
+	 *                                        key.
+	 * @param  timeout                    Maximum wait per permit when blocking ({@code null} to wait
+	 *                                        until interrupted).
+	 * @param  unavailable                Receives the keys held by other local transactions (when
+	 *                                        non-blocking).
+	 * @return                            The newly taken permits (to be {@linkplain #release(List)
+	 *                                    released} if the database lock is not acquired), or
+	 *                                    {@code null} when non-blocking and a key is held locally.
+	 * @throws CannotAcquireLockException If a permit wait times out or is interrupted (the permits
+	 *                                        taken by the call are released).
+	 */
+	List<String> acquire(
+			final String prefix,
+			final Collection<String> keys,
+			final boolean nonBlocking,
+			final Duration timeout,
+			final Collection<String> unavailable) {
+		List<String> acquired = this.take(prefix, keys, nonBlocking, timeout, unavailable);
+		if (!unavailable.isEmpty()) {
+			this.release(acquired);
+			acquired = null;
+		}
+		return acquired;
+	}
+
+	/**
+	 * Takes, without waiting, the permits of the given keys that no other local transaction holds,
+	 * keeping whichever it gets.
+	 *
+	 * @param  prefix      Lock identity prefix (type and namespace).
+	 * @param  keys        Keys.
+	 * @param  unavailable Receives the keys held by other local transactions.
+	 * @return             The newly taken permits (to be {@linkplain #release(List) released} for the
+	 *                     keys whose database lock is not acquired).
+	 */
+	List<String> acquireAvailable(
+			final String prefix,
+			final Collection<String> keys,
+			final Collection<String> unavailable) {
+		return this.take(prefix, keys, true, null, unavailable);
+	}
+
+	/**
+	 * Takes the permits of the given keys that the current transaction does not hold yet, trying
+	 * every key.
+	 *
+	 * @param  prefix      Lock identity prefix (type and namespace).
+	 * @param  keys        Keys.
+	 * @param  nonBlocking                Whether to skip the keys another local transaction holds.
+	 * @param  timeout                    Maximum wait per permit when blocking ({@code null} to wait
+	 *                                        until interrupted).
+	 * @param  unavailable                Receives the skipped keys.
+	 * @return                            The newly taken permits.
+	 * @throws CannotAcquireLockException If a permit wait times out or is interrupted.
+	 */
+	private List<String> take(
+			final String prefix,
+			final Collection<String> keys,
+			final boolean nonBlocking,
+			final Duration timeout,
+			final Collection<String> unavailable) {
+		final HeldPermits held = this.getHeldPermits();
+		final List<String> lockKeys = keys.stream().map(key -> prefix + key).filter(key -> !held.keys.contains(key)).distinct().sorted().toList();
+		final List<String> acquired = new ArrayList<>(lockKeys.size());
+		for (final String lockKey : lockKeys) {
+			final LocalKey permit = this.permits.compute(lockKey, (key, current) -> {
+				final LocalKey updated = (current == null) ? new LocalKey() : current;
+				updated.users++;
+				return updated;
+			});
+			if (nonBlocking) {
+				// Keeps trying the other keys, so every contended key is reported.
+				if (permit.semaphore.tryAcquire()) {
+					acquired.add(lockKey);
+					held.keys.add(lockKey);
+				}
+				else {
+					this.leave(lockKey);
+					unavailable.add(lockKey.substring(prefix.length()));
+				}
+			}
+			else {
+				boolean taken = false;
+				try {
+					if (timeout == null) {
+						permit.semaphore.acquire();
+						taken = true;
+					}
+					else {
+						taken = permit.semaphore.tryAcquire(timeout.toNanos(), TimeUnit.NANOSECONDS);
+					}
+				}
+				catch (final InterruptedException exception) {
+					Thread.currentThread().interrupt();
+				}
+				if (!taken) {
+					this.leave(lockKey);
+					this.release(acquired);
+					throw new CannotAcquireLockException(Thread.currentThread().isInterrupted() ? "Interrupted while waiting for local lock " + lockKey
+							: "Local lock " + lockKey + " not acquired within the lock timeout of " + timeout);
+				}
+				acquired.add(lockKey);
+				held.keys.add(lockKey);
+			}
+		}
+		return acquired;
+	}
+
+	/**
+	 * Releases permits before the transaction completes (the database lock was not acquired).
+	 *
+	 * @param lockKeys Lock keys.
+	 */
+	void release(
+			final List<String> lockKeys) {
+		if (lockKeys != null) {
+			final HeldPermits held = this.getHeldPermits();
+			for (final String lockKey : lockKeys) {
+				held.keys.remove(lockKey);
+				this.releasePermit(lockKey);
+			}
+		}
+	}
+
+	/**
+	 * Releases a permit.
+	 *
+	 * @param lockKey Lock key.
+	 */
+	private void releasePermit(
+			final String lockKey) {
+		final LocalKey permit = this.permits.get(lockKey);
+		if (permit != null) {
+			permit.semaphore.release();
+			this.leave(lockKey);
+		}
+	}
+
+	/**
+	 * Leaves a permit (removing it when nobody else holds or waits for it).
+	 *
+	 * @param lockKey Lock key.
+	 */
+	private void leave(
+			final String lockKey) {
+		this.permits.computeIfPresent(lockKey, (key, permit) -> (--permit.users == 0) ? null : permit);
+	}
+
+	/**
+	 * Gets the permits held by the current transaction, registering their release on completion.
+	 *
+	 * @return The permits held by the current transaction.
+	 */
+	private HeldPermits getHeldPermits() {
+		// Looked up among the current synchronizations, so a suspended transaction's permits are not
+		// mistaken for the current one's.
+		HeldPermits held = null;
+		for (final TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+			if ((synchronization instanceof final HeldPermits candidate) && (candidate.tier == this)) {
+				held = candidate;
+			}
+		}
+		if (held == null) {
+			held = new HeldPermits(this);
+			TransactionSynchronizationManager.registerSynchronization(held);
+		}
+		return held;
+	}
+
+	/**
+	 * Local permit of a lock key.
+	 */
+	private static final class LocalKey {
+
+		/** Permit (fair, so local waiters are served in order). */
+		private final Semaphore semaphore = new Semaphore(1, true);
+
+		/** Holders and waiters (only changed inside the map's atomic operations). */
+		private int users;
+
+	}
+
+	/**
+	 * Permits held by a transaction, released when it completes.
+	 */
+	private static final class HeldPermits implements TransactionSynchronization {
+
+		/** Tier. */
+		private final LocalLockTier tier;
+
+		/** Lock keys. */
+		private final Set<String> keys = new HashSet<>();
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param tier Tier.
+		 */
+		private HeldPermits(final LocalLockTier tier) {
+			this.tier = tier;
+		}
+
+		/**
+		 * @see org.springframework.transaction.support.TransactionSynchronization#afterCompletion(int)
+		 */
+		@Override
+		public void afterCompletion(
+				final int status) {
+			this.keys.forEach(this.tier::releasePermit);
+			this.keys.clear();
+		}
+
+	}
+
+}
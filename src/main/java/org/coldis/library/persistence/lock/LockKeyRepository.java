@@ -6,11 +6,25 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+import javax.sql.DataSource;
+
+import org.coldis.library.persistence.configuration.UnpooledConnections;
+import org.coldis.library.persistence.repository.TransactionSettings;
 import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.support.SQLStateSQLExceptionTranslator;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
@@ -20,8 +34,10 @@ import jakarta.persistence.PersistenceContext;
  * used by {@link LockServiceComponent}, so the service component stays focused on orchestration
  * and Spring transaction coordination.
  *
- * <p>All operations execute on the surrounding transaction's connection (acquired via the JPA
- * {@link EntityManager}). Callers must invoke from inside an active transaction.
+ * <p>All transaction-scoped operations execute on the surrounding transaction's connection
+ * (acquired via the JPA {@link EntityManager}). Callers must invoke them from inside an active
+ * transaction. Session-scoped operations ({@link SessionLock}) run on a dedicated connection
+ * instead (see {@link #openSessionConnection()}).
  */
 @Repository
 public class LockKeyRepository {
@@ -33,16 +49,41 @@ public class LockKeyRepository {
 	private static final String NON_BLOCKING_LOCK_TIMEOUT = "1ms";
 
 	/**
-	 * Process-wide monotonic counter used to derive a unique savepoint name per
-	 * {@link #acquireTableLock} call. A unique name avoids relying on Postgres' implicit
-	 * same-name savepoint stacking when {@code acquireTableLock} is invoked more than once in
-	 * the same transaction.
+	 * Process-wide monotonic counter used to derive a unique savepoint name per lock attempt. A
+	 * unique name avoids relying on Postgres' implicit same-name savepoint stacking when several
+	 * attempts run in the same transaction.
 	 */
 	private static final AtomicLong SAVEPOINT_COUNTER = new AtomicLong();
 
+	/**
+	 * Seed of the {@link LockType#ADVISORY_64} key hash ({@code hashtextextended}). Part of the lock
+	 * identity: changing it re-keys every lock, so every node must use the same seed.
+	 */
+	private static final long ADVISORY_64_SEED = 0L;
+
+	/** Hashes of the (namespace-prefixed) keys of an {@link LockType#ADVISORY_64} batch, deduplicated and sorted. */
+	private static final String ADVISORY_64_HASHES = "(SELECT DISTINCT hashtextextended(? || ':' || k, ?) AS h FROM unnest(?) AS k) AS hashes ";
+
+	/** Tries the {@link LockType#ADVISORY} lock of every key, in hash order, returning each key and whether it was acquired. */
+	private static final String ADVISORY_TRY = "SELECT k, pg_try_advisory_xact_lock(?, hashtext(k)) FROM unnest(?) AS k ORDER BY hashtext(k)";
+
+	/** Tries the {@link LockType#ADVISORY_64} lock of every key, in hash order, returning each key and whether it was acquired. */
+	private static final String ADVISORY_64_TRY = "SELECT k, pg_try_advisory_xact_lock(h) "
+			+ "FROM (SELECT k, hashtextextended(? || ':' || k, ?) AS h FROM unnest(?) AS k) AS hashes ORDER BY h";
+
+	/** A {@code lock_timeout} value (an amount, in milliseconds unless followed by a unit). */
+	private static final Pattern LOCK_TIMEOUT_PATTERN = Pattern.compile("(\\d+)\\s*(us|ms|s|min|h|d)?");
+
+	/** Translates session lock JDBC errors. */
+	private static final SQLStateSQLExceptionTranslator EXCEPTION_TRANSLATOR = new SQLStateSQLExceptionTranslator();
+
 	@PersistenceContext
 	private EntityManager entityManager;
 
+	/** Primary datasource (session lock connections are opened from its settings). */
+	@Autowired
+	private DataSource dataSource;
+
 	/**
 	 * Acquires Postgres advisory locks for every key in deterministic hash order, blocking until
 	 * each is held. Used by {@link LockType#ADVISORY} blocking modes.
@@ -71,27 +112,179 @@ public class LockKeyRepository {
 	}
 
 	/**
-	 * Attempts to acquire Postgres advisory locks for every key, non-blocking. Returns
-	 * {@code true} only if every key was acquired. Used by {@link LockType#ADVISORY}
-	 * non-blocking modes ({@code LOCK_SKIP} / {@code LOCK_FAIL_FAST}).
+	 * Attempts to acquire Postgres advisory locks for every key, non-blocking, all or nothing (see
+	 * {@link #tryAdvisoryLocks(String, Object, Collection, boolean)}). Returns {@code true} only if
+	 * every key was acquired.
+	 *
+	 * @param  namespace 32-bit namespace passed as the first argument to {@code pg_try_advisory_xact_lock}.
+	 * @param  keys      Application-defined keys to lock.
+	 * @return           Whether every key was acquired.
 	 */
 	public boolean acquireAdvisoryTry(
 			final int namespace,
 			final Collection<String> keys) {
+		return this.acquireAdvisoryTryUnavailable(namespace, keys).isEmpty();
+	}
+
+	/**
+	 * Attempts to acquire Postgres advisory locks for every key, non-blocking, all or nothing (see
+	 * {@link #tryAdvisoryLocks(String, Object, Collection, boolean)}), reporting the contended keys.
+	 * Used by {@link LockType#ADVISORY} non-blocking modes ({@code LOCK_SKIP} / {@code LOCK_FAIL_FAST}).
+	 *
+	 * @param  namespace 32-bit namespace passed as the first argument to {@code pg_try_advisory_xact_lock}.
+	 * @param  keys      Application-defined keys to lock.
+	 * @return           The keys held by other transactions (none of the keys is held when not empty).
+	 */
+	public Set<String> acquireAdvisoryTryUnavailable(
+			final int namespace,
+			final Collection<String> keys) {
+		return this.tryAdvisoryLocks(LockKeyRepository.ADVISORY_TRY, namespace, keys, true);
+	}
+
+	/**
+	 * Attempts to acquire Postgres advisory locks for every key, non-blocking, keeping whichever it
+	 * gets. Used by {@link LockType#ADVISORY} partial acquisitions.
+	 *
+	 * @param  namespace 32-bit namespace passed as the first argument to {@code pg_try_advisory_xact_lock}.
+	 * @param  keys      Application-defined keys to lock.
+	 * @return           The keys acquired.
+	 */
+	public Set<String> acquireAdvisoryAvailable(
+			final int namespace,
+			final Collection<String> keys) {
+		final Set<String> acquired = new LinkedHashSet<>(keys);
+		acquired.removeAll(this.tryAdvisoryLocks(LockKeyRepository.ADVISORY_TRY, namespace, keys, false));
+		return acquired;
+	}
+
+	/**
+	 * Acquires single-{@code bigint} Postgres advisory locks for every key, hashed with
+	 * {@code hashtextextended(namespace || ':' || key, seed)}, in hash order, blocking until each is
+	 * held. Used by {@link LockType#ADVISORY_64} blocking modes.
+	 *
+	 * @param namespace Namespace (prefixed to every key before hashing).
+	 * @param keys      Application-defined keys to lock.
+	 */
+	public void acquireAdvisory64Blocking(
+			final String namespace,
+			final Collection<String> keys) {
 		final String[] keyArray = keys.toArray(new String[0]);
-		final boolean[] allAcquired = { true };
 		this.entityManager.unwrap(Session.class).doWork(connection -> {
 			final Array sqlArray = connection.createArrayOf("text", keyArray);
 			try (PreparedStatement statement = connection.prepareStatement(
-					"SELECT pg_try_advisory_xact_lock(?, hashtext(k)) "
-							+ "FROM unnest(?) AS k "
-							+ "ORDER BY hashtext(k)")) {
-				statement.setInt(1, namespace);
-				statement.setArray(2, sqlArray);
+					"SELECT pg_advisory_xact_lock(h) FROM " + LockKeyRepository.ADVISORY_64_HASHES + "ORDER BY h")) {
+				statement.setString(1, namespace);
+				statement.setLong(2, LockKeyRepository.ADVISORY_64_SEED);
+				statement.setArray(3, sqlArray);
+				statement.execute();
+			}
+			finally {
+				sqlArray.free();
+			}
+		});
+	}
+
+	/**
+	 * Attempts to acquire single-{@code bigint} Postgres advisory locks for every key (see
+	 * {@link #acquireAdvisory64Blocking(String, Collection)}), non-blocking, all or nothing (see
+	 * {@link #tryAdvisoryLocks(String, Object, Collection, boolean)}). Returns {@code true} only if
+	 * every key was acquired.
+	 *
+	 * @param  namespace Namespace (prefixed to every key before hashing).
+	 * @param  keys      Application-defined keys to lock.
+	 * @return           Whether every key was acquired.
+	 */
+	public boolean acquireAdvisory64Try(
+			final String namespace,
+			final Collection<String> keys) {
+		return this.acquireAdvisory64TryUnavailable(namespace, keys).isEmpty();
+	}
+
+	/**
+	 * Attempts to acquire single-{@code bigint} Postgres advisory locks for every key, non-blocking,
+	 * all or nothing (see {@link #tryAdvisoryLocks(String, Object, Collection, boolean)}), reporting
+	 * the contended keys. Used by {@link LockType#ADVISORY_64} non-blocking modes.
+	 *
+	 * @param  namespace Namespace (prefixed to every key before hashing).
+	 * @param  keys      Application-defined keys to lock.
+	 * @return           The keys held by other transactions (none of the keys is held when not empty).
+	 */
+	public Set<String> acquireAdvisory64TryUnavailable(
+			final String namespace,
+			final Collection<String> keys) {
+		return this.tryAdvisoryLocks(LockKeyRepository.ADVISORY_64_TRY, namespace, keys, true);
+	}
+
+	/**
+	 * Attempts to acquire single-{@code bigint} Postgres advisory locks for every key, non-blocking,
+	 * keeping whichever it gets. Used by {@link LockType#ADVISORY_64} partial acquisitions.
+	 *
+	 * @param  namespace Namespace (prefixed to every key before hashing).
+	 * @param  keys      Application-defined keys to lock.
+	 * @return           The keys acquired.
+	 */
+	public Set<String> acquireAdvisory64Available(
+			final String namespace,
+			final Collection<String> keys) {
+		final Set<String> acquired = new LinkedHashSet<>(keys);
+		acquired.removeAll(this.tryAdvisoryLocks(LockKeyRepository.ADVISORY_64_TRY, namespace, keys, false));
+		return acquired;
+	}
+
+	/**
+	 * Attempts to acquire transaction-scoped advisory locks for every key, non-blocking. Every key is
+	 * tried (so all the contended keys are reported); an all or nothing multi-key attempt runs under a
+	 * savepoint that is rolled back when any key fails, which releases the locks the attempt did get —
+	 * transaction advisory locks cannot be unlocked one by one, but those taken after a savepoint are
+	 * released when it is rolled back. Other batches are then not blocked by a partial acquisition
+	 * until the transaction ends. Such an attempt therefore needs a transaction.
+	 *
+	 * @param  sql                                Statement returning each key and whether its lock
+	 *                                                was acquired (parameters: the namespace, then
+	 *                                                the seed for a text namespace, then the keys).
+	 * @param  namespace                          Namespace ({@link Integer} or {@link String}).
+	 * @param  keys                               Application-defined keys to lock.
+	 * @param  allOrNothing                       Whether to release the acquired locks when any key
+	 *                                                is contended.
+	 * @return                                    The keys held by other transactions (with
+	 *                                            {@code allOrNothing}, none of the keys is held when
+	 *                                            not empty).
+	 * @throws InvalidDataAccessApiUsageException If an all or nothing multi-key attempt runs
+	 *                                                outside a transaction.
+	 */
+	private Set<String> tryAdvisoryLocks(
+			final String sql,
+			final Object namespace,
+			final Collection<String> keys,
+			final boolean allOrNothing) {
+		final String[] keyArray = keys.toArray(new String[0]);
+		final Set<String> unavailable = new LinkedHashSet<>();
+		// A single key is all or nothing by itself.
+		final boolean batch = allOrNothing && (keyArray.length > 1);
+		// Checked up front: the savepoint would only fail once the statement runs.
+		if (batch && !TransactionSynchronizationManager.isActualTransactionActive()) {
+			throw new InvalidDataAccessApiUsageException("A non-blocking advisory lock on several keys must run inside a transaction.");
+		}
+		final String savepointName = "advisory_attempt_" + LockKeyRepository.SAVEPOINT_COUNTER.incrementAndGet();
+		this.entityManager.unwrap(Session.class).doWork(connection -> {
+			if (batch) {
+				LockKeyRepository.executeStatement(connection, "SAVEPOINT " + savepointName);
+			}
+			final Array sqlArray = connection.createArrayOf("text", keyArray);
+			try (PreparedStatement statement = connection.prepareStatement(sql)) {
+				int parameter = 1;
+				if (namespace instanceof final String textNamespace) {
+					statement.setString(parameter++, textNamespace);
+					statement.setLong(parameter++, LockKeyRepository.ADVISORY_64_SEED);
+				}
+				else {
+					statement.setInt(parameter++, (Integer) namespace);
+				}
+				statement.setArray(parameter, sqlArray);
 				try (ResultSet rs = statement.executeQuery()) {
 					while (rs.next()) {
-						if (!rs.getBoolean(1)) {
-							allAcquired[0] = false;
+						if (!rs.getBoolean(2)) {
+							unavailable.add(rs.getString(1));
 						}
 					}
 				}
@@ -99,8 +292,14 @@ public class LockKeyRepository {
 			finally {
 				sqlArray.free();
 			}
+			if (batch) {
+				if (!unavailable.isEmpty()) {
+					LockKeyRepository.executeStatement(connection, "ROLLBACK TO SAVEPOINT " + savepointName);
+				}
+				LockKeyRepository.executeStatement(connection, "RELEASE SAVEPOINT " + savepointName);
+			}
 		});
-		return allAcquired[0];
+		return unavailable;
 	}
 
 	/**
@@ -125,53 +324,136 @@ public class LockKeyRepository {
 			final String[] ids,
 			final boolean nonBlocking) {
 		final boolean[] acquired = { true };
-		final String savepointName = "lock_attempt_" + LockKeyRepository.SAVEPOINT_COUNTER.incrementAndGet();
 		this.entityManager.unwrap(Session.class).doWork(connection -> {
 			if (nonBlocking) {
 				// SET LOCAL is issued before the savepoint so its reset (below) is unaffected
 				// by the savepoint rollback.
 				LockKeyRepository.executeStatement(connection, "SET LOCAL lock_timeout = '" + LockKeyRepository.NON_BLOCKING_LOCK_TIMEOUT + "'");
-				LockKeyRepository.executeStatement(connection, "SAVEPOINT " + savepointName);
-			}
-			boolean inserted = false;
-			SQLException toThrow = null;
-			try (PreparedStatement statement = connection.prepareStatement(
-					"INSERT INTO lock_key (id) "
-							+ "SELECT k FROM unnest(?) AS k ORDER BY k "
-							+ "ON CONFLICT (id) DO NOTHING")) {
-				final Array sqlArray = connection.createArrayOf("text", ids);
 				try {
-					statement.setArray(1, sqlArray);
-					statement.executeUpdate();
-					inserted = true;
+					acquired[0] = LockKeyRepository.tryInsertTableLocks(connection, ids);
 				}
 				finally {
-					sqlArray.free();
+					LockKeyRepository.executeStatement(connection, "SET LOCAL lock_timeout = '0'");
+					TransactionSettings.applied(this.entityManager.getEntityManagerFactory(), "lock_timeout", "0");
 				}
 			}
-			catch (final SQLException exception) {
-				if (nonBlocking && LockKeyRepository.SQLSTATE_LOCK_NOT_AVAILABLE.equals(exception.getSQLState())) {
-					acquired[0] = false;
-				}
-				else {
-					toThrow = exception;
-				}
+			else {
+				LockKeyRepository.insertTableLocks(connection, ids);
 			}
-			if (nonBlocking) {
-				if (!inserted) {
-					// Either the lock_timeout fired or some other failure happened — either way
-					// the tx is poisoned at the savepoint level; rolling back to the savepoint
-					// clears it.
-					LockKeyRepository.executeStatement(connection, "ROLLBACK TO SAVEPOINT " + savepointName);
-				}
-				LockKeyRepository.executeStatement(connection, "RELEASE SAVEPOINT " + savepointName);
-				LockKeyRepository.executeStatement(connection, "SET LOCAL lock_timeout = '0'");
+		});
+		return acquired[0];
+	}
+
+	/**
+	 * Inserts lock rows for as many ids as possible, non-blocking, keeping whichever it gets. Used by
+	 * {@link LockType#TABLE} partial acquisitions.
+	 *
+	 * <p>
+	 * A contended row makes the whole INSERT fail (its {@code lock_timeout} fires) rather than be
+	 * skipped, without telling which row it was. The batch is then split in halves, recursively, so a
+	 * few contended keys cost a few attempts per level instead of one attempt per key (every key
+	 * contended costs about two attempts per key). The halves keep the sorted order, so overlapping
+	 * batches stay deadlock-free.
+	 * </p>
+	 *
+	 * @param  ids Lock-key ids to insert (caller has already prefixed namespace + sorted).
+	 * @return     The ids inserted (or already inserted by the same transaction).
+	 */
+	public Set<String> acquireAvailableTableLocks(
+			final String[] ids) {
+		final Set<String> acquired = new LinkedHashSet<>();
+		this.entityManager.unwrap(Session.class).doWork(connection -> {
+			LockKeyRepository.executeStatement(connection, "SET LOCAL lock_timeout = '" + LockKeyRepository.NON_BLOCKING_LOCK_TIMEOUT + "'");
+			try {
+				LockKeyRepository.insertAvailableTableLocks(connection, ids, acquired);
 			}
-			if (toThrow != null) {
-				throw toThrow;
+			finally {
+				LockKeyRepository.executeStatement(connection, "SET LOCAL lock_timeout = '0'");
+				TransactionSettings.applied(this.entityManager.getEntityManagerFactory(), "lock_timeout", "0");
 			}
 		});
-		return acquired[0];
+		return acquired;
+	}
+
+	/**
+	 * Inserts lock rows for as many ids as possible, splitting the batch in halves when it fails.
+	 *
+	 * @param connection Connection (with the non-blocking {@code lock_timeout}).
+	 * @param ids        Lock-key ids (sorted).
+	 * @param acquired   Receives the ids inserted.
+	 */
+	private static void insertAvailableTableLocks(
+			final Connection connection,
+			final String[] ids,
+			final Set<String> acquired) throws SQLException {
+		if (LockKeyRepository.tryInsertTableLocks(connection, ids)) {
+			acquired.addAll(Arrays.asList(ids));
+		}
+		else if (ids.length > 1) {
+			final int middle = ids.length / 2;
+			LockKeyRepository.insertAvailableTableLocks(connection, Arrays.copyOfRange(ids, 0, middle), acquired);
+			LockKeyRepository.insertAvailableTableLocks(connection, Arrays.copyOfRange(ids, middle, ids.length), acquired);
+		}
+	}
+
+	/**
+	 * Inserts lock rows under a savepoint: if the (non-blocking) {@code lock_timeout} fires,
+	 * Postgres marks the statement aborted with SQLState {@code 55P03} and the entire transaction
+	 * goes into the "current transaction is aborted" state — rolling back to the savepoint backs out
+	 * of the failed statement so the caller's transaction can continue normally.
+	 *
+	 * @param  connection Connection (with the non-blocking {@code lock_timeout}).
+	 * @param  ids        Lock-key ids (sorted).
+	 * @return            {@code false} when another transaction holds an uncommitted conflicting row.
+	 */
+	private static boolean tryInsertTableLocks(
+			final Connection connection,
+			final String[] ids) throws SQLException {
+		final String savepointName = "lock_attempt_" + LockKeyRepository.SAVEPOINT_COUNTER.incrementAndGet();
+		LockKeyRepository.executeStatement(connection, "SAVEPOINT " + savepointName);
+		boolean inserted = false;
+		try {
+			LockKeyRepository.insertTableLocks(connection, ids);
+			inserted = true;
+		}
+		catch (final SQLException exception) {
+			if (!LockKeyRepository.SQLSTATE_LOCK_NOT_AVAILABLE.equals(exception.getSQLState())) {
+				throw exception;
+			}
+		}
+		finally {
+			if (!inserted) {
+				// Either the lock_timeout fired or some other failure happened — either way the tx
+				// is poisoned at the savepoint level; rolling back to the savepoint clears it.
+				LockKeyRepository.executeStatement(connection, "ROLLBACK TO SAVEPOINT " + savepointName);
+			}
+			LockKeyRepository.executeStatement(connection, "RELEASE SAVEPOINT " + savepointName);
+		}
+		return inserted;
+	}
+
+	/**
+	 * Inserts lock rows in sorted order (blocking on rows held by other transactions).
+	 *
+	 * @param connection Connection.
+	 * @param ids        Lock-key ids (sorted).
+	 */
+	private static void insertTableLocks(
+			final Connection connection,
+			final String[] ids) throws SQLException {
+		try (PreparedStatement statement = connection.prepareStatement(
+				"INSERT INTO lock_key (id) "
+						+ "SELECT k FROM unnest(?) AS k ORDER BY k "
+						+ "ON CONFLICT (id) DO NOTHING")) {
+			final Array sqlArray = connection.createArrayOf("text", ids);
+			try {
+				statement.setArray(1, sqlArray);
+				statement.executeUpdate();
+			}
+			finally {
+				sqlArray.free();
+			}
+		}
 	}
 
 	/**
@@ -194,6 +476,173 @@ public class LockKeyRepository {
 		});
 	}
 
+	/**
+	 * Gets the {@code lock_timeout} known to be in effect in the current transaction (as applied
+	 * through {@link TransactionSettings}).
+	 *
+	 * @return The lock timeout, or {@code null} if none (or unknown).
+	 */
+	public Duration getLockTimeout() {
+		final String value = TransactionSettings.get(this.entityManager.getEntityManagerFactory(), "lock_timeout");
+		final Matcher matcher = (value == null) ? null : LockKeyRepository.LOCK_TIMEOUT_PATTERN.matcher(value.trim());
+		Duration timeout = null;
+		if ((matcher != null) && matcher.matches()) {
+			final long amount = Long.parseLong(matcher.group(1));
+			timeout = switch (matcher.group(2) == null ? "ms" : matcher.group(2)) {
+				case "us" -> Duration.ofNanos(amount * 1000L);
+				case "s" -> Duration.ofSeconds(amount);
+				case "min" -> Duration.ofMinutes(amount);
+				case "h" -> Duration.ofHours(amount);
+				case "d" -> Duration.ofDays(amount);
+				default -> Duration.ofMillis(amount);
+			};
+			// Zero disables the timeout.
+			timeout = timeout.isZero() ? null : timeout;
+		}
+		return timeout;
+	}
+
+	/**
+	 * Opens a dedicated connection for {@link SessionLock session locks}: outside the pool (see
+	 * {@link UnpooledConnections}, on the primary of a replica-routing datasource), so a lock held for
+	 * minutes neither takes a pool slot nor trips the pool's leak detection, and in auto-commit mode,
+	 * so it is never left idle in a transaction.
+	 *
+	 * @return The connection.
+	 */
+	public Connection openSessionConnection() {
+		try {
+			return UnpooledConnections.open(this.dataSource);
+		}
+		catch (final SQLException exception) {
+			throw LockKeyRepository.EXCEPTION_TRANSLATOR.translate("open session lock connection", null, exception);
+		}
+	}
+
+	/**
+	 * Gets the statement applying an advisory function to every distinct key of a session lock, in
+	 * hash order.
+	 *
+	 * @param  function Advisory function.
+	 * @param  type     Lock type ({@link LockType#ADVISORY} or {@link LockType#ADVISORY_64}).
+	 * @return          The statement.
+	 */
+	private static String getSessionLockStatement(
+			final String function,
+			final LockType type) {
+		return LockType.ADVISORY_64.equals(type) ? "SELECT " + function + "(h) FROM " + LockKeyRepository.ADVISORY_64_HASHES + "ORDER BY h"
+				: "SELECT " + function + "(?, h) FROM (SELECT DISTINCT hashtext(k) AS h FROM unnest(?) AS k) AS hashes ORDER BY h";
+	}
+
+	/**
+	 * Applies an advisory function to every distinct key of a session lock.
+	 *
+	 * @param  connection Dedicated connection.
+	 * @param  function   Advisory function.
+	 * @param  lock       Session lock.
+	 * @return            Whether the function returned {@code true} (or nothing) for every key.
+	 */
+	private static boolean executeSessionLockStatement(
+			final Connection connection,
+			final String function,
+			final SessionLock lock) throws SQLException {
+		boolean allTrue = true;
+		final Array sqlArray = connection.createArrayOf("text", lock.getKeys());
+		try (PreparedStatement statement = connection.prepareStatement(LockKeyRepository.getSessionLockStatement(function, lock.getType()))) {
+			if (LockType.ADVISORY_64.equals(lock.getType())) {
+				statement.setString(1, lock.getTextNamespace());
+				statement.setLong(2, LockKeyRepository.ADVISORY_64_SEED);
+				statement.setArray(3, sqlArray);
+			}
+			else {
+				statement.setInt(1, lock.getNamespace());
+				statement.setArray(2, sqlArray);
+			}
+			try (ResultSet rs = statement.executeQuery()) {
+				while (rs.next()) {
+					final Object result = rs.getObject(1);
+					if (Boolean.FALSE.equals(result)) {
+						allTrue = false;
+					}
+				}
+			}
+		}
+		finally {
+			sqlArray.free();
+		}
+		return allTrue;
+	}
+
+	/**
+	 * Acquires the session-scoped advisory locks of a {@link SessionLock} on its dedicated
+	 * connection ({@code pg_advisory_lock}, or {@code pg_try_advisory_lock} when non-blocking), each
+	 * distinct key once, in hash order. Session locks are not released by any transaction end, so a
+	 * partial or failed acquisition releases everything the connection holds before returning.
+	 *
+	 * @param  connection  Dedicated connection.
+	 * @param  lock        Session lock.
+	 * @param  nonBlocking Whether to give up when a key is held elsewhere.
+	 * @return             {@code true} if every key was acquired.
+	 */
+	public boolean acquireSessionLock(
+			final Connection connection,
+			final SessionLock lock,
+			final boolean nonBlocking) {
+		try {
+			boolean acquired = false;
+			try {
+				acquired = LockKeyRepository.executeSessionLockStatement(connection, nonBlocking ? "pg_try_advisory_lock" : "pg_advisory_lock", lock);
+			}
+			finally {
+				if (!acquired) {
+					LockKeyRepository.executeStatement(connection, "SELECT pg_advisory_unlock_all()");
+				}
+			}
+			return acquired;
+		}
+		catch (final SQLException exception) {
+			throw LockKeyRepository.EXCEPTION_TRANSLATOR.translate("acquire session lock", null, exception);
+		}
+	}
+
+	/**
+	 * Releases the session-scoped advisory locks of a {@link SessionLock} ({@code pg_advisory_unlock}).
+	 *
+	 * @param  connection Dedicated connection.
+	 * @param  lock       Session lock.
+	 * @return            Whether every key was still held.
+	 */
+	public boolean releaseSessionLock(
+			final Connection connection,
+			final SessionLock lock) {
+		try {
+			return LockKeyRepository.executeSessionLockStatement(connection, "pg_advisory_unlock", lock);
+		}
+		catch (final SQLException exception) {
+			throw LockKeyRepository.EXCEPTION_TRANSLATOR.translate("release session lock", null, exception);
+		}
+	}
+
+	/**
+	 * Checks that a session lock connection is still alive (and so still holds its locks).
+	 *
+	 * @param  connection     Dedicated connection.
+	 * @param  timeoutSeconds Maximum wait for the server's answer.
+	 * @return                Whether the connection is alive.
+	 */
+	public boolean isSessionConnectionAlive(
+			final Connection connection,
+			final int timeoutSeconds) {
+		boolean alive;
+		try {
+			alive = connection.isValid(timeoutSeconds);
+		}
+		catch (final SQLException exception) {
+			alive = false;
+		}
+		return alive;
+	}
+
 	private static void executeStatement(
 			final Connection connection,
 			final String sql) throws SQLException {
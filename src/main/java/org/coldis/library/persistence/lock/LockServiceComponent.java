@@ -1,31 +1,43 @@
 package org.coldis.library.persistence.lock;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 import org.coldis.library.exception.BusinessException;
 import org.coldis.library.model.SimpleMessage;
 import org.coldis.library.persistence.LockBehavior;
+import org.coldis.library.persistence.instrumentation.PersistenceInstrumentation;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * Acquires transaction-scoped locks for arbitrary string keys via either Postgres advisory locks
- * ({@link LockType#ADVISORY}, default) or row locks on a dedicated {@code lock_key} table
- * ({@link LockType#TABLE}). Used to serialize concurrent writers on application-defined keys
+ * ({@link LockType#ADVISORY}, default, or {@link LockType#ADVISORY_64}) or row locks on a
+ * dedicated {@code lock_key} table ({@link LockType#TABLE}). Used to serialize concurrent writers on application-defined keys
  * without locking actual domain table rows.
  *
  * <p>Locks are released automatically when the surrounding transaction commits or rolls back.
- * Callers must invoke this component from inside an active transaction.
+ * Callers must invoke this component from inside an active transaction. The session-scoped
+ * variants ({@link #lockKeysForSession(LockBehavior, LockType, String, Collection)}) are the
+ * exception: they hold advisory locks on a dedicated connection until the returned
+ * {@link SessionLock} is closed.
  *
  * <p>Acquisition is deadlock-free across batches: keys within a single call are sorted before
  * locking, so two concurrent batches with overlapping keys always acquire them in the same order.
  *
  * <p>Acquisition mode mirrors {@link LockBehavior}: blocking wait, non-blocking skip, or
- * non-blocking fail-fast. See {@link LockType} for the trade-offs between the two
+ * non-blocking fail-fast. See {@link LockType} for the trade-offs between the
  * implementations — most importantly, {@code LOCK_SKIP} on {@code ADVISORY} can silently skip
- * work on hash collisions; prefer {@link LockType#TABLE} when that risk is unacceptable.
+ * work on hash collisions; prefer {@link LockType#ADVISORY_64} (or {@link LockType#TABLE}) when
+ * that risk is unacceptable.
  */
 @Service
 public class LockServiceComponent {
@@ -36,10 +48,56 @@ public class LockServiceComponent {
 	/** Message code raised when a {@code LOCK_FAIL_FAST} acquisition cannot grab a lock. */
 	public static final String LOCK_NOT_ACQUIRED_CODE = "lock.notacquired";
 
+	/** {@code behavior} tag of the {@link #lockAvailableKeys(LockType, String, Collection)} operations. */
+	public static final String AVAILABLE_BEHAVIOR = "AVAILABLE";
+
+	/** Instrumented operations, by behavior and type. */
+	private static final PersistenceInstrumentation.Operation[][] OPERATIONS = new PersistenceInstrumentation.Operation[LockBehavior
+			.values().length][LockType.values().length];
+
+	/** Instrumented partial acquisitions, by type (told apart from {@code LOCK_SKIP}, which is all or nothing). */
+	private static final PersistenceInstrumentation.Operation[] AVAILABLE_OPERATIONS = new PersistenceInstrumentation.Operation[LockType.values().length];
+
+	static {
+		for (final LockBehavior behavior : LockBehavior.values()) {
+			for (final LockType type : LockType.values()) {
+				LockServiceComponent.OPERATIONS[behavior.ordinal()][type.ordinal()] = PersistenceInstrumentation
+						.operation(PersistenceInstrumentation.LOCK_METER, "behavior", behavior.name(), "type", type.name());
+			}
+		}
+		for (final LockType type : LockType.values()) {
+			LockServiceComponent.AVAILABLE_OPERATIONS[type.ordinal()] = PersistenceInstrumentation.operation(PersistenceInstrumentation.LOCK_METER,
+					"behavior", LockServiceComponent.AVAILABLE_BEHAVIOR, "type", type.name());
+		}
+	}
+
 	/** Repository for {@link LockKey} rows and Postgres advisory primitives — owns the raw JDBC. */
 	@Autowired
 	private LockKeyRepository repository;
 
+	/** In-JVM tier ({@code null} when disabled). */
+	private LocalLockTier localTier;
+
+	/** How often the connection of a {@link SessionLock} is checked. */
+	@Value("${org.coldis.configuration.persistence.lock.session-heartbeat-interval:10s}")
+	private Duration sessionHeartbeatInterval;
+
+	/**
+	 * Sets whether the in-JVM tier is enabled: local transactions contending on a key queue in the
+	 * JVM, and only one of them at a time waits on the database lock (see {@link LocalLockTier}). The
+	 * primary datasource then connects lazily (see
+	 * {@link org.coldis.library.persistence.configuration.DataSourcePoolConfigurer}), so the waiters
+	 * hold no pool connection; other datasources only spare it if they already connect lazily.
+	 *
+	 * @param localTierEnabled Whether the in-JVM tier is enabled.
+	 */
+	@Autowired
+	private void setLocalTierEnabled(
+			@Value("${org.coldis.configuration.persistence.lock.local-tier.enabled:false}")
+			final Boolean localTierEnabled) {
+		this.localTier = localTierEnabled ? new LocalLockTier() : null;
+	}
+
 	// ---------------------------------------------------------------------------------------
 	// Always-blocking convenience overloads — default to ADVISORY + WAIT_AND_LOCK.
 	// ---------------------------------------------------------------------------------------
@@ -148,67 +206,366 @@ public class LockServiceComponent {
 			final LockType type,
 			final String namespace,
 			final Collection<String> keys) throws BusinessException {
-		final boolean acquired;
-		if (LockType.TABLE.equals(type)) {
-			acquired = this.acquireTable(behavior, namespace, keys);
+		return this.lockKeys(behavior, type, namespace, namespace == null ? LockServiceComponent.DEFAULT_NAMESPACE : namespace.hashCode(), keys).isEmpty();
+	}
+
+	/**
+	 * Acquires transaction-scoped locks following the given {@link LockBehavior} and
+	 * {@link LockType}, with a numeric advisory namespace (used only when
+	 * {@code type == ADVISORY}; for {@code TABLE} and {@code ADVISORY_64} the integer is rendered as text).
+	 */
+	public boolean lockKeys(
+			final LockBehavior behavior,
+			final LockType type,
+			final int namespace,
+			final Collection<String> keys) throws BusinessException {
+		return this.lockKeys(behavior, type, Integer.toString(namespace), namespace, keys).isEmpty();
+	}
+
+	/**
+	 * Tries to acquire transaction-scoped locks on every key, without waiting, all or nothing (as
+	 * {@code LOCK_SKIP}), and reports the contended keys, so the caller can retry only those. When a
+	 * key is contended, none of the keys stays locked (the locks a partial attempt did get are
+	 * released right away, by rolling back to a savepoint: an advisory attempt on several keys
+	 * outside a transaction throws {@code InvalidDataAccessApiUsageException}).
+	 *
+	 * @param  type      Mechanism to use; see {@link LockType}. {@link LockType#TABLE} cannot tell
+	 *                       which key was contended (its batch INSERT stops at the first conflict),
+	 *                       so it reports every key.
+	 * @param  namespace Lock namespace label.
+	 * @param  keys      Application-defined keys to lock.
+	 * @return           The keys held by other transactions (empty if every lock was acquired).
+	 */
+	public Set<String> tryLockKeys(
+			final LockType type,
+			final String namespace,
+			final Collection<String> keys) {
+		try {
+			return this.lockKeys(LockBehavior.LOCK_SKIP, type, namespace, namespace == null ? LockServiceComponent.DEFAULT_NAMESPACE : namespace.hashCode(),
+					keys);
 		}
-		else {
-			acquired = this.acquireAdvisory(behavior, namespace == null ? LockServiceComponent.DEFAULT_NAMESPACE : namespace.hashCode(), keys);
+		catch (final BusinessException exception) {
+			// Only thrown for LOCK_FAIL_FAST.
+			throw new IllegalStateException(exception);
 		}
-		if (!acquired && LockBehavior.LOCK_FAIL_FAST.equals(behavior)) {
-			throw new BusinessException(new SimpleMessage(LockServiceComponent.LOCK_NOT_ACQUIRED_CODE));
+	}
+
+	/**
+	 * Tries to acquire transaction-scoped locks on every key with a numeric namespace (see
+	 * {@link #tryLockKeys(LockType, String, Collection)}).
+	 */
+	public Set<String> tryLockKeys(
+			final LockType type,
+			final int namespace,
+			final Collection<String> keys) {
+		try {
+			return this.lockKeys(LockBehavior.LOCK_SKIP, type, Integer.toString(namespace), namespace, keys);
+		}
+		catch (final BusinessException exception) {
+			// Only thrown for LOCK_FAIL_FAST.
+			throw new IllegalStateException(exception);
+		}
+	}
+
+	/**
+	 * Acquires, without waiting, transaction-scoped locks on as many keys as possible, keeping
+	 * whichever it gets, so a batch processor can make progress on every key that is not contended
+	 * (instead of skipping the whole batch, as {@code LOCK_SKIP} does).
+	 *
+	 * @param  type      Mechanism to use; see {@link LockType}. {@link LockType#TABLE} finds the
+	 *                       contended keys by splitting failed INSERT batches in halves (a few
+	 *                       extra round trips per contended key).
+	 * @param  namespace Lock namespace label.
+	 * @param  keys      Application-defined keys to lock.
+	 * @return           The keys acquired (held until the transaction completes).
+	 */
+	public Set<String> lockAvailableKeys(
+			final LockType type,
+			final String namespace,
+			final Collection<String> keys) {
+		return this.lockAvailableKeys(type, namespace, namespace == null ? LockServiceComponent.DEFAULT_NAMESPACE : namespace.hashCode(), keys);
+	}
+
+	/**
+	 * Acquires, without waiting, transaction-scoped locks on as many keys as possible with a numeric
+	 * namespace (see {@link #lockAvailableKeys(LockType, String, Collection)}).
+	 */
+	public Set<String> lockAvailableKeys(
+			final LockType type,
+			final int namespace,
+			final Collection<String> keys) {
+		return this.lockAvailableKeys(type, Integer.toString(namespace), namespace, keys);
+	}
+
+	/**
+	 * Acquires as many transaction-scoped locks as possible (see
+	 * {@link #lockAvailableKeys(LockType, String, Collection)}), through the in-JVM tier when enabled
+	 * (and inside a transaction), recording the acquisition when the instrumentation is enabled.
+	 *
+	 * @param  type              Mechanism to use.
+	 * @param  textNamespace     Namespace used by {@link LockType#TABLE} and {@link LockType#ADVISORY_64}.
+	 * @param  advisoryNamespace Namespace used by {@link LockType#ADVISORY}.
+	 * @param  keys              Application-defined keys to lock.
+	 * @return                   The keys acquired.
+	 */
+	private Set<String> lockAvailableKeys(
+			final LockType type,
+			final String textNamespace,
+			final int advisoryNamespace,
+			final Collection<String> keys) {
+		final boolean instrumented = PersistenceInstrumentation.isEnabled();
+		final long start = instrumented ? System.nanoTime() : 0L;
+		Set<String> acquired = Set.of();
+		boolean failed = true;
+		final boolean local = (this.localTier != null) && (keys != null) && !keys.isEmpty() && TransactionSynchronizationManager.isSynchronizationActive();
+		final String localPrefix = local ? LockServiceComponent.getLocalPrefix(type, textNamespace, advisoryNamespace) : null;
+		List<String> localKeys = null;
+		try {
+			if ((keys != null) && !keys.isEmpty()) {
+				Collection<String> candidates = keys;
+				// Keys held by another local transaction are not even tried in the database.
+				if (local) {
+					final Set<String> heldLocally = new HashSet<>();
+					localKeys = this.localTier.acquireAvailable(localPrefix, keys, heldLocally);
+					if (!heldLocally.isEmpty()) {
+						candidates = keys.stream().filter(key -> !heldLocally.contains(key)).toList();
+					}
+				}
+				if (candidates.isEmpty()) {
+					acquired = Set.of();
+				}
+				else if (LockType.TABLE.equals(type)) {
+					acquired = this.acquireAvailableTable(textNamespace, candidates);
+				}
+				else if (LockType.ADVISORY_64.equals(type)) {
+					acquired = this.repository.acquireAdvisory64Available(
+							textNamespace == null ? Integer.toString(LockServiceComponent.DEFAULT_NAMESPACE) : textNamespace, candidates);
+				}
+				else {
+					acquired = this.repository.acquireAdvisoryAvailable(advisoryNamespace, candidates);
+				}
+			}
+			failed = false;
+		}
+		finally {
+			if (localKeys != null) {
+				final List<String> notAcquired = new ArrayList<>();
+				for (final String localKey : localKeys) {
+					if (failed || !acquired.contains(localKey.substring(localPrefix.length()))) {
+						notAcquired.add(localKey);
+					}
+				}
+				this.localTier.release(notAcquired);
+			}
+			if (instrumented) {
+				LockServiceComponent.AVAILABLE_OPERATIONS[(type == null ? LockType.ADVISORY : type).ordinal()].record(System.nanoTime() - start,
+						acquired.size(), failed);
+			}
 		}
 		return acquired;
 	}
 
 	/**
-	 * Acquires transaction-scoped locks following the given {@link LockBehavior} and
-	 * {@link LockType}, with a numeric advisory namespace (used only when
-	 * {@code type == ADVISORY}; for {@code TABLE} the integer is rendered as text).
+	 * Acquires transaction-scoped locks (see {@link #lockKeys(LockBehavior, LockType, String, Collection)}),
+	 * through the in-JVM tier when enabled (and inside a transaction), recording the acquisition when
+	 * the instrumentation is enabled.
+	 *
+	 * @param  behavior          How to react to contention.
+	 * @param  type              Mechanism to use.
+	 * @param  textNamespace     Namespace used by {@link LockType#TABLE} and {@link LockType#ADVISORY_64}.
+	 * @param  advisoryNamespace Namespace used by {@link LockType#ADVISORY}.
+	 * @param  keys              Application-defined keys to lock.
+	 * @return                   The keys held by other transactions (empty if all locks were acquired).
+	 * @throws BusinessException When {@code behavior == LOCK_FAIL_FAST} and a lock could not be
+	 *                               acquired.
 	 */
-	public boolean lockKeys(
+	private Set<String> lockKeys(
+			final LockBehavior behavior,
+			final LockType type,
+			final String textNamespace,
+			final int advisoryNamespace,
+			final Collection<String> keys) throws BusinessException {
+		final boolean instrumented = PersistenceInstrumentation.isEnabled();
+		final long start = instrumented ? System.nanoTime() : 0L;
+		Set<String> unavailable = null;
+		boolean failed = true;
+		final boolean local = (this.localTier != null) && (keys != null) && !keys.isEmpty() && TransactionSynchronizationManager.isSynchronizationActive();
+		List<String> localKeys = null;
+		try {
+			if (local) {
+				unavailable = new LinkedHashSet<>();
+				final boolean nonBlocking = LockBehavior.LOCK_SKIP.equals(behavior) || LockBehavior.LOCK_FAIL_FAST.equals(behavior);
+				localKeys = this.localTier.acquire(LockServiceComponent.getLocalPrefix(type, textNamespace, advisoryNamespace), keys, nonBlocking,
+						nonBlocking ? null : this.repository.getLockTimeout(), unavailable);
+			}
+			// Held by another local transaction: answered without going to the database.
+			if (local && (localKeys == null)) {
+				failed = false;
+			}
+			else {
+				if (LockType.TABLE.equals(type)) {
+					unavailable = this.acquireTable(behavior, textNamespace, keys);
+				}
+				else if (LockType.ADVISORY_64.equals(type)) {
+					unavailable = this.acquireAdvisory64(behavior,
+							textNamespace == null ? Integer.toString(LockServiceComponent.DEFAULT_NAMESPACE) : textNamespace, keys);
+				}
+				else {
+					unavailable = this.acquireAdvisory(behavior, advisoryNamespace, keys);
+				}
+				failed = false;
+			}
+		}
+		finally {
+			final boolean acquired = !failed && unavailable.isEmpty();
+			if (!acquired && (localKeys != null)) {
+				this.localTier.release(localKeys);
+			}
+			if (instrumented) {
+				LockServiceComponent.getOperation(behavior, type).record(System.nanoTime() - start, (acquired && (keys != null)) ? keys.size() : 0L,
+						failed);
+			}
+		}
+		if (!unavailable.isEmpty() && LockBehavior.LOCK_FAIL_FAST.equals(behavior)) {
+			throw new BusinessException(new SimpleMessage(LockServiceComponent.LOCK_NOT_ACQUIRED_CODE));
+		}
+		return unavailable;
+	}
+
+	/**
+	 * Gets the local tier identity prefix of a lock type and namespace (matching the database lock
+	 * identity: distinct types never share a lock).
+	 *
+	 * @param  type              Type.
+	 * @param  textNamespace     Text namespace.
+	 * @param  advisoryNamespace Numeric namespace.
+	 * @return                   The prefix.
+	 */
+	private static String getLocalPrefix(
+			final LockType type,
+			final String textNamespace,
+			final int advisoryNamespace) {
+		return LockType.TABLE.equals(type) ? "table:" + (textNamespace == null ? "" : textNamespace) + ":"
+				: LockType.ADVISORY_64.equals(type) ? "advisory64:" + (textNamespace == null ? LockServiceComponent.DEFAULT_NAMESPACE : textNamespace) + ":"
+						: "advisory:" + advisoryNamespace + ":";
+	}
+
+	/**
+	 * Gets the instrumented operation of a behavior and type.
+	 *
+	 * @param  behavior Behavior ({@code null} blocks, as {@code WAIT_AND_LOCK}).
+	 * @param  type     Type ({@code null} is {@code ADVISORY}).
+	 * @return          The operation.
+	 */
+	private static PersistenceInstrumentation.Operation getOperation(
+			final LockBehavior behavior,
+			final LockType type) {
+		return LockServiceComponent.OPERATIONS[(behavior == null ? LockBehavior.WAIT_AND_LOCK : behavior).ordinal()][(type == null ? LockType.ADVISORY
+				: type).ordinal()];
+	}
+
+	// ---------------------------------------------------------------------------------------
+	// Session-scoped locks: held until the returned handle is closed.
+	// ---------------------------------------------------------------------------------------
+
+	/**
+	 * Acquires session-scoped advisory locks ({@code pg_advisory_lock}) on a dedicated connection,
+	 * held — across any number of transactions, or none — until the returned {@link SessionLock} is
+	 * closed. Use for long-running work that should commit in short transactions under one lock.
+	 *
+	 * @param  behavior          How to react to contention (as in
+	 *                           {@link #lockKeys(LockBehavior, LockType, String, Collection)}).
+	 * @param  type              {@link LockType#ADVISORY} or {@link LockType#ADVISORY_64} (same
+	 *                           lock ids as the transaction-scoped locks of that type, so both
+	 *                           scopes exclude each other).
+	 * @param  namespace         Lock namespace label.
+	 * @param  keys              Application-defined keys to lock.
+	 * @return                   The lock handle (to be closed), or {@code null} only when
+	 *                           {@code behavior == LOCK_SKIP} and a lock was held elsewhere.
+	 * @throws BusinessException Only when {@code behavior == LOCK_FAIL_FAST} and a lock could not be
+	 *                               acquired.
+	 */
+	public SessionLock lockKeysForSession(
+			final LockBehavior behavior,
+			final LockType type,
+			final String namespace,
+			final Collection<String> keys) throws BusinessException {
+		return this.lockKeysForSession(behavior, type, namespace == null ? LockServiceComponent.DEFAULT_NAMESPACE : namespace.hashCode(),
+				namespace == null ? Integer.toString(LockServiceComponent.DEFAULT_NAMESPACE) : namespace, keys);
+	}
+
+	/**
+	 * Acquires session-scoped advisory locks with a numeric namespace (see
+	 * {@link #lockKeysForSession(LockBehavior, LockType, String, Collection)}).
+	 */
+	public SessionLock lockKeysForSession(
 			final LockBehavior behavior,
 			final LockType type,
 			final int namespace,
 			final Collection<String> keys) throws BusinessException {
-		final boolean acquired;
+		return this.lockKeysForSession(behavior, type, namespace, Integer.toString(namespace), keys);
+	}
+
+	private SessionLock lockKeysForSession(
+			final LockBehavior behavior,
+			final LockType type,
+			final int advisoryNamespace,
+			final String textNamespace,
+			final Collection<String> keys) throws BusinessException {
 		if (LockType.TABLE.equals(type)) {
-			acquired = this.acquireTable(behavior, Integer.toString(namespace), keys);
-		}
-		else {
-			acquired = this.acquireAdvisory(behavior, namespace, keys);
+			throw new IllegalArgumentException("Session locks are advisory only.");
 		}
+		final SessionLock lock = new SessionLock(this.repository, type == null ? LockType.ADVISORY : type, advisoryNamespace, textNamespace,
+				keys == null ? new String[0] : keys.toArray(new String[0]));
+		final boolean nonBlocking = LockBehavior.LOCK_SKIP.equals(behavior) || LockBehavior.LOCK_FAIL_FAST.equals(behavior);
+		final boolean acquired = lock.acquire(nonBlocking, this.sessionHeartbeatInterval);
 		if (!acquired && LockBehavior.LOCK_FAIL_FAST.equals(behavior)) {
 			throw new BusinessException(new SimpleMessage(LockServiceComponent.LOCK_NOT_ACQUIRED_CODE));
 		}
-		return acquired;
+		return acquired ? lock : null;
 	}
 
 	// ---------------------------------------------------------------------------------------
 	// Mode-specific orchestration — delegates the actual SQL to LockKeyRepository.
 	// ---------------------------------------------------------------------------------------
 
-	private boolean acquireAdvisory(
+	private Set<String> acquireAdvisory(
 			final LockBehavior behavior,
 			final int namespace,
 			final Collection<String> keys) {
-		boolean acquired = true;
+		Set<String> unavailable = Set.of();
 		if ((keys != null) && !keys.isEmpty()) {
 			if ((behavior == null) || LockBehavior.WAIT_AND_LOCK.equals(behavior) || LockBehavior.NO_LOCK.equals(behavior)) {
 				this.repository.acquireAdvisoryBlocking(namespace, keys);
 			}
 			else {
-				acquired = this.repository.acquireAdvisoryTry(namespace, keys);
+				unavailable = this.repository.acquireAdvisoryTryUnavailable(namespace, keys);
 			}
 		}
-		return acquired;
+		return unavailable;
 	}
 
-	private boolean acquireTable(
+	private Set<String> acquireAdvisory64(
 			final LockBehavior behavior,
 			final String namespace,
 			final Collection<String> keys) {
-		boolean acquired = true;
+		Set<String> unavailable = Set.of();
+		if ((keys != null) && !keys.isEmpty()) {
+			if ((behavior == null) || LockBehavior.WAIT_AND_LOCK.equals(behavior) || LockBehavior.NO_LOCK.equals(behavior)) {
+				this.repository.acquireAdvisory64Blocking(namespace, keys);
+			}
+			else {
+				unavailable = this.repository.acquireAdvisory64TryUnavailable(namespace, keys);
+			}
+		}
+		return unavailable;
+	}
+
+	private Set<String> acquireTable(
+			final LockBehavior behavior,
+			final String namespace,
+			final Collection<String> keys) {
+		Set<String> unavailable = Set.of();
 		if ((keys != null) && !keys.isEmpty()) {
 			final String prefix = (namespace == null ? "" : namespace) + ":";
 			final String[] ids = keys.stream()
@@ -216,10 +573,31 @@ public class LockServiceComponent {
 					.sorted()
 					.toArray(String[]::new);
 			final boolean nonBlocking = LockBehavior.LOCK_SKIP.equals(behavior) || LockBehavior.LOCK_FAIL_FAST.equals(behavior);
-			acquired = this.repository.acquireTableLock(ids, nonBlocking);
-			if (acquired) {
+			if (this.repository.acquireTableLock(ids, nonBlocking)) {
 				this.registerBeforeCommitDelete(ids);
 			}
+			else {
+				// The batch INSERT stops at the first conflict: the contended keys are unknown.
+				unavailable = new LinkedHashSet<>(keys);
+			}
+		}
+		return unavailable;
+	}
+
+	private Set<String> acquireAvailableTable(
+			final String namespace,
+			final Collection<String> keys) {
+		final String prefix = (namespace == null ? "" : namespace) + ":";
+		final String[] ids = keys.stream()
+				.map(k -> prefix + k)
+				.distinct()
+				.sorted()
+				.toArray(String[]::new);
+		final Set<String> acquiredIds = this.repository.acquireAvailableTableLocks(ids);
+		final Set<String> acquired = new LinkedHashSet<>();
+		if (!acquiredIds.isEmpty()) {
+			this.registerBeforeCommitDelete(acquiredIds.toArray(new String[0]));
+			acquiredIds.forEach(id -> acquired.add(id.substring(prefix.length())));
 		}
 		return acquired;
 	}
@@ -4,7 +4,7 @@ package org.coldis.library.persistence.lock;
  * Mechanism used by {@link LockServiceComponent} to acquire transaction-scoped locks on string
  * keys.
  *
- * <p>Both variants share the same API and {@link org.coldis.library.persistence.LockBehavior}
+ * <p>All variants share the same API and {@link org.coldis.library.persistence.LockBehavior}
  * semantics — pick based on the cost/correctness trade-off below.
  */
 public enum LockType {
@@ -31,6 +31,22 @@ public enum LockType {
 	 */
 	ADVISORY,
 
+	/**
+	 * PostgreSQL advisory locks on a single {@code bigint} per key:
+	 * {@code pg_advisory_xact_lock(hashtextextended(namespace || ':' || key, seed))}. The namespace
+	 * is hashed together with the key (an {@code int} namespace is rendered as text), so each lock
+	 * gets the full 64 bits instead of {@link #ADVISORY}'s 32 bits per key.
+	 *
+	 * <p><b>Pros:</b> same cost as {@link #ADVISORY}, but even with 100,000 keys held at once the
+	 * chance of any collision is about 1 in 4 billion — close enough to {@link #TABLE}'s safety for
+	 * {@code LOCK_SKIP} in most workloads. Requires PostgreSQL 11+.
+	 *
+	 * <p><b>Cons:</b> still a hash (collisions are improbable, not impossible). Its locks are
+	 * distinct from {@link #ADVISORY}'s (and acquired in a different order), so the same keyset must
+	 * not be locked through both types at once; see {@code doc/lock.md} for migrating a keyset.
+	 */
+	ADVISORY_64,
+
 	/**
 	 * Row-level locks on a dedicated {@code lock_key} table. Each acquired lock is an INSERT into
 	 * {@code lock_key} that is DELETEd via a {@code beforeCommit} hook of the surrounding
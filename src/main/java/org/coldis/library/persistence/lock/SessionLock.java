@@ -0,0 +1,232 @@
+package org.coldis.library.persistence.lock;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.coldis.library.exception.BusinessException;
+import org.coldis.library.model.SimpleMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Session-scoped advisory locks ({@code pg_advisory_lock}) held on a dedicated connection until
+ * {@link #close() closed} ({@code pg_advisory_unlock}), independently of any transaction — so long
+ * running work can run in many short transactions under one lock, instead of keeping a transaction
+ * (and a pooled connection) open for minutes. Obtained from
+ * {@link LockServiceComponent#lockKeysForSession(org.coldis.library.persistence.LockBehavior, LockType, String, java.util.Collection)}.
+ *
+ * <p>
+ * The connection is checked by a heartbeat. If it is lost (network failure, server restart,
+ * terminated backend), Postgres has already released the locks: the handle is then no longer
+ * {@linkplain #isHeld() held}, and the work should call {@link #verify()} between units of work and
+ * stop when it throws. Always close the handle (try-with-resources); closing also closes the
+ * connection, which releases the locks even if the unlock itself fails.
+ * </p>
+ */
+public final class SessionLock implements AutoCloseable {
+
+	/** Logger. */
+	private static final Logger LOGGER = LoggerFactory.getLogger(SessionLock.class);
+
+	/** Message code raised by {@link #verify()} when the lock was lost. */
+	public static final String LOCK_LOST_CODE = "lock.lost";
+
+	/** Maximum wait for a heartbeat answer (seconds). */
+	private static final int HEARTBEAT_TIMEOUT_SECONDS = 5;
+
+	/** Runs the heartbeats (of every session lock). */
+	private static final ScheduledExecutorService HEARTBEAT = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+			.name("session-lock-heartbeat")
+			.daemon(true)
+			.factory());
+
+	/** Repository. */
+	private final LockKeyRepository repository;
+
+	/** Lock type. */
+	private final LockType type;
+
+	/** Numeric namespace ({@link LockType#ADVISORY}). */
+	private final int namespace;
+
+	/** Text namespace ({@link LockType#ADVISORY_64}). */
+	private final String textNamespace;
+
+	/** Keys. */
+	private final String[] keys;
+
+	/** Dedicated connection ({@code null} when there are no keys). */
+	private Connection connection;
+
+	/** Scheduled heartbeat. */
+	private ScheduledFuture<?> heartbeat;
+
+	/** Whether the connection (and so the locks) was lost. */
+	private volatile boolean lost;
+
+	/** Whether the handle was closed. */
+	private volatile boolean closed;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param repository    Repository.
+	 * @param type          Lock type.
+	 * @param namespace     Numeric namespace ({@link LockType#ADVISORY}).
+	 * @param textNamespace Text namespace ({@link LockType#ADVISORY_64}).
+	 * @param keys          Keys.
+	 */
+	SessionLock(final LockKeyRepository repository, final LockType type, final int namespace, final String textNamespace, final String[] keys) {
+		this.repository = repository;
+		this.type = type;
+		this.namespace = namespace;
+		this.textNamespace = textNamespace;
+		this.keys = keys;
+	}
+
+	/**
+	 * Gets the lock type.
+	 *
+	 * @return The lock type.
+	 */
+	LockType getType() {
+		return this.type;
+	}
+
+	/**
+	 * Gets the numeric namespace.
+	 *
+	 * @return The numeric namespace.
+	 */
+	int getNamespace() {
+		return this.namespace;
+	}
+
+	/**
+	 * Gets the text namespace.
+	 *
+	 * @return The text namespace.
+	 */
+	String getTextNamespace() {
+		return this.textNamespace;
+	}
+
+	/**
+	 * Gets the keys.
+	 *
+	 * @return The keys.
+	 */
+	String[] getKeys() {
+		return this.keys;
+	}
+
+	/**
+	 * Acquires the locks on a new dedicated connection and starts the heartbeat.
+	 *
+	 * @param  nonBlocking       Whether to give up when a key is held elsewhere.
+	 * @param  heartbeatInterval Heartbeat interval.
+	 * @return                   Whether every key was acquired (the connection is closed otherwise).
+	 */
+	synchronized boolean acquire(
+			final boolean nonBlocking,
+			final Duration heartbeatInterval) {
+		boolean acquired = true;
+		if (this.keys.length > 0) {
+			acquired = false;
+			this.connection = this.repository.openSessionConnection();
+			try {
+				acquired = this.repository.acquireSessionLock(this.connection, this, nonBlocking);
+			}
+			finally {
+				if (!acquired) {
+					this.closed = true;
+					this.closeConnection();
+				}
+			}
+			if (acquired) {
+				this.heartbeat = SessionLock.HEARTBEAT.scheduleWithFixedDelay(this::checkConnection, heartbeatInterval.toMillis(),
+						heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+			}
+		}
+		return acquired;
+	}
+
+	/**
+	 * Whether the locks are still held (not closed, and the connection was not lost as of the last
+	 * heartbeat).
+	 *
+	 * @return Whether the locks are still held.
+	 */
+	public boolean isHeld() {
+		return !this.closed && !this.lost;
+	}
+
+	/**
+	 * Checks that the locks are still held (call between units of work).
+	 *
+	 * @throws BusinessException If the locks were lost or released (code {@value #LOCK_LOST_CODE}).
+	 */
+	public void verify() throws BusinessException {
+		if (!this.isHeld()) {
+			throw new BusinessException(new SimpleMessage(SessionLock.LOCK_LOST_CODE));
+		}
+	}
+
+	/**
+	 * Heartbeat: marks the locks as lost when the connection no longer answers.
+	 */
+	private synchronized void checkConnection() {
+		if (!this.closed && !this.lost && !this.repository.isSessionConnectionAlive(this.connection, SessionLock.HEARTBEAT_TIMEOUT_SECONDS)) {
+			this.lost = true;
+			this.heartbeat.cancel(false);
+			this.closeConnection();
+			SessionLock.LOGGER.warn("Session lock connection lost; the locks on " + this.keys.length + " keys were released by the server.");
+		}
+	}
+
+	/**
+	 * Closes the connection, ignoring errors.
+	 */
+	private void closeConnection() {
+		if (this.connection != null) {
+			try {
+				this.connection.close();
+			}
+			catch (final SQLException exception) {
+				SessionLock.LOGGER.debug("Could not close session lock connection.", exception);
+			}
+		}
+	}
+
+	/**
+	 * Releases the locks and closes the connection (idempotent).
+	 *
+	 * @see java.lang.AutoCloseable#close()
+	 */
+	@Override
+	public synchronized void close() {
+		if (!this.closed) {
+			this.closed = true;
+			if (this.heartbeat != null) {
+				this.heartbeat.cancel(false);
+			}
+			if ((this.connection != null) && !this.lost) {
+				try {
+					if (!this.repository.releaseSessionLock(this.connection, this)) {
+						SessionLock.LOGGER.warn("Some session locks were no longer held when released.");
+					}
+				}
+				catch (final Exception exception) {
+					SessionLock.LOGGER.warn("Could not release session locks (closing their connection releases them): " + exception.getLocalizedMessage());
+				}
+			}
+			this.closeConnection();
+		}
+	}
+
+}
@@ -0,0 +1,362 @@
+package org.coldis.library.persistence.model;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.coldis.library.exception.BusinessException;
+import org.coldis.library.helper.DateTimeHelper;
+import org.coldis.library.persistence.LockBehavior;
+import org.coldis.library.persistence.lock.LockServiceComponent;
+import org.coldis.library.persistence.lock.LockType;
+import org.coldis.library.persistence.repository.PostgresJpaRepository;
+import org.coldis.library.persistence.repository.PostgresJpaRepositoryImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.jpa.repository.support.JpaEntityInformationSupport;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ClassUtils;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.metamodel.EntityType;
+
+/**
+ * Purges expired rows ({@code expiredAt} in the past) of every {@link AbstractTimestampableExpirableEntity}
+ * subclass (including {@link AbstractCacheableEntity}) of the primary persistence unit, discovered
+ * from the metamodel at startup. Enabled with
+ * {@code org.coldis.configuration.persistence.expired-reaper.enabled=true}.
+ *
+ * <p>Each run deletes, per entity type, chunks of at most {@code chunk-size} rows, each chunk in its
+ * own short transaction: the rows are claimed with {@code FOR UPDATE SKIP LOCKED} (rows in use are
+ * left for a later run) and deleted by id. Each chunk also takes a skip-mode advisory lock on the
+ * entity type, so nodes running the reaper concurrently spread over the entity types instead of
+ * contending on the same table. Chunks are deleted with
+ * {@link PostgresJpaRepository#deleteWhereChunk(org.springframework.data.jpa.domain.Specification, int)}.
+ *
+ * <p>Runs are {@code @Scheduled}: the application enables scheduling ({@code @EnableScheduling}),
+ * otherwise {@link #reap()} must be called by the application itself. Per-entity counters are
+ * exposed by {@link #getStatistics()} and, with a Micrometer {@code MeterRegistry}, as the
+ * {@value #DELETED_METER} and {@value #RUNS_METER} counters ({@code entity} tag).
+ */
+@Component
+@ConditionalOnProperty(
+		name = "org.coldis.configuration.persistence.expired-reaper.enabled",
+		havingValue = "true",
+		matchIfMissing = false
+)
+public class ExpiredEntityReaperComponent {
+
+	/**
+	 * Logger.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(ExpiredEntityReaperComponent.class);
+
+	/**
+	 * Advisory lock namespace.
+	 */
+	public static final String LOCK_NAMESPACE = "expired-entity-reaper";
+
+	/**
+	 * Deleted rows counter.
+	 */
+	public static final String DELETED_METER = "coldis.persistence.expired-reaper.deleted";
+
+	/**
+	 * Runs counter.
+	 */
+	public static final String RUNS_METER = "coldis.persistence.expired-reaper.runs";
+
+	/**
+	 * Whether Micrometer is on the classpath.
+	 */
+	private static final boolean MICROMETER_PRESENT = ClassUtils.isPresent("io.micrometer.core.instrument.MeterRegistry",
+			ExpiredEntityReaperComponent.class.getClassLoader());
+
+	/**
+	 * Entity manager.
+	 */
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	/**
+	 * Transaction manager.
+	 */
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	/**
+	 * Lock service.
+	 */
+	@Autowired
+	private LockServiceComponent lockService;
+
+	/**
+	 * Bean factory.
+	 */
+	@Autowired
+	private BeanFactory beanFactory;
+
+	/**
+	 * Rows deleted per chunk (and transaction).
+	 */
+	@Value("${org.coldis.configuration.persistence.expired-reaper.chunk-size:1000}")
+	private Integer chunkSize;
+
+	/**
+	 * Maximum chunks per entity type per run (bounds how long one run can take).
+	 */
+	@Value("${org.coldis.configuration.persistence.expired-reaper.max-chunks:100}")
+	private Integer maxChunks;
+
+	/**
+	 * Expirable entity types.
+	 */
+	private List<EntityType<?>> entityTypes = List.of();
+
+	/**
+	 * Repositories by entity name.
+	 */
+	private final Map<String, PostgresJpaRepository<?, ?>> repositories = new ConcurrentHashMap<>();
+
+	/**
+	 * Statistics by entity name.
+	 */
+	private final Map<String, Statistics> statistics = new ConcurrentHashMap<>();
+
+	/**
+	 * Discovers the expirable entity types.
+	 */
+	@PostConstruct
+	public void discoverEntityTypes() {
+		this.entityTypes = this.entityManager.getMetamodel().getEntities().stream()
+				.filter(entityType -> AbstractTimestampableExpirableEntity.class.isAssignableFrom(entityType.getJavaType()))
+				.<EntityType<?>>map(entityType -> entityType).toList();
+		this.entityTypes.forEach(entityType -> {
+			this.repositories.put(entityType.getName(), this.createRepository(entityType.getJavaType()));
+			this.statistics.put(entityType.getName(), new Statistics());
+		});
+		if (ExpiredEntityReaperComponent.MICROMETER_PRESENT) {
+			MicrometerCounters.register(this.beanFactory, this.statistics);
+		}
+		ExpiredEntityReaperComponent.LOGGER.info("Expired entity reaper tracking: " + this.statistics.keySet());
+	}
+
+	/**
+	 * Creates the repository an entity type's chunks are deleted with.
+	 *
+	 * @param  <T>  Entity type.
+	 * @param  type Entity class.
+	 * @return      The repository.
+	 */
+	private <T> PostgresJpaRepository<T, ?> createRepository(
+			final Class<T> type) {
+		return new PostgresJpaRepositoryImpl<>(JpaEntityInformationSupport.getEntityInformation(type, this.entityManager), this.entityManager);
+	}
+
+	/**
+	 * Gets the per-entity statistics (by entity name).
+	 *
+	 * @return The per-entity statistics.
+	 */
+	public Map<String, Statistics> getStatistics() {
+		return Collections.unmodifiableMap(this.statistics);
+	}
+
+	/**
+	 * Purges the expired rows of every expirable entity type.
+	 */
+	@Scheduled(
+			initialDelayString = "${org.coldis.configuration.persistence.expired-reaper.initial-delay:60000}",
+			fixedDelayString = "${org.coldis.configuration.persistence.expired-reaper.delay:60000}"
+	)
+	public void reap() {
+		for (final EntityType<?> entityType : this.entityTypes) {
+			try {
+				this.reap(entityType);
+			}
+			catch (final Exception exception) {
+				ExpiredEntityReaperComponent.LOGGER.error("Could not purge expired '" + entityType.getName() + "' rows: " + exception.getLocalizedMessage());
+				ExpiredEntityReaperComponent.LOGGER.debug("Could not purge expired '" + entityType.getName() + "' rows.", exception);
+			}
+		}
+	}
+
+	/**
+	 * Purges the expired rows of an entity type, chunk by chunk.
+	 *
+	 * @param  entityType Entity type.
+	 * @return            Number of deleted rows.
+	 */
+	public long reap(
+			final EntityType<?> entityType) {
+		final Statistics entityStatistics = this.statistics.computeIfAbsent(entityType.getName(), name -> new Statistics());
+		final TransactionTemplate transactionTemplate = new TransactionTemplate(this.transactionManager);
+		final long start = System.nanoTime();
+		long total = 0;
+		long deleted;
+		int chunks = 0;
+		do {
+			deleted = transactionTemplate.execute(status -> this.reapChunk(entityType));
+			total += Math.max(0L, deleted);
+			chunks++;
+		}
+		while ((deleted >= this.chunkSize) && (chunks < this.maxChunks));
+		entityStatistics.record(total, System.nanoTime() - start);
+		if (total > 0) {
+			ExpiredEntityReaperComponent.LOGGER.debug("Purged " + total + " expired '" + entityType.getName() + "' rows.");
+		}
+		return total;
+	}
+
+	/**
+	 * Deletes one chunk of expired rows (in the current transaction).
+	 *
+	 * @param  entityType Entity type.
+	 * @return            Number of deleted rows ({@code -1} if another node holds the entity type).
+	 */
+	private long reapChunk(
+			final EntityType<?> entityType) {
+		long deleted = -1L;
+		boolean acquired;
+		try {
+			acquired = this.lockService.lockKeys(LockBehavior.LOCK_SKIP, LockType.ADVISORY, ExpiredEntityReaperComponent.LOCK_NAMESPACE,
+					List.of(entityType.getName()));
+		}
+		catch (final BusinessException exception) {
+			acquired = false;
+		}
+		if (acquired) {
+			deleted = ExpiredEntityReaperComponent.deleteExpiredChunk(
+					this.repositories.computeIfAbsent(entityType.getName(), name -> this.createRepository(entityType.getJavaType())), this.chunkSize);
+		}
+		return deleted;
+	}
+
+	/**
+	 * Deletes one chunk of expired rows with a repository.
+	 *
+	 * @param  <T>        Entity type.
+	 * @param  repository Repository.
+	 * @param  chunkSize  Maximum number of rows to delete.
+	 * @return            Number of deleted rows.
+	 */
+	private static <T> long deleteExpiredChunk(
+			final PostgresJpaRepository<T, ?> repository,
+			final int chunkSize) {
+		final LocalDateTime now = DateTimeHelper.getCurrentLocalDateTime();
+		return repository.deleteWhereChunk((root, query, builder) -> builder.lessThan(root.<LocalDateTime>get("expiredAt"), now), chunkSize);
+	}
+
+	/**
+	 * Per-entity reaper statistics.
+	 */
+	public static class Statistics {
+
+		/** Deleted rows. */
+		private final AtomicLong deletedRows = new AtomicLong();
+
+		/** Runs. */
+		private final AtomicLong runs = new AtomicLong();
+
+		/** Time spent reaping (nanoseconds). */
+		private final AtomicLong reapNanos = new AtomicLong();
+
+		/** Rows deleted by the last run. */
+		private volatile long lastDeletedRows;
+
+		/**
+		 * Records a run.
+		 *
+		 * @param deleted Deleted rows.
+		 * @param nanos   Run duration (nanoseconds).
+		 */
+		private void record(
+				final long deleted,
+				final long nanos) {
+			this.deletedRows.addAndGet(deleted);
+			this.runs.incrementAndGet();
+			this.reapNanos.addAndGet(nanos);
+			this.lastDeletedRows = deleted;
+		}
+
+		/**
+		 * Gets the total deleted rows.
+		 *
+		 * @return The total deleted rows.
+		 */
+		public long getDeletedRows() {
+			return this.deletedRows.get();
+		}
+
+		/**
+		 * Gets the number of runs.
+		 *
+		 * @return The number of runs.
+		 */
+		public long getRuns() {
+			return this.runs.get();
+		}
+
+		/**
+		 * Gets the rows deleted by the last run.
+		 *
+		 * @return The rows deleted by the last run.
+		 */
+		public long getLastDeletedRows() {
+			return this.lastDeletedRows;
+		}
+
+		/**
+		 * Gets the throughput (deleted rows per second spent reaping).
+		 *
+		 * @return The throughput.
+		 */
+		public double getThroughput() {
+			final long nanos = this.reapNanos.get();
+			return (nanos == 0L) ? 0D : (this.deletedRows.get() * 1_000_000_000D) / nanos;
+		}
+
+	}
+
+	/**
+	 * Micrometer support (only loaded when Micrometer is on the classpath).
+	 */
+	private static final class MicrometerCounters {
+
+		/**
+		 * Registers the per-entity counters on the unique meter registry, if any.
+		 *
+		 * @param beanFactory Bean factory.
+		 * @param statistics  Statistics by entity name.
+		 */
+		private static void register(
+				final BeanFactory beanFactory,
+				final Map<String, Statistics> statistics) {
+			final MeterRegistry registry = beanFactory.getBeanProvider(MeterRegistry.class).getIfUnique();
+			if (registry != null) {
+				statistics.forEach((entity, entityStatistics) -> {
+					FunctionCounter.builder(ExpiredEntityReaperComponent.DELETED_METER, entityStatistics, Statistics::getDeletedRows).tag("entity", entity)
+							.register(registry);
+					FunctionCounter.builder(ExpiredEntityReaperComponent.RUNS_METER, entityStatistics, Statistics::getRuns).tag("entity", entity)
+							.register(registry);
+				});
+			}
+		}
+
+	}
+
+}
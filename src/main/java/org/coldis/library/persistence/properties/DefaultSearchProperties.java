@@ -68,6 +68,21 @@ public class DefaultSearchProperties {
 	 */
 	public static final String PAGE_SIZE_STR = "25";
 
+	/**
+	 * Keyset cursor (none, i.e. the first slice).
+	 */
+	public static final String CURSOR_STR = "";
+
+	/**
+	 * Slice size (keyset pagination).
+	 */
+	public static final Integer SLICE_SIZE = 25;
+
+	/**
+	 * Slice size (keyset pagination).
+	 */
+	public static final String SLICE_SIZE_STR = "25";
+
 	/**
 	 * Sort by id.
 	 */
@@ -0,0 +1,149 @@
+package org.coldis.library.persistence.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+
+/**
+ * Opaque keyset (seek) pagination cursor: the sort of a slice and the sort values of its last row.
+ * Encoded as a URL-safe string (see {@link #encode()}), so it can be handed to clients and sent
+ * back for the next slice (see
+ * {@link PostgresJpaRepository#findSlice(org.springframework.data.jpa.domain.Specification, Sort, KeysetCursor, int)}).
+ *
+ * <p>Values are kept in their string form; they are converted back to the attribute types by the
+ * repository.
+ */
+public class KeysetCursor {
+
+	/** Separator between orders. */
+	private static final String ORDER_SEPARATOR = ".";
+
+	/** Separator between the parts of an order. */
+	private static final String PART_SEPARATOR = "~";
+
+	/** Base64 (URL-safe, unpadded) encoder. */
+	private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+	/** Base64 (URL-safe) decoder. */
+	private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+	/**
+	 * Sort.
+	 */
+	private final Sort sort;
+
+	/**
+	 * Sort values (string form), one per sort order.
+	 */
+	private final List<String> values;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param sort   Sort.
+	 * @param values Sort values (string form), one per sort order.
+	 */
+	public KeysetCursor(final Sort sort, final List<String> values) {
+		if (sort.toList().size() != values.size()) {
+			throw new IllegalArgumentException("Keyset cursor needs one value per sort order.");
+		}
+		this.sort = sort;
+		this.values = List.copyOf(values);
+	}
+
+	/**
+	 * Creates a cursor from the sort values of a row.
+	 *
+	 * @param  sort   Sort.
+	 * @param  values Sort values, one per sort order (non-null).
+	 * @return        The cursor.
+	 */
+	public static KeysetCursor of(
+			final Sort sort,
+			final Object... values) {
+		final List<String> stringValues = new ArrayList<>();
+		for (final Object value : values) {
+			stringValues.add(Objects.requireNonNull(value, "Keyset sort values must be non-null.").toString());
+		}
+		return new KeysetCursor(sort, stringValues);
+	}
+
+	/**
+	 * Gets the sort.
+	 *
+	 * @return The sort.
+	 */
+	public Sort getSort() {
+		return this.sort;
+	}
+
+	/**
+	 * Gets the sort values (string form), one per sort order.
+	 *
+	 * @return The sort values.
+	 */
+	public List<String> getValues() {
+		return this.values;
+	}
+
+	/**
+	 * Encodes the cursor as an opaque, URL-safe string.
+	 *
+	 * @return The encoded cursor.
+	 */
+	public String encode() {
+		final List<String> orders = new ArrayList<>();
+		final List<Sort.Order> sortOrders = this.sort.toList();
+		for (int index = 0; index < sortOrders.size(); index++) {
+			final Sort.Order order = sortOrders.get(index);
+			orders.add(KeysetCursor.ENCODER.encodeToString(order.getProperty().getBytes(StandardCharsets.UTF_8)) + KeysetCursor.PART_SEPARATOR
+					+ order.getDirection().name() + KeysetCursor.PART_SEPARATOR
+					+ KeysetCursor.ENCODER.encodeToString(this.values.get(index).getBytes(StandardCharsets.UTF_8)));
+		}
+		return String.join(KeysetCursor.ORDER_SEPARATOR, orders);
+	}
+
+	/**
+	 * Decodes a cursor encoded with {@link #encode()}.
+	 *
+	 * @param  cursor Encoded cursor ({@code null} or blank for none).
+	 * @return        The cursor, or {@code null} if none.
+	 */
+	public static KeysetCursor decode(
+			final String cursor) {
+		KeysetCursor decoded = null;
+		if ((cursor != null) && !cursor.isBlank()) {
+			final List<Sort.Order> orders = new ArrayList<>();
+			final List<String> values = new ArrayList<>();
+			try {
+				for (final String order : cursor.split("\\" + KeysetCursor.ORDER_SEPARATOR)) {
+					final String[] parts = order.split(KeysetCursor.PART_SEPARATOR, -1);
+					if (parts.length != 3) {
+						throw new IllegalArgumentException("Invalid keyset cursor.");
+					}
+					orders.add(new Sort.Order(Direction.valueOf(parts[1]), new String(KeysetCursor.DECODER.decode(parts[0]), StandardCharsets.UTF_8)));
+					values.add(new String(KeysetCursor.DECODER.decode(parts[2]), StandardCharsets.UTF_8));
+				}
+			}
+			catch (final IllegalArgumentException exception) {
+				throw new IllegalArgumentException("Invalid keyset cursor.", exception);
+			}
+			decoded = new KeysetCursor(Sort.by(orders), values);
+		}
+		return decoded;
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return this.encode();
+	}
+
+}
@@ -0,0 +1,61 @@
+package org.coldis.library.persistence.repository;
+
+import java.util.List;
+
+/**
+ * A slice of a keyset (seek) paginated result (see
+ * {@link PostgresJpaRepository#findSlice(org.springframework.data.jpa.domain.Specification, org.springframework.data.domain.Sort, KeysetCursor, int)}).
+ *
+ * @param <T> Entity type.
+ */
+public class KeysetSlice<T> {
+
+	/**
+	 * Content.
+	 */
+	private final List<T> content;
+
+	/**
+	 * Cursor for the next slice ({@code null} if this is the last one).
+	 */
+	private final KeysetCursor nextCursor;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param content    Content.
+	 * @param nextCursor Cursor for the next slice ({@code null} if this is the last one).
+	 */
+	public KeysetSlice(final List<T> content, final KeysetCursor nextCursor) {
+		this.content = content;
+		this.nextCursor = nextCursor;
+	}
+
+	/**
+	 * Gets the content.
+	 *
+	 * @return The content.
+	 */
+	public List<T> getContent() {
+		return this.content;
+	}
+
+	/**
+	 * Gets the cursor for the next slice.
+	 *
+	 * @return The cursor for the next slice ({@code null} if this is the last one).
+	 */
+	public KeysetCursor getNextCursor() {
+		return this.nextCursor;
+	}
+
+	/**
+	 * Whether there is a next slice.
+	 *
+	 * @return Whether there is a next slice.
+	 */
+	public boolean hasNext() {
+		return this.nextCursor != null;
+	}
+
+}
@@ -0,0 +1,116 @@
+package org.coldis.library.persistence.repository;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Shared scheduling for {@link PostgresJpaRepository#claimLeaseAsync}: retries are timed by one
+ * daemon scheduler thread and every claim attempt runs on its own virtual thread, so any number of
+ * waiters hold no platform thread, carrier thread or connection between attempts.
+ */
+final class LeaseClaimScheduler {
+
+	/** Times the retries (only hands attempts off, never runs them). */
+	private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+			.name("lease-claim-scheduler")
+			.daemon(true)
+			.factory());
+
+	/** Runs the (blocking, JDBC) claim attempts. */
+	private static final ExecutorService ATTEMPTS = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("lease-claim-", 0).factory());
+
+	/**
+	 * No instances.
+	 */
+	private LeaseClaimScheduler() {
+	}
+
+	/**
+	 * Runs {@code attempt} now and then every {@code pollInterval} until it succeeds or {@code maxWait}
+	 * elapses. Cancelling the returned future stops the retries; an attempt that wins after the
+	 * future was cancelled is undone with {@code abandon}, so no lease is left held by nobody.
+	 *
+	 * @param  attempt      Claim attempt.
+	 * @param  abandon      Undoes a claim nobody is waiting for any more.
+	 * @param  pollInterval How long to wait between attempts.
+	 * @param  maxWait      Maximum total time to keep trying.
+	 * @return              Completed with whether the claim succeeded within {@code maxWait}.
+	 */
+	static CompletableFuture<Boolean> schedule(
+			final BooleanSupplier attempt,
+			final Runnable abandon,
+			final Duration pollInterval,
+			final Duration maxWait) {
+		final CompletableFuture<Boolean> result = new CompletableFuture<>();
+		final AtomicReference<Future<?>> pending = new AtomicReference<>();
+		final long deadline = System.nanoTime() + maxWait.toNanos();
+		// Running attempts are not interrupted (the claim may already be committed); only waits are.
+		result.whenComplete((claimed, exception) -> {
+			final Future<?> next = pending.get();
+			if (next != null) {
+				next.cancel(false);
+			}
+		});
+		LeaseClaimScheduler.attempt(attempt, abandon, pollInterval, deadline, result, pending);
+		return result;
+	}
+
+	/**
+	 * Submits one attempt (on a virtual thread), scheduling the next one if it fails.
+	 */
+	private static void attempt(
+			final BooleanSupplier attempt,
+			final Runnable abandon,
+			final Duration pollInterval,
+			final long deadline,
+			final CompletableFuture<Boolean> result,
+			final AtomicReference<Future<?>> pending) {
+		if (!result.isDone()) {
+			LeaseClaimScheduler.track(pending, result, LeaseClaimScheduler.ATTEMPTS.submit(() -> {
+				try {
+					if (attempt.getAsBoolean()) {
+						if (!result.complete(true)) {
+							abandon.run();
+						}
+					}
+					else {
+						final long remaining = deadline - System.nanoTime();
+						if (remaining <= 0L) {
+							result.complete(false);
+						}
+						else {
+							LeaseClaimScheduler.track(pending, result,
+									LeaseClaimScheduler.SCHEDULER.schedule(
+											() -> LeaseClaimScheduler.attempt(attempt, abandon, pollInterval, deadline, result, pending),
+											Math.min(pollInterval.toNanos(), remaining), TimeUnit.NANOSECONDS));
+						}
+					}
+				}
+				catch (final Throwable throwable) {
+					result.completeExceptionally(throwable);
+				}
+			}));
+		}
+	}
+
+	/**
+	 * Tracks the next step so cancelling the result can stop it (also when cancelled concurrently).
+	 */
+	private static void track(
+			final AtomicReference<Future<?>> pending,
+			final CompletableFuture<Boolean> result,
+			final Future<?> next) {
+		pending.set(next);
+		if (result.isDone()) {
+			next.cancel(false);
+		}
+	}
+
+}
@@ -0,0 +1,382 @@
+package org.coldis.library.persistence.repository;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.sql.DataSource;
+
+import org.coldis.library.persistence.configuration.ReplicaRoutingDataSource;
+import org.coldis.library.persistence.configuration.UnpooledConnections;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Push-based lease hand-off for {@link PostgresJpaRepository}, enabled with
+ * {@code org.coldis.configuration.persistence.lease-notification.enabled=true}.
+ *
+ * <p>When enabled, {@link PostgresJpaRepository#releaseLease(Object, String)} issues a
+ * {@code pg_notify} on a channel derived from the entity table and lease column, with the id as the
+ * payload (delivered when the releasing transaction commits). Waiters in
+ * {@link PostgresJpaRepository#awaitLeaseRelease(Object, String, Duration)} block on a future that
+ * is completed by one shared {@code LISTEN} connection per database per JVM, which demultiplexes
+ * notifications by channel and payload — so a waiter wakes within milliseconds of the release
+ * instead of at its next poll, and polls nothing in between.
+ *
+ * <p>The {@code LISTEN} connection is opened outside the pool (see {@link UnpooledConnections}) so
+ * it neither takes a pool slot forever nor trips the pool's leak detection. When it breaks, every
+ * waiter is woken (so it re-checks the lease) and the listener reconnects and re-listens in the
+ * background. A notification can never be the only way out: waiters are always bounded by the
+ * holder's lease expiry.
+ */
+@Component
+public class LeaseNotificationListener implements DisposableBean {
+
+	/**
+	 * Logger.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(LeaseNotificationListener.class);
+
+	/** How long the listener thread blocks on the socket per poll (also bounds how fast new channels are listened). */
+	private static final int POLL_MILLIS = 250;
+
+	/** How long a first waiter on a channel waits for its {@code LISTEN} to be issued. */
+	private static final long SUBSCRIBE_TIMEOUT_MILLIS = 2000L;
+
+	/** Back-off before reconnecting a broken listener connection. */
+	private static final long RECONNECT_MILLIS = 1000L;
+
+	/** Maximum Postgres identifier (channel name) length. */
+	private static final int MAX_CHANNEL_LENGTH = 63;
+
+	/** Whether lease releases notify and waiters listen. */
+	private static volatile boolean ENABLED = false;
+
+	/** One listener (one {@code LISTEN} connection) per database, shared by every repository. */
+	private static final Map<DataSource, DataSourceListener> LISTENERS = new ConcurrentHashMap<>();
+
+	/**
+	 * Sets whether lease notifications are enabled.
+	 *
+	 * @param enabled Whether lease notifications are enabled.
+	 */
+	@Autowired
+	private void setEnabled(
+			@Value("${org.coldis.configuration.persistence.lease-notification.enabled:false}")
+			final Boolean enabled) {
+		LeaseNotificationListener.ENABLED = enabled;
+	}
+
+	/**
+	 * Gets whether lease notifications are enabled.
+	 *
+	 * @return Whether lease notifications are enabled.
+	 */
+	public static boolean isEnabled() {
+		return LeaseNotificationListener.ENABLED;
+	}
+
+	/**
+	 * Gets the notification channel for a lease column (one channel per table and lease column; the
+	 * id travels as the payload, so waiters on any number of rows share a single {@code LISTEN}).
+	 * Names longer than a Postgres identifier are shortened with a hash suffix.
+	 *
+	 * @param  table  Table name.
+	 * @param  column Lease column name.
+	 * @return        The channel name.
+	 */
+	public static String getChannel(
+			final String table,
+			final String column) {
+		final String channel = "lease_" + table + "_" + column;
+		final String suffix = "_" + Integer.toHexString(channel.hashCode());
+		return (channel.length() <= LeaseNotificationListener.MAX_CHANNEL_LENGTH) ? channel
+				: channel.substring(0, LeaseNotificationListener.MAX_CHANNEL_LENGTH - suffix.length()) + suffix;
+	}
+
+	/**
+	 * Registers a waiter for a release notification. Register <em>before</em> re-checking the lease,
+	 * so a release committed in between is not missed.
+	 *
+	 * @param  dataSource Datasource of the lease table's database.
+	 * @param  channel    Channel (see {@link #getChannel(String, String)}).
+	 * @param  payload    Payload (the row id as text).
+	 * @return            The waiter (must be {@linkplain Waiter#cancel() cancelled} when done).
+	 */
+	public static Waiter register(
+			final DataSource dataSource,
+			final String channel,
+			final String payload) {
+		// Notifications are sent by the primary, so a replica-routing datasource listens there.
+		final DataSource primaryDataSource = (dataSource instanceof final ReplicaRoutingDataSource routingDataSource)
+				? routingDataSource.getPrimaryDataSource()
+				: dataSource;
+		return LeaseNotificationListener.LISTENERS.computeIfAbsent(primaryDataSource, DataSourceListener::new).register(channel, payload);
+	}
+
+	/**
+	 * @see org.springframework.beans.factory.DisposableBean#destroy()
+	 */
+	@Override
+	public void destroy() {
+		LeaseNotificationListener.ENABLED = false;
+		LeaseNotificationListener.LISTENERS.values().forEach(DataSourceListener::close);
+		LeaseNotificationListener.LISTENERS.clear();
+	}
+
+	/**
+	 * A registered wait for one (channel, payload) notification.
+	 */
+	public static final class Waiter {
+
+		/** Listener the waiter is registered with. */
+		private final DataSourceListener listener;
+
+		/** Channel. */
+		private final String channel;
+
+		/** Payload. */
+		private final String payload;
+
+		/** Completed on notification (or when the listener connection breaks). */
+		private final CompletableFuture<Void> released;
+
+		/**
+		 * Default constructor.
+		 */
+		private Waiter(final DataSourceListener listener, final String channel, final String payload, final CompletableFuture<Void> released) {
+			this.listener = listener;
+			this.channel = channel;
+			this.payload = payload;
+			this.released = released;
+		}
+
+		/**
+		 * Blocks until notified or {@code timeout} elapses.
+		 *
+		 * @param  timeout              Maximum time to wait.
+		 * @return                      {@code true} if notified (or woken by a listener reconnect).
+		 * @throws InterruptedException If interrupted while waiting.
+		 */
+		public boolean await(
+				final Duration timeout) throws InterruptedException {
+			boolean notified = true;
+			try {
+				this.released.get(Math.max(0L, timeout.toMillis()), TimeUnit.MILLISECONDS);
+			}
+			catch (final TimeoutException exception) {
+				notified = false;
+			}
+			catch (final ExecutionException exception) {
+				// Never completed exceptionally.
+			}
+			return notified;
+		}
+
+		/**
+		 * Unregisters the waiter (idempotent).
+		 */
+		public void cancel() {
+			this.listener.unregister(this.channel, this.payload, this.released);
+		}
+
+	}
+
+	/**
+	 * The shared {@code LISTEN} connection (and its thread) for one database.
+	 */
+	private static final class DataSourceListener implements Runnable {
+
+		/** Datasource. */
+		private final DataSource dataSource;
+
+		/** Waiters by channel and payload (each payload set is only mutated inside map compute calls). */
+		private final Map<String, Map<String, Set<CompletableFuture<Void>>>> waiters = new ConcurrentHashMap<>();
+
+		/** Known channels, each with a future completed once it is listened. */
+		private final Map<String, CompletableFuture<Void>> channels = new ConcurrentHashMap<>();
+
+		/** Channels still to be listened on the current connection. */
+		private final Queue<String> pendingChannels = new ConcurrentLinkedQueue<>();
+
+		/** Listener thread. */
+		private final Thread thread;
+
+		/** Whether the listener is running. */
+		private volatile boolean running = true;
+
+		/** Current connection (only touched by the listener thread). */
+		private Connection connection;
+
+		/**
+		 * Default constructor (starts the listener thread).
+		 *
+		 * @param dataSource Datasource.
+		 */
+		private DataSourceListener(final DataSource dataSource) {
+			this.dataSource = dataSource;
+			this.thread = new Thread(this, "lease-notification-listener");
+			this.thread.setDaemon(true);
+			this.thread.start();
+		}
+
+		/**
+		 * Registers a waiter, making sure its channel is listened first.
+		 */
+		private Waiter register(
+				final String channel,
+				final String payload) {
+			final CompletableFuture<Void> listening = this.channels.computeIfAbsent(channel, name -> {
+				this.pendingChannels.add(name);
+				return new CompletableFuture<>();
+			});
+			final CompletableFuture<Void> released = new CompletableFuture<>();
+			this.waiters.computeIfAbsent(channel, name -> new ConcurrentHashMap<>()).compute(payload, (name, futures) -> {
+				final Set<CompletableFuture<Void>> actualFutures = (futures == null) ? new HashSet<>() : futures;
+				actualFutures.add(released);
+				return actualFutures;
+			});
+			try {
+				listening.get(LeaseNotificationListener.SUBSCRIBE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+			}
+			catch (final InterruptedException exception) {
+				Thread.currentThread().interrupt();
+			}
+			catch (final ExecutionException | TimeoutException exception) {
+				// Not listened yet: the waiter still falls back to the lease expiry.
+			}
+			return new Waiter(this, channel, payload, released);
+		}
+
+		/**
+		 * Unregisters a waiter.
+		 */
+		private void unregister(
+				final String channel,
+				final String payload,
+				final CompletableFuture<Void> released) {
+			final Map<String, Set<CompletableFuture<Void>>> channelWaiters = this.waiters.get(channel);
+			if (channelWaiters != null) {
+				channelWaiters.computeIfPresent(payload, (name, futures) -> {
+					futures.remove(released);
+					return futures.isEmpty() ? null : futures;
+				});
+			}
+		}
+
+		/**
+		 * Wakes every waiter on a (channel, payload).
+		 */
+		private void dispatch(
+				final String channel,
+				final String payload) {
+			final Map<String, Set<CompletableFuture<Void>>> channelWaiters = this.waiters.get(channel);
+			if (channelWaiters != null) {
+				final Set<CompletableFuture<Void>> futures = channelWaiters.remove(payload);
+				if (futures != null) {
+					futures.forEach(future -> future.complete(null));
+				}
+			}
+		}
+
+		/**
+		 * Wakes every waiter (they re-check the lease themselves).
+		 */
+		private void dispatchAll() {
+			this.waiters.forEach((channel, channelWaiters) -> channelWaiters.keySet().forEach(payload -> this.dispatch(channel, payload)));
+		}
+
+		/**
+		 * Opens the listener connection outside the pool.
+		 */
+		private Connection open() throws SQLException {
+			return UnpooledConnections.open(this.dataSource);
+		}
+
+		/**
+		 * Closes the connection (if any), re-queues every channel for the next connection and wakes
+		 * every waiter.
+		 */
+		private void disconnect() {
+			if (this.connection != null) {
+				try {
+					this.connection.close();
+				}
+				catch (final SQLException exception) {
+					LeaseNotificationListener.LOGGER.debug("Could not close lease notification connection.", exception);
+				}
+				this.connection = null;
+			}
+			this.pendingChannels.clear();
+			this.pendingChannels.addAll(this.channels.keySet());
+			this.dispatchAll();
+		}
+
+		/**
+		 * @see java.lang.Runnable#run()
+		 */
+		@Override
+		public void run() {
+			while (this.running) {
+				try {
+					if (this.connection == null) {
+						this.connection = this.open();
+					}
+					String channel;
+					while ((channel = this.pendingChannels.poll()) != null) {
+						try (Statement statement = this.connection.createStatement()) {
+							statement.execute("LISTEN \"" + channel.replace("\"", "\"\"") + "\"");
+						}
+						this.channels.get(channel).complete(null);
+					}
+					final PGNotification[] notifications = this.connection.unwrap(PGConnection.class).getNotifications(LeaseNotificationListener.POLL_MILLIS);
+					if (notifications != null) {
+						for (final PGNotification notification : notifications) {
+							this.dispatch(notification.getName(), notification.getParameter());
+						}
+					}
+				}
+				catch (final SQLException exception) {
+					if (this.running) {
+						LeaseNotificationListener.LOGGER.warn("Lease notification connection failed, reconnecting: " + exception.getLocalizedMessage());
+						LeaseNotificationListener.LOGGER.debug("Lease notification connection failed.", exception);
+						this.disconnect();
+						try {
+							Thread.sleep(LeaseNotificationListener.RECONNECT_MILLIS);
+						}
+						catch (final InterruptedException interruptedException) {
+							this.running = false;
+						}
+					}
+				}
+			}
+			this.disconnect();
+		}
+
+		/**
+		 * Stops the listener (the thread exits within one poll).
+		 */
+		private void close() {
+			this.running = false;
+		}
+
+	}
+
+}
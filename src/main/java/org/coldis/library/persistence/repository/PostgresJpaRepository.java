@@ -2,11 +2,21 @@ package org.coldis.library.persistence.repository;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.coldis.library.helper.DateTimeHelper;
 import org.coldis.library.persistence.LockBehavior;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.repository.NoRepositoryBean;
 
 /**
@@ -24,17 +34,23 @@ import org.springframework.data.repository.NoRepositoryBean;
  * so it is safe to call without a transaction (and won't leak a dirty entity into a later flush
  * under open-session-in-view).
  *
+ * <p>Set-based deletes ({@code DELETE … WHERE}, without loading the entities) come from
+ * {@link JpaSpecificationExecutor#delete(Specification)}; {@link #deleteWhere(Specification, int)}
+ * splits large purges in chunks.
+ *
  * @param <T> Entity type.
  * @param <I> Identifier type.
  */
 @NoRepositoryBean
-public interface PostgresJpaRepository<T, I> extends JpaRepository<T, I> {
+public interface PostgresJpaRepository<T, I> extends JpaRepository<T, I>, JpaSpecificationExecutor<T> {
 
 	/**
 	 * Reads an entity by id with no lock and returns it <em>detached</em>. Use for read-only access:
 	 * the detach guarantees the read has no side effects (no accidental {@code UPDATE} when an
 	 * accessor mutates a mapped field, e.g. an expiration timestamp), even under open-session-in-view
-	 * where the entity would otherwise stay managed for the whole request.
+	 * where the entity would otherwise stay managed for the whole request. Outside a read-write
+	 * transaction it runs in a read-only one, so a unit with read replicas serves it from a replica
+	 * (see {@link org.coldis.library.persistence.configuration.ReplicaRoutingDataSource}).
 	 *
 	 * @param  id Identifier.
 	 * @return    The detached entity, if present.
@@ -54,6 +70,12 @@ public interface PostgresJpaRepository<T, I> extends JpaRepository<T, I> {
 	 * before failing (Postgres {@code lock_timeout}). On expiry the underlying
 	 * {@code LockTimeoutException} surfaces as a Spring {@code PessimisticLockingFailureException}.
 	 *
+	 * <p>The {@code lock_timeout} is only sent when the transaction does not already have that value
+	 * (see {@link TransactionSettings}). With
+	 * {@code org.coldis.configuration.persistence.lock-timeout.inline=true} it is set by the locking
+	 * statement itself, so a bounded lock costs a single round-trip (single-table entities only;
+	 * others keep the two-statement path).
+	 *
 	 * @param  id      Identifier.
 	 * @param  timeout Maximum time to wait for the lock.
 	 * @return         The locked entity, if present.
@@ -88,6 +110,30 @@ public interface PostgresJpaRepository<T, I> extends JpaRepository<T, I> {
 	 */
 	Optional<T> findByIdForShare(I id);
 
+	/**
+	 * Locks every row in {@code ids} in a single statement ({@code SELECT … WHERE id IN (…) ORDER BY
+	 * id FOR UPDATE [SKIP LOCKED | NOWAIT]}) instead of one round-trip per row. Rows are locked in id
+	 * order, so two concurrent batches with overlapping ids always take their locks in the same order
+	 * and cannot deadlock on each other.
+	 *
+	 * <p>Behaviors map as in {@link #findById(Object, LockBehavior, Duration)}:
+	 * {@link LockBehavior#LOCK_SKIP} returns only the rows that were actually locked (rows held
+	 * elsewhere are silently left out), {@link LockBehavior#LOCK_FAIL_FAST} fails the whole statement
+	 * (Spring {@code PessimisticLockingFailureException}) if any row is held, and
+	 * {@link LockBehavior#WAIT_AND_LOCK} (or {@code null}) waits — bounded by {@code timeout} when
+	 * non-null. {@link LockBehavior#NO_LOCK} reads the rows with no lock and returns them detached.
+	 *
+	 * @param  ids      Identifiers (absent ids are simply not returned).
+	 * @param  behavior Lock behavior.
+	 * @param  timeout  Bounded wait for {@code WAIT_AND_LOCK}; ignored by the other behaviors and may
+	 *                      be {@code null}.
+	 * @return          The locked entities, ordered by id.
+	 */
+	List<T> findAllByIdForUpdate(
+			Collection<I> ids,
+			LockBehavior behavior,
+			Duration timeout);
+
 	/**
 	 * Sets the transaction-local Postgres {@code lock_timeout} (applies to subsequent {@code FOR
 	 * UPDATE} statements in this transaction).
@@ -147,11 +193,287 @@ public interface PostgresJpaRepository<T, I> extends JpaRepository<T, I> {
 	 */
 	void releaseLease(I id, String leaseAttribute);
 
+	/**
+	 * Bulk {@link #claimLease(Object, String, Duration)}: claims the lease on every row in {@code ids}
+	 * whose lease is free, in a single {@code UPDATE … WHERE id IN (…) AND (lease IS NULL OR lease <
+	 * now) RETURNING id} statement, instead of one round-trip per id. Rows with a live lease (and
+	 * absent ids) are left out of the result.
+	 *
+	 * <p>{@code leaseAttribute} is whitelisted against the entity metamodel. Requires a
+	 * single-attribute id.
+	 *
+	 * @param  ids            Identifiers.
+	 * @param  leaseAttribute Name of the entity's lease (timestamp) attribute.
+	 * @param  lease          How long to hold the leases.
+	 * @return                The ids whose lease was actually claimed.
+	 */
+	Set<I> claimLeases(
+			Collection<I> ids,
+			String leaseAttribute,
+			Duration lease);
+
+	/**
+	 * Bulk {@link #releaseLease(Object, String)}: clears the lease of every row in {@code ids} in a
+	 * single statement (idempotent). {@code leaseAttribute} is whitelisted against the entity
+	 * metamodel.
+	 *
+	 * @param ids            Identifiers.
+	 * @param leaseAttribute Name of the entity's lease (timestamp) attribute.
+	 */
+	void releaseLeases(
+			Collection<I> ids,
+			String leaseAttribute);
+
+	/**
+	 * Work-queue claim: locks up to {@code limit} rows matching {@code specification} (in
+	 * {@code sort} order) with a single {@code SELECT … FOR UPDATE SKIP LOCKED LIMIT n}. Rows already
+	 * locked by another transaction are skipped rather than waited on, so many workers (or nodes) can
+	 * drain the same table in parallel, each taking a disjoint batch, without a separate id scan.
+	 *
+	 * <p>The rows stay locked until the caller's transaction ends.
+	 *
+	 * @param  specification Claim predicate ({@code null} for every row).
+	 * @param  sort          Claim order ({@code null} for unsorted).
+	 * @param  limit         Maximum number of rows to claim.
+	 * @return               The claimed (locked) entities; empty when nothing is claimable.
+	 */
+	List<T> claimBatch(
+			Specification<T> specification,
+			Sort sort,
+			int limit);
+
+	/**
+	 * Work-queue claim with a lease: as {@link #claimBatch(Specification, Sort, int)}, but only rows
+	 * with no live lease ({@code leaseAttribute} null or in the past) are claimed, and each claimed
+	 * row's {@code leaseAttribute} is stamped with {@code now + lease} by a single bulk
+	 * {@code UPDATE … WHERE id IN (…)} right after the claim (two statements per batch, whatever its
+	 * size; the returned entities carry the stamp and are not left dirty by it). The stamp is written
+	 * while the row locks still guard it, so once the caller's transaction commits the lease keeps
+	 * other claimers away from rows that are still being worked on — the same contract as
+	 * {@link #claimLease(Object, String, Duration)}, for a whole batch.
+	 *
+	 * <p>{@code leaseAttribute} is whitelisted against the entity metamodel, as for
+	 * {@link #claimLease(Object, String, Duration)}.
+	 *
+	 * @param  specification  Claim predicate ({@code null} for every row).
+	 * @param  sort           Claim order ({@code null} for unsorted).
+	 * @param  limit          Maximum number of rows to claim.
+	 * @param  leaseAttribute Name of the entity's lease (timestamp) attribute.
+	 * @param  lease          How long to hold the lease.
+	 * @return                The claimed (locked and leased) entities; empty when nothing is claimable.
+	 */
+	List<T> claimBatch(
+			Specification<T> specification,
+			Sort sort,
+			int limit,
+			String leaseAttribute,
+			Duration lease);
+
+	/**
+	 * Streams every row matching {@code specification} through a server-side cursor: rows are fetched
+	 * {@code fetchSize} at a time (Postgres only honors the JDBC fetch size with autocommit off, i.e.
+	 * inside a transaction), loaded read-only and detached as they are handed out, so memory stays
+	 * bounded however many rows there are.
+	 *
+	 * <p>MUST be called, and the stream consumed and closed (try-with-resources), inside the caller's
+	 * transaction — a read-only one is enough; without one an {@code IllegalTransactionStateException}
+	 * is thrown. Entities are detached (lazy associations are not available).
+	 *
+	 * @param  specification Filter ({@code null} for every row).
+	 * @param  fetchSize     Rows fetched per round-trip.
+	 * @return               The (detached) entities.
+	 */
+	Stream<T> streamAll(
+			Specification<T> specification,
+			int fetchSize);
+
+	/**
+	 * Visits every row matching {@code specification} in {@code sort} order, {@code chunkSize} rows
+	 * at a time, with keyset (seek) paging: each chunk continues after the last row of the previous
+	 * one ({@code WHERE (sort columns) > (last values)}), so every chunk costs the same, unlike
+	 * {@code OFFSET} paging. The id is appended to the sort as a tie-breaker when missing.
+	 *
+	 * <p>Each chunk is detached once the consumer returns (after a flush, unless the transaction is
+	 * read-only), so memory stays bounded. Sort attributes must be non-null, direct attributes of the
+	 * entity. MUST be called inside the caller's transaction (a read-only one is enough when the
+	 * consumer does not write); without one an {@code IllegalTransactionStateException} is thrown.
+	 *
+	 * @param specification Filter ({@code null} for every row).
+	 * @param sort          Visit order ({@code null} for id order).
+	 * @param chunkSize     Rows per chunk.
+	 * @param consumer      Chunk consumer.
+	 */
+	void forEachChunk(
+			Specification<T> specification,
+			Sort sort,
+			int chunkSize,
+			Consumer<List<T>> consumer);
+
+	/**
+	 * Keyset (seek) pagination: returns up to {@code size} rows matching {@code specification} that
+	 * come after {@code after} ({@code WHERE (sort columns) > (cursor values)}), plus the cursor for
+	 * the next slice. Unlike {@code OFFSET} paging, a deep slice costs the same as the first one (given
+	 * an index on the sort columns).
+	 *
+	 * <p>The first slice ({@code after} {@code null}) uses {@code sort} (with the id appended as a
+	 * tie-breaker when missing; {@code null} for id order); the following ones use the sort carried
+	 * by the cursor, so clients only pass the cursor back. Sort attributes must be non-null, direct
+	 * attributes of the entity.
+	 *
+	 * @param  specification Filter ({@code null} for every row).
+	 * @param  sort          Sort of the first slice ({@code null} for id order; ignored with a cursor).
+	 * @param  after         Cursor of the previous slice ({@code null} for the first slice).
+	 * @param  size          Slice size.
+	 * @return               The slice.
+	 */
+	KeysetSlice<T> findSlice(
+			Specification<T> specification,
+			Sort sort,
+			KeysetCursor after,
+			int size);
+
+	/**
+	 * Keyset (seek) pagination in id order (or in the cursor's order). See
+	 * {@link #findSlice(Specification, Sort, KeysetCursor, int)}.
+	 *
+	 * @param  specification Filter ({@code null} for every row).
+	 * @param  after         Cursor of the previous slice ({@code null} for the first slice).
+	 * @param  size          Slice size.
+	 * @return               The slice.
+	 */
+	default KeysetSlice<T> findSlice(
+			final Specification<T> specification,
+			final KeysetCursor after,
+			final int size) {
+		return this.findSlice(specification, null, after, size);
+	}
+
+	/**
+	 * High-throughput {@code saveAll}: persists new entities and merges existing ones with JDBC
+	 * statement batching turned on for the current session ({@code batchSize} statements per
+	 * round-trip; {@code hibernate.jdbc.batch_size} is {@code 0} by default), flushing and clearing
+	 * the persistence context every {@code batchSize} entities so memory stays bounded. With the
+	 * default {@code hibernate.order_inserts/order_updates} and the driver's
+	 * {@code reWriteBatchedInserts}, each batch of inserts becomes a multi-row {@code VALUES}
+	 * statement; sequence ids come from the pooled optimizer (no round-trip per id).
+	 *
+	 * <p>Runs in (or joins) a transaction. The whole persistence context is flushed and cleared, so
+	 * the returned entities, and any other entity the caller had loaded, end up detached.
+	 *
+	 * @param  <S>       Entity type.
+	 * @param  entities  Entities to save.
+	 * @param  batchSize Statements per JDBC batch (and entities per flush/clear).
+	 * @return           The saved (detached) entities.
+	 */
+	<S extends T> List<S> saveAllBatched(
+			Iterable<S> entities,
+			int batchSize);
+
+	/**
+	 * Bulk load with Postgres {@code COPY … FROM STDIN}: streams every entity as a row straight into
+	 * the table through the driver's copy API, orders of magnitude faster than row inserts, for data
+	 * migrations and history backfills. Columns are the entity's insertable columns, as on a regular
+	 * insert: basic attributes (through their converters, e.g. the JSONB converters), embedded
+	 * attributes' columns and the foreign keys of owned to-one associations. Only entities mapped to
+	 * a single table are supported (no inheritance or secondary tables); others are rejected with an
+	 * {@link org.springframework.dao.InvalidDataAccessApiUsageException}.
+	 *
+	 * <p>Memory stays bounded: entities are pulled from the stream one at a time and written in small
+	 * chunks, and each write blocks while the server is not keeping up (backpressure). Null ids are
+	 * generated with the entity's id generator, except identity ids, which are left to the database
+	 * (and not set on the entities); timestamps are set as on persist; other
+	 * {@code @PrePersist} callbacks do not run. The entities are not made managed. Runs in (or joins)
+	 * a transaction; a failed copy rolls it back.
+	 *
+	 * @param  <S>      Entity type.
+	 * @param  entities Entities to load.
+	 * @return          Number of rows copied.
+	 */
+	<S extends T> long bulkCopy(
+			Stream<S> entities);
+
+	/**
+	 * Set-based update: sets {@code values} (attribute name to value) on every row matching
+	 * {@code specification} with a single {@code UPDATE … SET … WHERE} statement, without loading the
+	 * entities. Attribute names are resolved against the entity metamodel (unknown names are
+	 * rejected).
+	 *
+	 * <p>Like any bulk statement, it bypasses the persistence context, entity callbacks and
+	 * {@code updatedAt} stamping (include it in {@code values} if needed).
+	 *
+	 * @param  specification Filter ({@code null} for every row).
+	 * @param  values        Values by attribute name.
+	 * @return               Number of updated rows.
+	 */
+	long updateWhere(
+			Specification<T> specification,
+			Map<String, Object> values);
+
+	/**
+	 * One chunk of a chunked delete: locks up to {@code chunkSize} rows matching
+	 * {@code specification} ({@code FOR UPDATE SKIP LOCKED}, by primary key) and deletes them, so the
+	 * statement holds few locks and never waits on rows other transactions are using.
+	 *
+	 * @param  specification Filter ({@code null} for every row).
+	 * @param  chunkSize     Maximum number of rows to delete.
+	 * @return               Number of deleted rows.
+	 */
+	long deleteWhereChunk(
+			Specification<T> specification,
+			int chunkSize);
+
+	/**
+	 * Chunked set-based delete: runs {@link #deleteWhereChunk(Specification, int)} until a chunk comes
+	 * back short, so a huge purge is split in many short transactions (each one committing its chunk)
+	 * instead of one long transaction holding every lock and the whole WAL volume.
+	 *
+	 * <p>MUST be called outside an ambient transaction (otherwise every chunk joins it and nothing is
+	 * gained). Rows locked by other transactions are skipped, and may be left for a later run.
+	 *
+	 * @param  specification Filter ({@code null} for every row).
+	 * @param  chunkSize     Rows per chunk (and transaction).
+	 * @return               Total number of deleted rows.
+	 */
+	default long deleteWhere(
+			final Specification<T> specification,
+			final int chunkSize) {
+		long total = 0;
+		long deleted;
+		do {
+			deleted = this.deleteWhereChunk(specification, chunkSize);
+			total += deleted;
+		}
+		while (deleted >= chunkSize);
+		return total;
+	}
+
+	/**
+	 * Waits (holding no transaction or connection) until the lease on {@code id} may be free: returns
+	 * when the holder releases it, when it expires, or after {@code maxWait}, whichever comes first.
+	 * Returns immediately if the lease is not held.
+	 *
+	 * <p>With {@code org.coldis.configuration.persistence.lease-notification.enabled=true} the wake-up
+	 * is pushed by the releasing transaction (see {@link LeaseNotificationListener}); otherwise this
+	 * simply sleeps for {@code maxWait}. Either way the caller must re-try the claim, since another
+	 * waiter may win it.
+	 *
+	 * @param  id                   Identifier.
+	 * @param  leaseAttribute       Name of the entity's lease (timestamp) attribute.
+	 * @param  maxWait              Maximum time to wait.
+	 * @throws InterruptedException If interrupted while waiting.
+	 */
+	void awaitLeaseRelease(
+			I id,
+			String leaseAttribute,
+			Duration maxWait) throws InterruptedException;
+
 	/**
 	 * Bounded poll-to-claim: tries {@link #claimLease(Object, String, Duration)} immediately, then
 	 * retries every {@code pollInterval} until it succeeds or {@code maxWait} elapses. Each attempt is
 	 * its own short transaction and the waits hold no transaction or connection, so a waiter ties up
-	 * no DB resources while another worker holds the lease.
+	 * no DB resources while another worker holds the lease. Between attempts it waits with
+	 * {@link #awaitLeaseRelease(Object, String, Duration)}, so with lease notifications enabled it
+	 * retries as soon as the holder releases rather than at the next poll.
 	 *
 	 * <p>MUST be called outside an ambient transaction (otherwise the inherited transaction would stay
 	 * open across the sleeps). Returns as soon as the holder releases or its lease expires (the actual
@@ -174,7 +496,7 @@ public interface PostgresJpaRepository<T, I> extends JpaRepository<T, I> {
 		boolean claimed = this.claimLease(id, leaseAttribute, lease);
 		while (!claimed && DateTimeHelper.getCurrentLocalDateTime().isBefore(deadline)) {
 			try {
-				Thread.sleep(pollInterval.toMillis());
+				this.awaitLeaseRelease(id, leaseAttribute, pollInterval);
 			}
 			catch (final InterruptedException exception) {
 				Thread.currentThread().interrupt();
@@ -185,6 +507,35 @@ public interface PostgresJpaRepository<T, I> extends JpaRepository<T, I> {
 		return claimed;
 	}
 
+	/**
+	 * Asynchronous {@link #claimLease(Object, String, Duration, Duration, Duration)}: tries the claim
+	 * immediately, then every {@code pollInterval} until it succeeds or {@code maxWait} elapses,
+	 * without blocking the caller. Retries are timed by a shared scheduler and each attempt is its own
+	 * short transaction on a virtual thread, so thousands of concurrent waiters hold no carrier thread
+	 * or connection between attempts.
+	 *
+	 * <p>Cancelling the returned future stops the retries. If an in-flight attempt wins the lease
+	 * after cancellation, the lease is released again. As with the blocking variant, the caller is
+	 * not expected to be in a transaction (attempts never join one).
+	 *
+	 * @param  id             Identifier.
+	 * @param  leaseAttribute Name of the entity's lease (timestamp) attribute.
+	 * @param  lease          How long to hold the lease once claimed.
+	 * @param  pollInterval   How long to wait between claim attempts.
+	 * @param  maxWait        Maximum total time to keep trying.
+	 * @return                Completed with {@code true} if the lease was claimed within {@code maxWait};
+	 *                            {@code false} otherwise.
+	 */
+	default CompletableFuture<Boolean> claimLeaseAsync(
+			final I id,
+			final String leaseAttribute,
+			final Duration lease,
+			final Duration pollInterval,
+			final Duration maxWait) {
+		return LeaseClaimScheduler.schedule(() -> this.claimLease(id, leaseAttribute, lease), () -> this.releaseLease(id, leaseAttribute),
+				pollInterval, maxWait);
+	}
+
 	/**
 	 * Reads the row by id with the given {@link LockBehavior}. Dispatches to the matching
 	 * {@code findByIdFor…} method; for {@link LockBehavior#WAIT_AND_LOCK} a non-null {@code timeout}
@@ -238,8 +589,8 @@ public interface PostgresJpaRepository<T, I> extends JpaRepository<T, I> {
 	 *
 	 * <p>The {@code idempotentInsert} MUST be an {@code INSERT … ON CONFLICT DO NOTHING} so it never
 	 * throws — a throwing insert would abort the transaction on the create race and make the re-read
-	 * impossible on Postgres. The insert stays with the caller because a generic {@code ON CONFLICT}
-	 * cannot be built without entity-specific column knowledge.
+	 * impossible on Postgres. For a generic insert built from the entity mapping, see
+	 * {@link #findByIdForUpdateOrCreate(Object, boolean)}.
 	 *
 	 * @param  id              Identifier.
 	 * @param  idempotentInsert Idempotent ({@code ON CONFLICT DO NOTHING}) insert for {@code id}.
@@ -273,4 +624,39 @@ public interface PostgresJpaRepository<T, I> extends JpaRepository<T, I> {
 		return entity;
 	}
 
+	/**
+	 * Find-or-create under the row lock, race-safe — <em>optimistic</em> (find first). Shorthand for
+	 * {@link #findByIdForUpdateOrCreate(Object, boolean)} with {@code insertFirst = false}.
+	 *
+	 * @param  prototype Entity to create if absent (with an assigned id).
+	 * @return           The existing or freshly created, locked entity.
+	 */
+	default T findByIdForUpdateOrCreate(
+			final T prototype) {
+		return this.findByIdForUpdateOrCreate(prototype, false);
+	}
+
+	/**
+	 * Find-or-create under the row lock, race-safe, with no entity-specific SQL from the caller: the
+	 * idempotent insert is an {@code INSERT … ON CONFLICT DO NOTHING} built from the entity mapping
+	 * with the prototype's non-null columns (basic, embedded and to-one attributes alike; other columns
+	 * take their defaults), followed by a single locking read. So a cold row costs two statements and an existing one costs
+	 * one (or two with {@code insertFirst}), as for
+	 * {@link #findByIdForUpdateOrCreate(Object, Runnable, boolean)}.
+	 *
+	 * <p>The prototype must have an assigned, single-attribute id, and the entity must be mapped to a
+	 * single table; a prototype with collection values is refused
+	 * ({@code InvalidDataAccessApiUsageException}) rather than inserted without them. The inserted
+	 * creation/update timestamps are set as on persist (the prototype itself is not changed); other
+	 * {@code @PrePersist} callbacks do not run (the insert is a bulk statement). The prototype itself is never made managed: the returned entity is the locked,
+	 * managed row (the prototype's values if it was created, the existing ones otherwise).
+	 *
+	 * @param  prototype   Entity to create if absent (with an assigned id).
+	 * @param  insertFirst Strategy (see {@link #findByIdForUpdateOrCreate(Object, Runnable, boolean)}).
+	 * @return             The existing or freshly created, locked entity.
+	 */
+	T findByIdForUpdateOrCreate(
+			T prototype,
+			boolean insertFirst);
+
 }
@@ -1,18 +1,75 @@
 package org.coldis.library.persistence.repository;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
 
 import org.coldis.library.helper.DateTimeHelper;
+import org.coldis.library.model.Timestampable;
+import org.coldis.library.persistence.LockBehavior;
+import org.coldis.library.persistence.model.EntityTimestampListener;
+import org.hibernate.Session;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.Generator;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.metamodel.mapping.AttributeMapping;
+import org.hibernate.metamodel.mapping.ModelPart.JdbcValueConsumer;
+import org.hibernate.metamodel.mapping.SelectableConsumer;
+import org.hibernate.metamodel.mapping.SelectableMapping;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.SqlTypes;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.support.JpaEntityInformation;
 import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.FlushModeType;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceException;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.EntityType;
 
 /**
  * Default {@link PostgresJpaRepository} implementation, used as the Spring Data repository base
@@ -40,6 +97,21 @@ public class PostgresJpaRepositoryImpl<T, I> extends SimpleJpaRepository<T, I> i
 	/** Hibernate special lock-timeout value: {@code FOR UPDATE SKIP LOCKED}. */
 	private static final int SKIP_LOCKED = -2;
 
+	/** Lock timeout GUC. */
+	private static final String LOCK_TIMEOUT = "lock_timeout";
+
+	/** Statement timeout GUC. */
+	private static final String STATEMENT_TIMEOUT = "statement_timeout";
+
+	/** {@link Timestampable} creation attribute. */
+	private static final String CREATED_AT = "createdAt";
+
+	/** {@link Timestampable} update attribute. */
+	private static final String UPDATED_AT = "updatedAt";
+
+	/** Bytes buffered before each {@code COPY} write. */
+	private static final int COPY_CHUNK_SIZE = 64 * 1024;
+
 	/** Entity manager. */
 	private final EntityManager entityManager;
 
@@ -49,6 +121,21 @@ public class PostgresJpaRepositoryImpl<T, I> extends SimpleJpaRepository<T, I> i
 	/** Entity type. */
 	private final Class<T> domainClass;
 
+	/** Lease statements by (requested) lease attribute name, built once per attribute. */
+	private final Map<String, LeaseStatements> leaseStatements = new ConcurrentHashMap<>();
+
+	/** Batch locking query ({@code SELECT … WHERE id IN :ids ORDER BY id}). */
+	private final String findAllByIdQuery;
+
+	/** Single-statement bounded lock (resolved lazily, once; empty when unsupported by the mapping). */
+	private volatile Optional<String> inlineLockQuery;
+
+	/** Entity persister (resolved lazily, once). */
+	private volatile EntityPersister entityPersister;
+
+	/** Datasource (resolved lazily, once). */
+	private volatile DataSource dataSource;
+
 	/**
 	 * Default constructor (matches the signature Spring Data uses to instantiate the base class).
 	 *
@@ -62,12 +149,16 @@ public class PostgresJpaRepositoryImpl<T, I> extends SimpleJpaRepository<T, I> i
 		this.entityManager = entityManager;
 		this.entityInformation = entityInformation;
 		this.domainClass = entityInformation.getJavaType();
+		final String idAttribute = entityInformation.getIdAttribute().getName();
+		this.findAllByIdQuery = "SELECT entity FROM " + entityInformation.getEntityName() + " entity WHERE entity." + idAttribute
+				+ " IN :ids ORDER BY entity." + idAttribute;
 	}
 
 	/**
 	 * @see org.coldis.library.persistence.repository.PostgresJpaRepository#findByIdForRead(java.lang.Object)
 	 */
 	@Override
+	@Transactional(readOnly = true)
 	public Optional<T> findByIdForRead(
 			final I id) {
 		final T entity = this.entityManager.find(this.domainClass, id);
@@ -96,8 +187,30 @@ public class PostgresJpaRepositoryImpl<T, I> extends SimpleJpaRepository<T, I> i
 	public Optional<T> findByIdForUpdateWait(
 			final I id,
 			final Duration timeout) {
-		this.setLockTimeout(timeout);
-		return Optional.ofNullable(this.entityManager.find(this.domainClass, id, LockModeType.PESSIMISTIC_WRITE));
+		final String value = PostgresJpaRepositoryImpl.toMillis(timeout);
+		final String inlineQuery = TransactionSettings.isInlineLockTimeout() && !TransactionSettings.isApplied(this.getUnit(), LOCK_TIMEOUT, value)
+				? this.getInlineLockQuery()
+				: null;
+		final T entity;
+		if (inlineQuery != null) {
+			// One round-trip: the timeout is set by the locking statement itself, on the matched row,
+			// before the row lock is requested. No auto-flush either (see setConfig): a flushed UPDATE
+			// would wait on the row lock without the timeout.
+			final List<?> entities = this.entityManager.createNativeQuery(inlineQuery, this.domainClass)
+					.setParameter("id", id)
+					.setParameter("value", value)
+					.setFlushMode(FlushModeType.COMMIT)
+					.getResultList();
+			entity = entities.isEmpty() ? null : this.domainClass.cast(entities.get(0));
+			if (entity != null) {
+				TransactionSettings.applied(this.getUnit(), LOCK_TIMEOUT, value);
+			}
+		}
+		else {
+			this.setLockTimeout(timeout);
+			entity = this.entityManager.find(this.domainClass, id, LockModeType.PESSIMISTIC_WRITE);
+		}
+		return Optional.ofNullable(entity);
 	}
 
 	/**
@@ -132,6 +245,400 @@ public class PostgresJpaRepositoryImpl<T, I> extends SimpleJpaRepository<T, I> i
 		return Optional.ofNullable(this.entityManager.find(this.domainClass, id, LockModeType.PESSIMISTIC_READ));
 	}
 
+	/**
+	 * @see org.coldis.library.persistence.repository.PostgresJpaRepository#findAllByIdForUpdate(java.util.Collection,
+	 *      org.coldis.library.persistence.LockBehavior, java.time.Duration)
+	 */
+	@Override
+	@Transactional
+	public List<T> findAllByIdForUpdate(
+			final Collection<I> ids,
+			final LockBehavior behavior,
+			final Duration timeout) {
+		final List<T> entities = new ArrayList<>();
+		if ((ids != null) && !ids.isEmpty()) {
+			final TypedQuery<T> query = this.entityManager.createQuery(this.findAllByIdQuery, this.domainClass).setParameter("ids", ids);
+			if (LockBehavior.NO_LOCK.equals(behavior)) {
+				entities.addAll(query.getResultList());
+				entities.forEach(this.entityManager::detach);
+			}
+			else {
+				query.setLockMode(LockModeType.PESSIMISTIC_WRITE);
+				if (LockBehavior.LOCK_SKIP.equals(behavior)) {
+					query.setHint(LOCK_TIMEOUT_HINT, SKIP_LOCKED);
+				}
+				else if (LockBehavior.LOCK_FAIL_FAST.equals(behavior)) {
+					query.setHint(LOCK_TIMEOUT_HINT, NO_WAIT);
+				}
+				else if (timeout != null) {
+					this.setLockTimeout(timeout);
+				}
+				entities.addAll(query.getResultList());
+			}
+		}
+		return entities;
+	}
+
+	/**
+	 * @see org.coldis.library.persistence.repository.PostgresJpaRepository#findByIdForUpdateOrCreate(java.lang.Object,
+	 *      boolean)
+	 */
+	@Override
+	@Transactional
+	@SuppressWarnings("unchecked")
+	public T findByIdForUpdateOrCreate(
+			final T prototype,
+			final boolean insertFirst) {
+		final I id = (I) this.entityInformation.getId(prototype);
+		if (this.entityInformation.hasCompositeId() || (id == null)) {
+			throw new IllegalArgumentException("Find-or-create requires an assigned single-attribute id: " + this.entityInformation.getEntityName());
+		}
+		return this.findByIdForUpdateOrCreate(id, () -> this.insertIfAbsent(id, prototype), insertFirst);
+	}
+
+	/**
+	 * Inserts the prototype's row unless its id already exists ({@code INSERT … ON CONFLICT DO
+	 * NOTHING}, so the create race never aborts the transaction), from the non-null columns of its id
+	 * and singular attributes (basic, embedded and to-one alike, read from the mapping model as on a
+	 * regular insert). The creation/update timestamps are set on the insert only: the prototype is not
+	 * changed.
+	 *
+	 * @param  id                                 Identifier.
+	 * @param  prototype                          Entity prototype.
+	 * @throws InvalidDataAccessApiUsageException If the entity spans several tables, or the prototype
+	 *                                                has values the insert cannot write (collections).
+	 */
+	private void insertIfAbsent(
+			final I id,
+			final T prototype) {
+		final AbstractEntityPersister persister = (AbstractEntityPersister) this.getEntityPersister();
+		if (persister.isInherited() || persister.getEntityMetamodel().hasSubclasses() || (persister.getTableSpan() != 1)) {
+			throw new InvalidDataAccessApiUsageException(
+					"Find-or-create from a prototype supports entities mapped to a single table only (no inheritance or secondary tables): "
+							+ persister.getEntityName());
+		}
+		final SharedSessionContractImplementor session = this.entityManager.unwrap(SharedSessionContractImplementor.class);
+		final AttributeMapping versionAttribute = persister.isVersioned() ? persister.getVersionMapping().getVersionAttribute() : null;
+		final LocalDateTime now = DateTimeHelper.getCurrentLocalDateTime();
+		final List<SelectableMapping> columns = new ArrayList<>();
+		final List<Object> values = new ArrayList<>();
+		final JdbcValueConsumer addValue = (index, value, selectable) -> {
+			if ((value != null) && PostgresJpaRepositoryImpl.isCopied(selectable)) {
+				columns.add(selectable);
+				values.add(value);
+			}
+		};
+		persister.getIdentifierMapping().breakDownJdbcValues(id, addValue, session);
+		persister.forEachAttributeMapping(attribute -> {
+			final Object value = PostgresJpaRepositoryImpl.getInsertValue(persister, prototype, attribute, now);
+			if (attribute.isPluralAttributeMapping()) {
+				// Collections live in other tables: refused rather than silently dropped.
+				if ((value instanceof final Collection<?> collection) ? !collection.isEmpty()
+						: ((value instanceof final Map<?, ?> map) ? !map.isEmpty() : (value != null))) {
+					throw new InvalidDataAccessApiUsageException("Find-or-create from a prototype cannot insert collection attribute "
+							+ persister.getEntityName() + "." + attribute.getAttributeName());
+				}
+			}
+			else if (attribute != versionAttribute) {
+				attribute.breakDownJdbcValues(value, addValue, session);
+			}
+		});
+		final StringBuilder insert = new StringBuilder("INSERT INTO ").append(persister.getTableName()).append(" (");
+		for (int index = 0; index < columns.size(); index++) {
+			insert.append((index == 0) ? "" : ", ").append(columns.get(index).getSelectionExpression());
+		}
+		insert.append(") VALUES (");
+		for (int index = 0; index < columns.size(); index++) {
+			insert.append((index == 0) ? "" : ", ").append(columns.get(index).getWriteExpression() == null ? "?" : columns.get(index).getWriteExpression());
+		}
+		insert.append(") ON CONFLICT DO NOTHING");
+		// Pending changes go first, as for any other statement.
+		this.entityManager.flush();
+		session.doWork(connection -> {
+			try (PreparedStatement statement = connection.prepareStatement(insert.toString())) {
+				for (int index = 0; index < columns.size(); index++) {
+					// Bound as on a regular insert (values are already converted to their relational form).
+					columns.get(index).getJdbcMapping().getJdbcValueBinder().bind(statement, values.get(index), index + 1, session);
+				}
+				statement.executeUpdate();
+			}
+		});
+	}
+
+	/**
+	 * Gets the value of a prototype attribute to insert: the timestamps of a {@link Timestampable}
+	 * are set as on persist (without changing the prototype).
+	 *
+	 * @param  persister Entity persister.
+	 * @param  prototype Entity prototype.
+	 * @param  attribute Attribute.
+	 * @param  now       Current date/time.
+	 * @return           The value to insert.
+	 */
+	private static Object getInsertValue(
+			final EntityPersister persister,
+			final Object prototype,
+			final AttributeMapping attribute,
+			final LocalDateTime now) {
+		Object value = persister.getPropertyValue(prototype, attribute.getAttributeName());
+		if (prototype instanceof final Timestampable timestampable) {
+			if (PostgresJpaRepositoryImpl.UPDATED_AT.equals(attribute.getAttributeName())) {
+				value = now;
+			}
+			else if (PostgresJpaRepositoryImpl.CREATED_AT.equals(attribute.getAttributeName()) && (timestampable.getCreatedAt() == null)) {
+				value = now;
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * @see org.coldis.library.persistence.repository.PostgresJpaRepository#saveAllBatched(java.lang.Iterable,
+	 *      int)
+	 */
+	@Override
+	@Transactional
+	public <S extends T> List<S> saveAllBatched(
+			final Iterable<S> entities,
+			final int batchSize) {
+		final List<S> saved = new ArrayList<>();
+		final Session session = this.entityManager.unwrap(Session.class);
+		final Integer previousBatchSize = session.getJdbcBatchSize();
+		session.setJdbcBatchSize(batchSize);
+		try {
+			int pending = 0;
+			for (final S entity : entities) {
+				if (this.entityInformation.isNew(entity)) {
+					this.entityManager.persist(entity);
+					saved.add(entity);
+				}
+				else {
+					saved.add(this.entityManager.merge(entity));
+				}
+				pending++;
+				if (pending == batchSize) {
+					this.entityManager.flush();
+					this.entityManager.clear();
+					pending = 0;
+				}
+			}
+			this.entityManager.flush();
+			this.entityManager.clear();
+		}
+		finally {
+			session.setJdbcBatchSize(previousBatchSize);
+		}
+		return saved;
+	}
+
+	/**
+	 * @see org.coldis.library.persistence.repository.PostgresJpaRepository#bulkCopy(java.util.stream.Stream)
+	 */
+	@Override
+	@Transactional
+	public <S extends T> long bulkCopy(
+			final Stream<S> entities) {
+		final AbstractEntityPersister persister = (AbstractEntityPersister) this.getEntityPersister();
+		if (persister.isInherited() || persister.getEntityMetamodel().hasSubclasses() || (persister.getTableSpan() != 1)) {
+			throw new InvalidDataAccessApiUsageException(
+					"bulkCopy supports entities mapped to a single table only (no inheritance or secondary tables): " + persister.getEntityName());
+		}
+		// Pending changes go first, so the copy sees (and is seen in) a consistent order.
+		this.entityManager.flush();
+		final SharedSessionContractImplementor session = this.entityManager.unwrap(SharedSessionContractImplementor.class);
+		final Generator idGenerator = persister.getGenerator();
+		// Ids generated by the insert itself (identity columns) are left to the database.
+		final boolean copyId = (idGenerator == null) || !idGenerator.generatedOnExecution();
+		final List<AttributeMapping> attributes = new ArrayList<>();
+		persister.forEachAttributeMapping(attribute -> {
+			if (!attribute.isPluralAttributeMapping()) {
+				attributes.add(attribute);
+			}
+		});
+		final List<String> columns = new ArrayList<>();
+		final SelectableConsumer addColumn = (index, selectable) -> {
+			if (PostgresJpaRepositoryImpl.isCopied(selectable)) {
+				columns.add(selectable.getSelectionExpression());
+			}
+		};
+		if (copyId) {
+			persister.getIdentifierMapping().forEachSelectable(addColumn);
+		}
+		attributes.forEach(attribute -> attribute.forEachSelectable(addColumn));
+		final String copy = "COPY " + persister.getTableName() + " (" + String.join(", ", columns) + ") FROM STDIN (FORMAT csv)";
+		return session.doReturningWork(connection -> {
+			final CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(copy);
+			try {
+				final StringBuilder buffer = new StringBuilder();
+				entities.forEach(entity -> {
+					if (this.entityInformation.isNew(entity) && (this.entityInformation.getId(entity) == null)
+							&& (idGenerator instanceof final BeforeExecutionGenerator beforeExecutionGenerator)) {
+						persister.setIdentifier(entity, beforeExecutionGenerator.generate(session, entity, null, EventType.INSERT), session);
+					}
+					new EntityTimestampListener().preUpdate(entity);
+					// Basic values go through their converters, to-one associations become their foreign
+					// key values and embeddables their columns, as on a regular insert.
+					final int[] fields = { 0 };
+					final JdbcValueConsumer addValue = (index, value, selectable) -> {
+						if (PostgresJpaRepositoryImpl.isCopied(selectable)) {
+							buffer.append((fields[0]++ == 0) ? "" : ",")
+									.append(PostgresJpaRepositoryImpl.toCopyValue(PostgresJpaRepositoryImpl.toRelationalValue(selectable, value)));
+						}
+					};
+					if (copyId) {
+						persister.getIdentifierMapping().breakDownJdbcValues(this.entityInformation.getId(entity), addValue, session);
+					}
+					attributes.forEach(
+							attribute -> attribute.breakDownJdbcValues(persister.getPropertyValue(entity, attribute.getAttributeName()), addValue, session));
+					buffer.append('\n');
+					if (buffer.length() >= PostgresJpaRepositoryImpl.COPY_CHUNK_SIZE) {
+						PostgresJpaRepositoryImpl.writeToCopy(copyIn, buffer);
+					}
+				});
+				PostgresJpaRepositoryImpl.writeToCopy(copyIn, buffer);
+				return copyIn.endCopy();
+			}
+			finally {
+				if (copyIn.isActive()) {
+					copyIn.cancelCopy();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Writes (and empties) a copy buffer. Blocks while the server is not keeping up.
+	 *
+	 * @param copyIn Copy operation.
+	 * @param buffer Buffer.
+	 */
+	private static void writeToCopy(
+			final CopyIn copyIn,
+			final StringBuilder buffer) {
+		try {
+			final byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+			copyIn.writeToCopy(bytes, 0, bytes.length);
+			buffer.setLength(0);
+		}
+		catch (final SQLException exception) {
+			throw new PersistenceException("Bulk copy failed: " + exception.getLocalizedMessage(), exception);
+		}
+	}
+
+	/**
+	 * Whether a column is written by {@code bulkCopy} (insertable, and not a formula).
+	 *
+	 * @param  selectable Column mapping.
+	 * @return            Whether the column is copied.
+	 */
+	private static boolean isCopied(
+			final SelectableMapping selectable) {
+		return !selectable.isFormula() && selectable.isInsertable();
+	}
+
+	/**
+	 * Normalizes a (converted) column value for {@code COPY}: enums without a converter are stored by
+	 * ordinal or name, per their column type.
+	 *
+	 * @param  selectable Column mapping.
+	 * @param  value      Column value.
+	 * @return            The column value.
+	 */
+	private static Object toRelationalValue(
+			final SelectableMapping selectable,
+			final Object value) {
+		Object relationalValue = value;
+		if (value instanceof final Enum<?> enumValue) {
+			relationalValue = SqlTypes.isIntegral(selectable.getJdbcMapping().getJdbcType().getDefaultSqlTypeCode()) ? enumValue.ordinal()
+					: enumValue.name();
+		}
+		return relationalValue;
+	}
+
+	/**
+	 * Renders a column value as a {@code COPY} CSV field (empty and unquoted for {@code NULL}, quoted
+	 * otherwise).
+	 *
+	 * @param  value Column value.
+	 * @return       The CSV field.
+	 */
+	private static String toCopyValue(
+			final Object value) {
+		final String field;
+		if (value == null) {
+			field = "";
+		}
+		else {
+			final String text;
+			if (value instanceof final byte[] bytes) {
+				text = "\\x" + HexFormat.of().formatHex(bytes);
+			}
+			else {
+				text = value.toString();
+			}
+			field = "\"" + text.replace("\"", "\"\"") + "\"";
+		}
+		return field;
+	}
+
+	/**
+	 * @see org.coldis.library.persistence.repository.PostgresJpaRepository#updateWhere(org.springframework.data.jpa.domain.Specification,
+	 *      java.util.Map)
+	 */
+	@Override
+	@Transactional
+	@SuppressWarnings("unchecked")
+	public long updateWhere(
+			final Specification<T> specification,
+			final Map<String, Object> values) {
+		long updated = 0;
+		if ((values != null) && !values.isEmpty()) {
+			final CriteriaBuilder builder = this.entityManager.getCriteriaBuilder();
+			final CriteriaUpdate<T> update = builder.createCriteriaUpdate(this.domainClass);
+			final Root<T> root = update.from(this.domainClass);
+			values.forEach((attribute, value) -> update.set((Path<Object>) root.get(attribute), value));
+			final Predicate predicate = (specification == null) ? null : specification.toPredicate(root, null, builder);
+			if (predicate != null) {
+				update.where(predicate);
+			}
+			updated = this.entityManager.createQuery(update).executeUpdate();
+		}
+		return updated;
+	}
+
+	/**
+	 * @see org.coldis.library.persistence.repository.PostgresJpaRepository#deleteWhereChunk(org.springframework.data.jpa.domain.Specification,
+	 *      int)
+	 */
+	@Override
+	@Transactional
+	public long deleteWhereChunk(
+			final Specification<T> specification,
+			final int chunkSize) {
+		long deleted = 0;
+		final String idAttribute = this.entityInformation.getIdAttribute().getName();
+		final CriteriaBuilder builder = this.entityManager.getCriteriaBuilder();
+		final CriteriaQuery<Object> query = builder.createQuery(Object.class);
+		final Root<T> root = query.from(this.domainClass);
+		query.select(root.get(idAttribute));
+		final Predicate predicate = (specification == null) ? null : specification.toPredicate(root, query, builder);
+		if (predicate != null) {
+			query.where(predicate);
+		}
+		final List<Object> ids = this.entityManager.createQuery(query)
+				.setMaxResults(chunkSize)
+				.setLockMode(LockModeType.PESSIMISTIC_WRITE)
+				.setHint(LOCK_TIMEOUT_HINT, SKIP_LOCKED)
+				.getResultList();
+		if (!ids.isEmpty()) {
+			deleted = this.entityManager
+					.createQuery("DELETE FROM " + this.entityInformation.getEntityName() + " entity WHERE entity." + idAttribute + " IN :ids")
+					.setParameter("ids", ids)
+					.executeUpdate();
+		}
+		return deleted;
+	}
+
 	/**
 	 * @see org.coldis.library.persistence.repository.PostgresJpaRepository#setLockTimeout(java.time.Duration)
 	 */
@@ -139,7 +646,7 @@ public class PostgresJpaRepositoryImpl<T, I> extends SimpleJpaRepository<T, I> i
 	@Transactional
 	public void setLockTimeout(
 			final Duration timeout) {
-		this.setConfig("lock_timeout", timeout);
+		this.setConfig(LOCK_TIMEOUT, timeout);
 	}
 
 	/**
@@ -149,7 +656,7 @@ public class PostgresJpaRepositoryImpl<T, I> extends SimpleJpaRepository<T, I> i
 	@Transactional
 	public void setStatementTimeout(
 			final Duration timeout) {
-		this.setConfig("statement_timeout", timeout);
+		this.setConfig(STATEMENT_TIMEOUT, timeout);
 	}
 
 	/**
@@ -160,17 +667,111 @@ public class PostgresJpaRepositoryImpl<T, I> extends SimpleJpaRepository<T, I> i
 	 * would be flushed as an {@code UPDATE} before the timeout is even applied, which can block on a
 	 * row lock and time out under load.
 	 *
+	 * <p>Skipped when the transaction already has the requested value (see
+	 * {@link TransactionSettings}).
+	 *
 	 * @param name    GUC name.
 	 * @param timeout Duration (truncated to milliseconds, floored at 0).
 	 */
 	private void setConfig(
 			final String name,
 			final Duration timeout) {
-		this.entityManager.createNativeQuery("SELECT set_config(:name, :value, true)")
-				.setParameter("name", name)
-				.setParameter("value", Long.toString(Math.max(0L, timeout.toMillis())))
-				.setFlushMode(FlushModeType.COMMIT)
-				.getSingleResult();
+		this.setConfig(name, PostgresJpaRepositoryImpl.toMillis(timeout));
+	}
+
+	/**
+	 * Sets a transaction-local Postgres GUC (see {@link #setConfig(String, Duration)}).
+	 *
+	 * @param name  GUC name.
+	 * @param value Value.
+	 */
+	private void setConfig(
+			final String name,
+			final String value) {
+		if (!TransactionSettings.isApplied(this.getUnit(), name, value)) {
+			this.entityManager.createNativeQuery("SELECT set_config(:name, :value, true)")
+					.setParameter("name", name)
+					.setParameter("value", value)
+					.setFlushMode(FlushModeType.COMMIT)
+					.getSingleResult();
+			TransactionSettings.applied(this.getUnit(), name, value);
+		}
+	}
+
+	/**
+	 * Applies the timeouts of a query budget to the current transaction, each only if the transaction
+	 * does not have it yet. Every change is registered in the scope, to be undone when it closes.
+	 *
+	 * @param scope Query budget scope.
+	 */
+	void applyQueryBudget(
+			final QueryBudgetScope scope) {
+		this.applyQueryBudget(scope, PostgresJpaRepositoryImpl.STATEMENT_TIMEOUT, scope.getStatementTimeout());
+		this.applyQueryBudget(scope, PostgresJpaRepositoryImpl.LOCK_TIMEOUT, scope.getLockTimeout());
+	}
+
+	/**
+	 * Applies one timeout of a query budget.
+	 *
+	 * @param scope   Query budget scope.
+	 * @param name    GUC name.
+	 * @param timeout Timeout ({@code null} to leave the GUC as is).
+	 */
+	private void applyQueryBudget(
+			final QueryBudgetScope scope,
+			final String name,
+			final Duration timeout) {
+		if (timeout != null) {
+			final String value = PostgresJpaRepositoryImpl.toMillis(timeout);
+			if (!TransactionSettings.isApplied(this.getUnit(), name, value)) {
+				String previous = TransactionSettings.get(this.getUnit(), name);
+				// Unknown previous value: read it in the same round trip.
+				if (previous == null) {
+					previous = (String) ((Object[]) this.entityManager
+							.createNativeQuery("SELECT current_setting(:name), set_config(:name, :value, true)")
+							.setParameter("name", name)
+							.setParameter("value", value)
+							.setFlushMode(FlushModeType.COMMIT)
+							.getSingleResult())[0];
+					TransactionSettings.applied(this.getUnit(), name, value);
+				}
+				else {
+					this.setConfig(name, value);
+				}
+				final String restored = previous;
+				scope.onClose(this.getUnit(), () -> this.setConfig(name, restored));
+			}
+		}
+	}
+
+	/**
+	 * Converts a timeout to a millisecond GUC value.
+	 *
+	 * @param  timeout Duration (truncated to milliseconds, floored at 0).
+	 * @return         The GUC value.
+	 */
+	private static String toMillis(
+			final Duration timeout) {
+		return Long.toString(Math.max(0L, timeout.toMillis()));
+	}
+
+	/**
+	 * Gets the single-statement bounded lock ({@code set_config} evaluated as a filter on the matched
+	 * row, then {@code FOR UPDATE}), or {@code null} when the entity does not map to exactly one table
+	 * (inheritance or secondary tables), in which case the two-statement path is used.
+	 *
+	 * @return The inline bounded lock query, or {@code null}.
+	 */
+	private String getInlineLockQuery() {
+		Optional<String> query = this.inlineLockQuery;
+		if (query == null) {
+			final AbstractEntityPersister persister = (AbstractEntityPersister) this.getEntityPersister();
+			query = persister.isInherited() || persister.getEntityMetamodel().hasSubclasses() || (persister.getTableSpan() != 1) ? Optional.empty()
+					: Optional.of("SELECT entity.* FROM " + persister.getTableName() + " entity WHERE entity." + persister.getIdentifierColumnNames()[0]
+							+ " = :id AND set_config('" + LOCK_TIMEOUT + "', :value, true) IS NOT NULL FOR UPDATE OF entity");
+			this.inlineLockQuery = query;
+		}
+		return query.orElse(null);
 	}
 
 	/**
@@ -183,11 +784,9 @@ public class PostgresJpaRepositoryImpl<T, I> extends SimpleJpaRepository<T, I> i
 			final I id,
 			final String leaseAttribute,
 			final Duration lease) {
-		final String lease0 = this.validatedAttribute(leaseAttribute);
+		final LeaseStatements statements = this.getLeaseStatements(leaseAttribute);
 		final LocalDateTime now = DateTimeHelper.getCurrentLocalDateTime();
-		final String update = "UPDATE " + this.entityInformation.getEntityName() + " entity SET entity." + lease0 + " = :until WHERE entity."
-				+ this.entityInformation.getIdAttribute().getName() + " = :id AND (entity." + lease0 + " IS NULL OR entity." + lease0 + " < :now)";
-		return this.entityManager.createQuery(update)
+		return this.entityManager.createQuery(statements.claim)
 				.setParameter("until", now.plus(lease))
 				.setParameter("now", now)
 				.setParameter("id", id)
@@ -203,10 +802,410 @@ public class PostgresJpaRepositoryImpl<T, I> extends SimpleJpaRepository<T, I> i
 	public void releaseLease(
 			final I id,
 			final String leaseAttribute) {
-		final String lease0 = this.validatedAttribute(leaseAttribute);
-		final String update = "UPDATE " + this.entityInformation.getEntityName() + " entity SET entity." + lease0 + " = NULL WHERE entity."
-				+ this.entityInformation.getIdAttribute().getName() + " = :id";
-		this.entityManager.createQuery(update).setParameter("id", id).executeUpdate();
+		this.releaseLeases(List.of(id), leaseAttribute);
+	}
+
+	/**
+	 * @see org.coldis.library.persistence.repository.PostgresJpaRepository#claimLeases(java.util.Collection,
+	 *      java.lang.String, java.time.Duration)
+	 */
+	@Override
+	@Transactional
+	@SuppressWarnings("unchecked")
+	public Set<I> claimLeases(
+			final Collection<I> ids,
+			final String leaseAttribute,
+			final Duration lease) {
+		final Set<I> claimed = new LinkedHashSet<>();
+		final LeaseStatements statements = this.getLeaseStatements(leaseAttribute);
+		if ((ids != null) && !ids.isEmpty()) {
+			final LocalDateTime now = DateTimeHelper.getCurrentLocalDateTime();
+			this.entityManager.createNativeQuery(statements.claimAll)
+					.setParameter("until", now.plus(lease))
+					.setParameter("now", now)
+					.setParameter("ids", ids)
+					.getResultList()
+					.forEach(id -> claimed.add((I) id));
+		}
+		return claimed;
+	}
+
+	/**
+	 * @see org.coldis.library.persistence.repository.PostgresJpaRepository#releaseLeases(java.util.Collection,
+	 *      java.lang.String)
+	 */
+	@Override
+	@Transactional
+	public void releaseLeases(
+			final Collection<I> ids,
+			final String leaseAttribute) {
+		final LeaseStatements statements = this.getLeaseStatements(leaseAttribute);
+		if ((ids != null) && !ids.isEmpty()) {
+			if (LeaseNotificationListener.isEnabled()) {
+				// Clears and notifies in one statement; the notifications are delivered on commit.
+				this.entityManager.createNativeQuery(statements.releaseAllAndNotify)
+						.setParameter("ids", ids)
+						.setParameter("channel", statements.channel)
+						.getSingleResult();
+			}
+			else {
+				this.entityManager.createQuery(statements.releaseAll).setParameter("ids", ids).executeUpdate();
+			}
+		}
+	}
+
+	/**
+	 * @see org.coldis.library.persistence.repository.PostgresJpaRepository#awaitLeaseRelease(java.lang.Object,
+	 *      java.lang.String, java.time.Duration)
+	 */
+	@Override
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public void awaitLeaseRelease(
+			final I id,
+			final String leaseAttribute,
+			final Duration maxWait) throws InterruptedException {
+		final LeaseStatements statements = this.getLeaseStatements(leaseAttribute);
+		if (LeaseNotificationListener.isEnabled()) {
+			// Registers before reading the lease, so a release committed in between still wakes us.
+			final LeaseNotificationListener.Waiter waiter = LeaseNotificationListener.register(this.getDataSource(), statements.channel,
+					String.valueOf(id));
+			try {
+				final LocalDateTime leasedUntil = this.entityManager.createQuery(statements.read, LocalDateTime.class)
+						.setParameter("id", id)
+						.getResultStream()
+						.findFirst()
+						.orElse(null);
+				final LocalDateTime now = DateTimeHelper.getCurrentLocalDateTime();
+				if ((leasedUntil != null) && leasedUntil.isAfter(now)) {
+					final Duration untilExpiry = Duration.between(now, leasedUntil);
+					waiter.await((untilExpiry.compareTo(maxWait) < 0) ? untilExpiry : maxWait);
+				}
+			}
+			finally {
+				waiter.cancel();
+			}
+		}
+		else {
+			Thread.sleep(Math.max(0L, maxWait.toMillis()));
+		}
+	}
+
+	/**
+	 * @see org.coldis.library.persistence.repository.PostgresJpaRepository#claimBatch(org.springframework.data.jpa.domain.Specification,
+	 *      org.springframework.data.domain.Sort, int)
+	 */
+	@Override
+	@Transactional
+	public List<T> claimBatch(
+			final Specification<T> specification,
+			final Sort sort,
+			final int limit) {
+		return this.getQuery(specification, (sort == null) ? Sort.unsorted() : sort)
+				.setMaxResults(limit)
+				.setLockMode(LockModeType.PESSIMISTIC_WRITE)
+				.setHint(LOCK_TIMEOUT_HINT, SKIP_LOCKED)
+				.getResultList();
+	}
+
+	/**
+	 * @see org.coldis.library.persistence.repository.PostgresJpaRepository#claimBatch(org.springframework.data.jpa.domain.Specification,
+	 *      org.springframework.data.domain.Sort, int, java.lang.String, java.time.Duration)
+	 */
+	@Override
+	@Transactional
+	public List<T> claimBatch(
+			final Specification<T> specification,
+			final Sort sort,
+			final int limit,
+			final String leaseAttribute,
+			final Duration lease) {
+		final LeaseStatements statements = this.getLeaseStatements(leaseAttribute);
+		final String lease0 = statements.attribute;
+		final LocalDateTime now = DateTimeHelper.getCurrentLocalDateTime();
+		final Specification<T> unleased = (root, query, builder) -> builder.or(builder.isNull(root.get(lease0)),
+				builder.lessThan(root.<LocalDateTime>get(lease0), now));
+		final Specification<T> claimable = (specification == null) ? unleased : specification.and(unleased);
+		final List<T> entities = this.getQuery(claimable, (sort == null) ? Sort.unsorted() : sort)
+				.setMaxResults(limit)
+				.setLockMode(LockModeType.PESSIMISTIC_WRITE)
+				.setHint(LOCK_TIMEOUT_HINT, SKIP_LOCKED)
+				.setHint(HibernateHints.HINT_READ_ONLY, true)
+				.getResultList();
+		if (!entities.isEmpty()) {
+			// One bulk UPDATE stamps the whole batch (instead of one dirty-checked UPDATE per row).
+			final LocalDateTime until = now.plus(lease);
+			this.entityManager.createQuery(statements.stampAll)
+					.setParameter("until", until)
+					.setParameter("ids", entities.stream().map(this.entityInformation::getId).toList())
+					.executeUpdate();
+			final Session session = this.entityManager.unwrap(Session.class);
+			final EntityPersister persister = this.getEntityPersister();
+			for (final T entity : entities) {
+				persister.setPropertyValue(entity, lease0, until);
+				// Loaded read-only, so the stamp is not dirty: making the entity modifiable again takes
+				// its current state (stamp included) as the loaded state. Rows the context already held
+				// as modifiable keep their state (and get the stamp on flush).
+				if (session.isReadOnly(entity)) {
+					session.setReadOnly(entity, false);
+				}
+			}
+		}
+		return entities;
+	}
+
+	/**
+	 * @see org.coldis.library.persistence.repository.PostgresJpaRepository#streamAll(org.springframework.data.jpa.domain.Specification,
+	 *      int)
+	 */
+	@Override
+	@Transactional(
+			propagation = Propagation.MANDATORY,
+			readOnly = true
+	)
+	public Stream<T> streamAll(
+			final Specification<T> specification,
+			final int fetchSize) {
+		return this.getQuery(specification, Sort.unsorted())
+				.setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+				.setHint(HibernateHints.HINT_READ_ONLY, true)
+				.getResultStream()
+				.map(entity -> {
+					this.entityManager.detach(entity);
+					return entity;
+				});
+	}
+
+	/**
+	 * @see org.coldis.library.persistence.repository.PostgresJpaRepository#forEachChunk(org.springframework.data.jpa.domain.Specification,
+	 *      org.springframework.data.domain.Sort, int, java.util.function.Consumer)
+	 */
+	@Override
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void forEachChunk(
+			final Specification<T> specification,
+			final Sort sort,
+			final int chunkSize,
+			final Consumer<List<T>> consumer) {
+		final Sort keysetSort = this.getKeysetSort(sort);
+		Object[] lastValues = null;
+		List<T> chunk;
+		do {
+			final Specification<T> after = this.getKeysetAfter(keysetSort, lastValues);
+			chunk = this.getQuery((specification == null) ? after : specification.and(after), keysetSort).setMaxResults(chunkSize).getResultList();
+			if (!chunk.isEmpty()) {
+				lastValues = this.getKeysetValues(keysetSort, chunk.get(chunk.size() - 1));
+				consumer.accept(chunk);
+				if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+					this.entityManager.flush();
+				}
+				chunk.forEach(this.entityManager::detach);
+			}
+		}
+		while (chunk.size() == chunkSize);
+	}
+
+	/**
+	 * @see org.coldis.library.persistence.repository.PostgresJpaRepository#findSlice(org.springframework.data.jpa.domain.Specification,
+	 *      org.springframework.data.domain.Sort, org.coldis.library.persistence.repository.KeysetCursor, int)
+	 */
+	@Override
+	public KeysetSlice<T> findSlice(
+			final Specification<T> specification,
+			final Sort sort,
+			final KeysetCursor after,
+			final int size) {
+		final Sort keysetSort = (after == null) ? this.getKeysetSort(sort) : after.getSort();
+		final Specification<T> afterSpecification = this.getKeysetAfter(keysetSort, (after == null) ? null : this.getKeysetValues(after));
+		final List<T> rows = this.getQuery((specification == null) ? afterSpecification : specification.and(afterSpecification), keysetSort)
+				.setMaxResults(size + 1).getResultList();
+		final boolean hasNext = rows.size() > size;
+		final List<T> content = hasNext ? new ArrayList<>(rows.subList(0, size)) : rows;
+		return new KeysetSlice<>(content,
+				hasNext ? KeysetCursor.of(keysetSort, this.getKeysetValues(keysetSort, content.get(content.size() - 1))) : null);
+	}
+
+	/**
+	 * Converts the (string) values of a cursor back to the sort attribute types.
+	 *
+	 * @param  cursor Cursor.
+	 * @return        The keyset values.
+	 */
+	private Object[] getKeysetValues(
+			final KeysetCursor cursor) {
+		final EntityType<T> entityType = this.entityManager.getMetamodel().entity(this.domainClass);
+		final List<Sort.Order> orders = cursor.getSort().toList();
+		final Object[] values = new Object[orders.size()];
+		for (int index = 0; index < orders.size(); index++) {
+			values[index] = PostgresJpaRepositoryImpl.fromKeysetValue(cursor.getValues().get(index),
+					entityType.getAttribute(orders.get(index).getProperty()).getJavaType());
+		}
+		return values;
+	}
+
+	/**
+	 * Converts a keyset value from its string form.
+	 *
+	 * @param  value String value.
+	 * @param  type  Attribute type.
+	 * @return       The typed value.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static Object fromKeysetValue(
+			final String value,
+			final Class<?> type) {
+		final Object typedValue;
+		if (String.class.equals(type)) {
+			typedValue = value;
+		}
+		else if (Long.class.equals(type) || Long.TYPE.equals(type)) {
+			typedValue = Long.valueOf(value);
+		}
+		else if (Integer.class.equals(type) || Integer.TYPE.equals(type)) {
+			typedValue = Integer.valueOf(value);
+		}
+		else if (Short.class.equals(type) || Short.TYPE.equals(type)) {
+			typedValue = Short.valueOf(value);
+		}
+		else if (Boolean.class.equals(type) || Boolean.TYPE.equals(type)) {
+			typedValue = Boolean.valueOf(value);
+		}
+		else if (BigDecimal.class.equals(type)) {
+			typedValue = new BigDecimal(value);
+		}
+		else if (BigInteger.class.equals(type)) {
+			typedValue = new BigInteger(value);
+		}
+		else if (UUID.class.equals(type)) {
+			typedValue = UUID.fromString(value);
+		}
+		else if (LocalDateTime.class.equals(type)) {
+			typedValue = LocalDateTime.parse(value);
+		}
+		else if (LocalDate.class.equals(type)) {
+			typedValue = LocalDate.parse(value);
+		}
+		else if (OffsetDateTime.class.equals(type)) {
+			typedValue = OffsetDateTime.parse(value);
+		}
+		else if (ZonedDateTime.class.equals(type)) {
+			typedValue = ZonedDateTime.parse(value);
+		}
+		else if (Instant.class.equals(type)) {
+			typedValue = Instant.parse(value);
+		}
+		else if (type.isEnum()) {
+			typedValue = Enum.valueOf((Class<? extends Enum>) type, value);
+		}
+		else {
+			throw new IllegalArgumentException("Unsupported keyset attribute type: " + type.getName());
+		}
+		return typedValue;
+	}
+
+	/**
+	 * Gets a keyset sort: the given sort (or none) with the id appended as a tie-breaker when missing,
+	 * so the sort is total and every row has a unique position.
+	 *
+	 * @param  sort Sort ({@code null} for id order).
+	 * @return      The keyset sort.
+	 */
+	private Sort getKeysetSort(
+			final Sort sort) {
+		final String idAttribute = this.entityInformation.getIdAttribute().getName();
+		final Sort actualSort = (sort == null) ? Sort.unsorted() : sort;
+		return (actualSort.getOrderFor(idAttribute) == null) ? actualSort.and(Sort.by(idAttribute)) : actualSort;
+	}
+
+	/**
+	 * Gets the keyset values (one per sort order) of an entity.
+	 *
+	 * @param  sort   Keyset sort.
+	 * @param  entity Entity.
+	 * @return        The keyset values.
+	 */
+	private Object[] getKeysetValues(
+			final Sort sort,
+			final T entity) {
+		final EntityPersister persister = this.getEntityPersister();
+		final String idAttribute = this.entityInformation.getIdAttribute().getName();
+		return sort.stream().map(order -> idAttribute.equals(order.getProperty()) ? this.entityInformation.getId(entity)
+				: persister.getPropertyValue(entity, order.getProperty())).toArray();
+	}
+
+	/**
+	 * Gets the keyset (seek) predicate for the rows after the given values in the given sort:
+	 * {@code (s1 > v1) OR (s1 = v1 AND s2 > v2) OR …} (with {@code <} for descending orders).
+	 *
+	 * @param  sort   Keyset sort.
+	 * @param  values Keyset values of the last row ({@code null} for the first chunk).
+	 * @return        The keyset predicate.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private Specification<T> getKeysetAfter(
+			final Sort sort,
+			final Object[] values) {
+		final List<Sort.Order> orders = sort.toList();
+		return (root, query, builder) -> {
+			Predicate after = builder.conjunction();
+			if (values != null) {
+				final List<Predicate> alternatives = new ArrayList<>();
+				for (int index = 0; index < orders.size(); index++) {
+					final List<Predicate> conjuncts = new ArrayList<>();
+					for (int previous = 0; previous < index; previous++) {
+						conjuncts.add(builder.equal(root.get(orders.get(previous).getProperty()), values[previous]));
+					}
+					final Sort.Order order = orders.get(index);
+					final Expression<Comparable> path = root.get(order.getProperty());
+					conjuncts.add(order.isAscending() ? builder.greaterThan(path, (Comparable) values[index])
+							: builder.lessThan(path, (Comparable) values[index]));
+					alternatives.add(builder.and(conjuncts.toArray(Predicate[]::new)));
+				}
+				after = builder.or(alternatives.toArray(Predicate[]::new));
+			}
+			return after;
+		};
+	}
+
+	/**
+	 * Gets Hibernate's persister for this entity (attribute access that honors the entity's mapped
+	 * access type, and the table/column mapping).
+	 *
+	 * @return The entity persister.
+	 */
+	private EntityPersister getEntityPersister() {
+		EntityPersister persister = this.entityPersister;
+		if (persister == null) {
+			persister = this.entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class).getRuntimeMetamodels()
+					.getMappingMetamodel().getEntityDescriptor(this.domainClass);
+			this.entityPersister = persister;
+		}
+		return persister;
+	}
+
+	/**
+	 * Gets the persistence unit (entity manager factory) of this repository, which the transaction
+	 * settings are tracked per.
+	 *
+	 * @return The persistence unit.
+	 */
+	private EntityManagerFactory getUnit() {
+		return this.entityManager.getEntityManagerFactory();
+	}
+
+	/**
+	 * Gets the datasource behind this repository's entity manager factory (the database the lease
+	 * notifications travel on).
+	 *
+	 * @return The datasource.
+	 */
+	private DataSource getDataSource() {
+		DataSource actualDataSource = this.dataSource;
+		if (actualDataSource == null) {
+			actualDataSource = this.entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class).getServiceRegistry()
+					.requireService(ConnectionProvider.class).unwrap(DataSource.class);
+			this.dataSource = actualDataSource;
+		}
+		return actualDataSource;
 	}
 
 	/**
@@ -223,6 +1222,53 @@ public class PostgresJpaRepositoryImpl<T, I> extends SimpleJpaRepository<T, I> i
 		return this.entityManager.getMetamodel().entity(this.domainClass).getAttribute(attribute).getName();
 	}
 
+	/**
+	 * Gets the lease statements for a lease attribute, building (and validating, see
+	 * {@link #validatedAttribute(String)}) them on first use only. Unknown attributes are rejected
+	 * every time and never cached.
+	 *
+	 * @param  attribute Candidate lease attribute name.
+	 * @return           The lease statements.
+	 */
+	private LeaseStatements getLeaseStatements(
+			final String attribute) {
+		LeaseStatements statements = this.leaseStatements.get(attribute);
+		if (statements == null) {
+			statements = this.leaseStatements.computeIfAbsent(attribute, this::createLeaseStatements);
+		}
+		return statements;
+	}
+
+	/**
+	 * Builds the lease statements for a lease attribute.
+	 *
+	 * @param  attribute Candidate lease attribute name.
+	 * @return           The lease statements.
+	 */
+	private LeaseStatements createLeaseStatements(
+			final String attribute) {
+		final String lease = this.validatedAttribute(attribute);
+		final String entityName = this.entityInformation.getEntityName();
+		final String idAttribute = this.entityInformation.getIdAttribute().getName();
+		// JPQL has no RETURNING, so the bulk claim and the notifying release are native SQL over the
+		// mapped table/column names.
+		final AbstractEntityPersister persister = (AbstractEntityPersister) this.getEntityPersister();
+		final String table = persister.getTableName();
+		final String idColumn = persister.getIdentifierColumnNames()[0];
+		final String leaseColumn = persister.getPropertyColumnNames(lease)[0];
+		return new LeaseStatements(lease,
+				"UPDATE " + entityName + " entity SET entity." + lease + " = :until WHERE entity." + idAttribute + " = :id AND (entity." + lease
+						+ " IS NULL OR entity." + lease + " < :now)",
+				"UPDATE " + table + " SET " + leaseColumn + " = :until WHERE " + idColumn + " IN (:ids) AND (" + leaseColumn + " IS NULL OR "
+						+ leaseColumn + " < :now) RETURNING " + idColumn,
+				"UPDATE " + entityName + " entity SET entity." + lease + " = :until WHERE entity." + idAttribute + " IN :ids",
+				"UPDATE " + entityName + " entity SET entity." + lease + " = NULL WHERE entity." + idAttribute + " IN :ids",
+				"WITH released AS (UPDATE " + table + " SET " + leaseColumn + " = NULL WHERE " + idColumn + " IN (:ids) RETURNING " + idColumn
+						+ ") SELECT count(*) FROM (SELECT pg_notify(:channel, CAST(" + idColumn + " AS text)) FROM released) notified",
+				"SELECT entity." + lease + " FROM " + entityName + " entity WHERE entity." + idAttribute + " = :id",
+				LeaseNotificationListener.getChannel(table, leaseColumn));
+	}
+
 	/**
 	 * @see org.coldis.library.persistence.repository.PostgresJpaRepository#detach(java.lang.Object)
 	 */
@@ -242,4 +1288,58 @@ public class PostgresJpaRepositoryImpl<T, I> extends SimpleJpaRepository<T, I> i
 		this.entityManager.refresh(entity);
 	}
 
+	/**
+	 * Lease statements for one lease attribute (built once, so the hot lease calls neither re-validate
+	 * the attribute nor rebuild the query strings).
+	 */
+	private static final class LeaseStatements {
+
+		/** Canonical lease attribute name. */
+		private final String attribute;
+
+		/** Single-row claim (JPQL). */
+		private final String claim;
+
+		/** Bulk claim returning the claimed ids (native SQL). */
+		private final String claimAll;
+
+		/** Bulk lease stamp of claimed rows (JPQL). */
+		private final String stampAll;
+
+		/** Bulk release (JPQL). */
+		private final String releaseAll;
+
+		/** Bulk release notifying waiters (native SQL). */
+		private final String releaseAllAndNotify;
+
+		/** Lease value read (JPQL). */
+		private final String read;
+
+		/** Release notification channel. */
+		private final String channel;
+
+		/**
+		 * Default constructor.
+		 */
+		private LeaseStatements(
+				final String attribute,
+				final String claim,
+				final String claimAll,
+				final String stampAll,
+				final String releaseAll,
+				final String releaseAllAndNotify,
+				final String read,
+				final String channel) {
+			this.attribute = attribute;
+			this.claim = claim;
+			this.claimAll = claimAll;
+			this.stampAll = stampAll;
+			this.releaseAll = releaseAll;
+			this.releaseAllAndNotify = releaseAllAndNotify;
+			this.read = read;
+			this.channel = channel;
+		}
+
+	}
+
 }
@@ -0,0 +1,45 @@
+package org.coldis.library.persistence.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Caps the time the statements of a repository or service method (or of every method of the
+ * annotated type) may take, through the transaction-local Postgres {@code statement_timeout} and
+ * {@code lock_timeout}, so a latency-sensitive path is not held up by the global query timeout.
+ *
+ * <p>
+ * The budget is applied by {@link PostgresJpaRepository} repositories: the first repository call
+ * within the annotated method (in each transaction) sets the GUCs, later calls with the same budget
+ * send nothing, and the previous values are restored when the method returns (unless its transaction
+ * ends with it). Statements issued without going through a repository are only capped once a
+ * repository call applied the budget. Nested budgets override the outer one while they are active.
+ * </p>
+ *
+ * <p>
+ * Durations use the Spring Boot format ({@code 500ms}, {@code 2s}, {@code PT2S}); an empty value
+ * leaves the corresponding GUC as is. Service methods are intercepted through a proxy (see
+ * {@code QueryBudgetConfiguration}), so self-invocations are not budgeted.
+ * </p>
+ */
+@Documented
+@Inherited
+@Target(value = { ElementType.METHOD, ElementType.TYPE })
+@Retention(value = RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+	/**
+	 * Maximum execution time of each statement ({@code statement_timeout}).
+	 */
+	String statementTimeout() default "";
+
+	/**
+	 * Maximum time each lock acquisition may wait ({@code lock_timeout}).
+	 */
+	String lockTimeout() default "";
+
+}
@@ -0,0 +1,106 @@
+package org.coldis.library.persistence.repository;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Applies {@link QueryBudget} budgets. A service interceptor only opens the budget scope; a
+ * repository interceptor (which runs inside the repository's transaction interceptor) also opens the
+ * scope of an annotated repository method and applies the current budget to the transaction before
+ * the call.
+ */
+public class QueryBudgetInterceptor implements MethodInterceptor {
+
+	/** Budgets by method (empty when the method has none). */
+	private final Map<Method, Optional<QueryBudget>> budgets = new ConcurrentHashMap<>();
+
+	/** Repository interface ({@code null} for a service interceptor). */
+	private final Class<?> repositoryInterface;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param repositoryInterface Repository interface ({@code null} for a service interceptor).
+	 */
+	public QueryBudgetInterceptor(final Class<?> repositoryInterface) {
+		this.repositoryInterface = repositoryInterface;
+	}
+
+	/**
+	 * Finds the budget of a method: on the method itself, otherwise on its type.
+	 *
+	 * @param  method      Method.
+	 * @param  targetClass Target class ({@code null} if unknown).
+	 * @return             The budget ({@code null} if none).
+	 */
+	public static QueryBudget findBudget(
+			final Method method,
+			final Class<?> targetClass) {
+		final Method specificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+		QueryBudget budget = AnnotatedElementUtils.findMergedAnnotation(specificMethod, QueryBudget.class);
+		if (budget == null) {
+			budget = AnnotatedElementUtils.findMergedAnnotation(method, QueryBudget.class);
+		}
+		if ((budget == null) && (targetClass != null)) {
+			budget = AnnotatedElementUtils.findMergedAnnotation(targetClass, QueryBudget.class);
+		}
+		if (budget == null) {
+			budget = AnnotatedElementUtils.findMergedAnnotation(method.getDeclaringClass(), QueryBudget.class);
+		}
+		return budget;
+	}
+
+	/**
+	 * Whether the innermost transactional invocation started its transaction (so the transaction ends
+	 * with it).
+	 */
+	private static boolean isNewTransaction() {
+		boolean newTransaction = false;
+		try {
+			newTransaction = TransactionAspectSupport.currentTransactionStatus().isNewTransaction();
+		}
+		catch (final NoTransactionException exception) {
+			newTransaction = false;
+		}
+		return newTransaction;
+	}
+
+	/**
+	 * @see org.aopalliance.intercept.MethodInterceptor#invoke(org.aopalliance.intercept.MethodInvocation)
+	 */
+	@Override
+	public Object invoke(
+			final MethodInvocation invocation) throws Throwable {
+		final Class<?> targetClass = (this.repositoryInterface != null) ? this.repositoryInterface
+				: ((invocation.getThis() == null) ? null : AopUtils.getTargetClass(invocation.getThis()));
+		final QueryBudget budget = this.budgets
+				.computeIfAbsent(invocation.getMethod(), method -> Optional.ofNullable(QueryBudgetInterceptor.findBudget(method, targetClass))).orElse(null);
+		final QueryBudgetScope scope = (budget == null) ? null : QueryBudgetScope.open(budget);
+		boolean restore = true;
+		try {
+			final QueryBudgetScope current = QueryBudgetScope.current();
+			if ((this.repositoryInterface != null) && (current != null) && TransactionSynchronizationManager.isActualTransactionActive()
+					&& (invocation.getThis() instanceof final PostgresJpaRepositoryImpl<?, ?> repository)) {
+				repository.applyQueryBudget(current);
+				restore = !QueryBudgetInterceptor.isNewTransaction();
+			}
+			return invocation.proceed();
+		}
+		finally {
+			if (scope != null) {
+				scope.close(restore);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,136 @@
+package org.coldis.library.persistence.repository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.boot.convert.DurationStyle;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * The {@link QueryBudget} active on the current thread (nested budgets stack, each inheriting the
+ * timeouts it does not set), and the changes to undo when it closes.
+ */
+final class QueryBudgetScope {
+
+	/** Current scope. */
+	private static final ThreadLocal<QueryBudgetScope> CURRENT = new ThreadLocal<>();
+
+	/** Enclosing scope. */
+	private final QueryBudgetScope parent;
+
+	/** Statement timeout ({@code null} to leave as is). */
+	private final Duration statementTimeout;
+
+	/** Lock timeout ({@code null} to leave as is). */
+	private final Duration lockTimeout;
+
+	/** Changes to undo on close, with the transaction they were made in. */
+	private final List<Restore> restores = new ArrayList<>();
+
+	/**
+	 * Default constructor.
+	 */
+	private QueryBudgetScope(final QueryBudgetScope parent, final Duration statementTimeout, final Duration lockTimeout) {
+		this.parent = parent;
+		this.statementTimeout = statementTimeout;
+		this.lockTimeout = lockTimeout;
+	}
+
+	/**
+	 * Parses a budget duration.
+	 *
+	 * @param  duration Duration (empty for none).
+	 * @return          The duration ({@code null} for none).
+	 */
+	static Duration parse(
+			final String duration) {
+		return StringUtils.isBlank(duration) ? null : DurationStyle.detectAndParse(duration.trim());
+	}
+
+	/**
+	 * Opens a scope (nested in the current one, if any).
+	 *
+	 * @param  budget Budget.
+	 * @return        The scope (must be closed).
+	 */
+	static QueryBudgetScope open(
+			final QueryBudget budget) {
+		final QueryBudgetScope parent = QueryBudgetScope.CURRENT.get();
+		final Duration statementTimeout = QueryBudgetScope.parse(budget.statementTimeout());
+		final Duration lockTimeout = QueryBudgetScope.parse(budget.lockTimeout());
+		final QueryBudgetScope scope = new QueryBudgetScope(parent,
+				((statementTimeout == null) && (parent != null)) ? parent.statementTimeout : statementTimeout,
+				((lockTimeout == null) && (parent != null)) ? parent.lockTimeout : lockTimeout);
+		QueryBudgetScope.CURRENT.set(scope);
+		return scope;
+	}
+
+	/**
+	 * Gets the current scope.
+	 *
+	 * @return The current scope ({@code null} if none).
+	 */
+	static QueryBudgetScope current() {
+		return QueryBudgetScope.CURRENT.get();
+	}
+
+	/**
+	 * Gets the statement timeout.
+	 *
+	 * @return The statement timeout ({@code null} to leave as is).
+	 */
+	Duration getStatementTimeout() {
+		return this.statementTimeout;
+	}
+
+	/**
+	 * Gets the lock timeout.
+	 *
+	 * @return The lock timeout ({@code null} to leave as is).
+	 */
+	Duration getLockTimeout() {
+		return this.lockTimeout;
+	}
+
+	/**
+	 * Registers a change made in the current transaction, to be undone on close.
+	 *
+	 * @param unit    Persistence unit the change was made on.
+	 * @param restore Undoes the change.
+	 */
+	void onClose(
+			final EntityManagerFactory unit,
+			final Runnable restore) {
+		this.restores.add(new Restore(unit, TransactionSettings.getToken(unit), restore));
+	}
+
+	/**
+	 * Closes the scope, undoing (last first) the changes made in the transaction that is still
+	 * current. Changes made in transactions that are over died with them.
+	 *
+	 * @param restore Whether to undo the changes (not worth it when the transaction is ending).
+	 */
+	void close(
+			final boolean restore) {
+		QueryBudgetScope.CURRENT.set(this.parent);
+		if (restore && !this.restores.isEmpty()) {
+			for (int index = this.restores.size() - 1; index >= 0; index--) {
+				final Restore change = this.restores.get(index);
+				final Object token = TransactionSettings.getToken(change.unit);
+				if ((token != null) && (change.token == token)) {
+					change.action.run();
+				}
+			}
+		}
+	}
+
+	/**
+	 * A change to undo, with the persistence unit and transaction it was made in.
+	 */
+	private record Restore(EntityManagerFactory unit, Object token, Runnable action) {
+	}
+
+}
@@ -0,0 +1,186 @@
+package org.coldis.library.persistence.repository;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Tracks the transaction-local Postgres settings ({@code set_config(…, true)} / {@code SET LOCAL})
+ * applied in the current transaction, so a setting that already has the requested value is not sent
+ * again (one round-trip saved per repeated bounded lock or timeout).
+ *
+ * <p>The values are bound to the current transaction, per persistence unit (each unit's
+ * {@link EntityManagerFactory} has its own connection, so a transaction on another unit nested in
+ * this one never mistakes this unit's settings for its own), through a
+ * {@link TransactionSynchronization}: they are dropped when it completes, and set aside while it is
+ * suspended (e.g. by a {@code REQUIRES_NEW} call, which runs on another connection). Code that
+ * changes one of these settings by other means in the same transaction must record it with
+ * {@link #applied(EntityManagerFactory, String, String)} (or
+ * {@link #reset(EntityManagerFactory, String)} when the value is unknown). Rolling back to a
+ * savepoint also reverts {@code SET LOCAL}, so nested ({@code NESTED}) transactions that roll back
+ * should {@link #reset(EntityManagerFactory, String)} what they changed.
+ */
+@Component
+public class TransactionSettings {
+
+	/** Whether bounded locks set {@code lock_timeout} inside the locking statement itself. */
+	private static volatile boolean INLINE_LOCK_TIMEOUT = false;
+
+	/**
+	 * Sets whether bounded locks set {@code lock_timeout} inside the locking statement itself.
+	 *
+	 * @param inlineLockTimeout Whether bounded locks set {@code lock_timeout} inline.
+	 */
+	@Autowired
+	private void setInlineLockTimeout(
+			@Value("${org.coldis.configuration.persistence.lock-timeout.inline:false}")
+			final Boolean inlineLockTimeout) {
+		TransactionSettings.INLINE_LOCK_TIMEOUT = inlineLockTimeout;
+	}
+
+	/**
+	 * Gets whether bounded locks set {@code lock_timeout} inside the locking statement itself (one
+	 * round-trip instead of two, see {@link PostgresJpaRepository#findByIdForUpdateWait(Object,
+	 * java.time.Duration)}).
+	 *
+	 * @return Whether bounded locks set {@code lock_timeout} inline.
+	 */
+	public static boolean isInlineLockTimeout() {
+		return TransactionSettings.INLINE_LOCK_TIMEOUT;
+	}
+
+	/**
+	 * Gets the settings bound to the current transaction for a persistence unit.
+	 *
+	 * @param  unit   Persistence unit.
+	 * @param  create Whether to bind them if missing.
+	 * @return        The settings ({@code null} outside a transaction, or if missing and not created).
+	 */
+	@SuppressWarnings("unchecked")
+	private static Map<String, String> getSettings(
+			final EntityManagerFactory unit,
+			final boolean create) {
+		Map<String, String> settings = null;
+		if (TransactionSynchronizationManager.isActualTransactionActive() && TransactionSynchronizationManager.isSynchronizationActive()) {
+			final ResourceKey resourceKey = new ResourceKey(unit);
+			settings = (Map<String, String>) TransactionSynchronizationManager.getResource(resourceKey);
+			if ((settings == null) && create) {
+				final Map<String, String> newSettings = new HashMap<>();
+				TransactionSynchronizationManager.bindResource(resourceKey, newSettings);
+				TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+					@Override
+					public void suspend() {
+						TransactionSynchronizationManager.unbindResourceIfPossible(resourceKey);
+					}
+
+					@Override
+					public void resume() {
+						TransactionSynchronizationManager.bindResource(resourceKey, newSettings);
+					}
+
+					@Override
+					public void afterCompletion(
+							final int status) {
+						TransactionSynchronizationManager.unbindResourceIfPossible(resourceKey);
+					}
+
+				});
+				settings = newSettings;
+			}
+		}
+		return settings;
+	}
+
+	/**
+	 * Gets a token identifying the current transaction's settings for a persistence unit, to tell
+	 * later whether the same transaction is still the current one.
+	 *
+	 * @param  unit Persistence unit.
+	 * @return      The token ({@code null} outside a transaction or when no setting was applied yet).
+	 */
+	static Object getToken(
+			final EntityManagerFactory unit) {
+		return TransactionSettings.getSettings(unit, false);
+	}
+
+	/**
+	 * Gets the value applied to a setting in the current transaction.
+	 *
+	 * @param  unit Persistence unit.
+	 * @param  name Setting name.
+	 * @return      The applied value, or {@code null} if unknown (never applied here, or outside a
+	 *                  transaction).
+	 */
+	public static String get(
+			final EntityManagerFactory unit,
+			final String name) {
+		final Map<String, String> settings = TransactionSettings.getSettings(unit, false);
+		return (settings == null) ? null : settings.get(name);
+	}
+
+	/**
+	 * Whether a setting is known to already have a value in the current transaction.
+	 *
+	 * @param  unit  Persistence unit.
+	 * @param  name  Setting name.
+	 * @param  value Value.
+	 * @return       Whether the setting is known to have that value (always {@code false} outside a
+	 *               transaction).
+	 */
+	public static boolean isApplied(
+			final EntityManagerFactory unit,
+			final String name,
+			final String value) {
+		return Objects.equals(TransactionSettings.get(unit, name), value) && (value != null);
+	}
+
+	/**
+	 * Records a setting value applied in the current transaction (no-op outside a transaction).
+	 *
+	 * @param unit  Persistence unit.
+	 * @param name  Setting name.
+	 * @param value Value.
+	 */
+	public static void applied(
+			final EntityManagerFactory unit,
+			final String name,
+			final String value) {
+		final Map<String, String> settings = TransactionSettings.getSettings(unit, true);
+		if (settings != null) {
+			settings.put(name, value);
+		}
+	}
+
+	/**
+	 * Forgets a setting value (so the next request for it is sent again).
+	 *
+	 * @param unit Persistence unit.
+	 * @param name Setting name.
+	 */
+	public static void reset(
+			final EntityManagerFactory unit,
+			final String name) {
+		final Map<String, String> settings = TransactionSettings.getSettings(unit, false);
+		if (settings != null) {
+			settings.remove(name);
+		}
+	}
+
+	/**
+	 * Transaction resource key of a persistence unit's settings.
+	 *
+	 * @param unit Persistence unit.
+	 */
+	private record ResourceKey(EntityManagerFactory unit) {
+	}
+
+}
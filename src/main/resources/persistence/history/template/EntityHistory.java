@@ -12,6 +12,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 import org.coldis.library.persistence.model.AbstractTimestampableEntity;
@@ -71,6 +72,7 @@ public class ${historicalEntity.getEntityTypeName()} extends AbstractTimestampab
 	@Id
 	@Override
 	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "${historicalEntity.getSequenceName()}")
+	@SequenceGenerator(name = "${historicalEntity.getSequenceName()}", sequenceName = "${historicalEntity.getSequenceName()}", allocationSize = ${historicalEntity.getSequenceAllocationSize()})
 	public Long getId() {
 		return id;
 	}
@@ -1,6 +1,6 @@
 package ${historicalEntity.getRepositoryPackageName()};
 
-import org.springframework.data.repository.CrudRepository;
+import org.coldis.library.persistence.repository.PostgresJpaRepository;
 import org.springframework.stereotype.Repository;
 
 import ${historicalEntity.getEntityQualifiedTypeName()};
@@ -9,6 +9,6 @@ import ${historicalEntity.getEntityQualifiedTypeName()};
  * JPA entity history repository for {@link ${historicalEntity.getOriginalEntityQualifiedTypeName()}}.
  */
 @Repository(value = "${historicalEntity.getRepositoryBeanName()}")
-public interface ${historicalEntity.getRepositoryTypeName()} extends CrudRepository<${historicalEntity.getEntityTypeName()}, Long> {
+public interface ${historicalEntity.getRepositoryTypeName()} extends PostgresJpaRepository<${historicalEntity.getEntityTypeName()}, Long> {
 
 }
@@ -0,0 +1,104 @@
+package org.coldis.library.persistence.configuration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.coldis.library.test.persistence.secondary.model.TestSecondaryEntity;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Tests {@link DatasourceUnitScan} over classpath roots with and without a datasource unit index.
+ */
+public class DatasourceUnitScanTest {
+
+	/** Indexed (but absent) entity. */
+	private static final String INDEXED_ENTITY = "org.coldis.library.test.indexed.IndexedEntity";
+
+	/** Indexed (but absent) repository. */
+	private static final String INDEXED_REPOSITORY = "org.coldis.library.test.indexed.IndexedRepository";
+
+	/** Classpath root with an index only (its types are not on disk, so they can only come from it). */
+	@TempDir
+	Path indexedRoot;
+
+	/** Classpath root with a compiled annotated entity and no index. */
+	@TempDir
+	Path scannedRoot;
+
+	/**
+	 * Writes the index of the indexed root.
+	 */
+	private void writeIndex() throws IOException {
+		final Path index = this.indexedRoot.resolve(DatasourceUnitScan.INDEX_LOCATION);
+		Files.createDirectories(index.getParent());
+		Files.writeString(index, DatasourceUnitScanTest.INDEXED_ENTITY + "=indexed," + DatasourceUnitScan.INDEX_CLASS + "\n"
+				+ DatasourceUnitScanTest.INDEXED_REPOSITORY + "=indexed," + DatasourceUnitScan.INDEX_INTERFACE + "\n");
+		Files.createDirectories(this.indexedRoot.resolve("org/coldis/library/test/indexed"));
+	}
+
+	/**
+	 * Copies an annotated entity class file to the scanned root.
+	 */
+	private void copyAnnotatedEntity() throws IOException {
+		final String classFile = ClassUtils.convertClassNameToResourcePath(TestSecondaryEntity.class.getName()) + ".class";
+		final Path target = this.scannedRoot.resolve(classFile);
+		Files.createDirectories(target.getParent());
+		try (InputStream input = TestSecondaryEntity.class.getClassLoader().getResourceAsStream(classFile)) {
+			Files.copy(input, target);
+		}
+	}
+
+	/**
+	 * Scans the base packages over the given roots only.
+	 */
+	private DatasourceUnitScan scan(
+			final Path... roots) throws IOException {
+		final URL[] urls = new URL[roots.length];
+		for (int index = 0; index < roots.length; index++) {
+			urls[index] = roots[index].toUri().toURL();
+		}
+		try (URLClassLoader classLoader = new URLClassLoader(urls, null)) {
+			return DatasourceUnitScan.of(new DefaultResourceLoader(classLoader), List.of("org.coldis.library.test"));
+		}
+	}
+
+	@Test
+	public void testIndexedRootIsReadFromTheIndex() throws IOException {
+		this.writeIndex();
+		final DatasourceUnitScan scan = this.scan(this.indexedRoot);
+		Assertions.assertEquals(Map.of("indexed", Set.of(DatasourceUnitScanTest.INDEXED_ENTITY, DatasourceUnitScanTest.INDEXED_REPOSITORY)),
+				scan.getClassNamesByUnit());
+		Assertions.assertArrayEquals(new String[] { DatasourceUnitScanTest.INDEXED_ENTITY }, scan.getEntityClassNames("indexed"));
+	}
+
+	@Test
+	public void testRootWithoutIndexIsScanned() throws IOException {
+		this.copyAnnotatedEntity();
+		final DatasourceUnitScan scan = this.scan(this.scannedRoot);
+		Assertions.assertArrayEquals(new String[] { TestSecondaryEntity.class.getName() }, scan.getEntityClassNames("secondary"));
+	}
+
+	@Test
+	public void testRootWithoutIndexIsScannedNextToAnIndexedOne() throws IOException {
+		this.writeIndex();
+		this.copyAnnotatedEntity();
+		final DatasourceUnitScan scan = this.scan(this.indexedRoot, this.scannedRoot);
+		Assertions.assertArrayEquals(new String[] { DatasourceUnitScanTest.INDEXED_ENTITY }, scan.getEntityClassNames("indexed"));
+		Assertions.assertArrayEquals(new String[] { TestSecondaryEntity.class.getName() }, scan.getEntityClassNames("secondary"),
+				"an index in another root must not hide the types of a root without one");
+		Assertions.assertEquals(Set.of(DatasourceUnitScanTest.INDEXED_ENTITY, DatasourceUnitScanTest.INDEXED_REPOSITORY, TestSecondaryEntity.class.getName()),
+				scan.getAnnotatedClassNames());
+	}
+
+}
@@ -12,6 +12,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 import org.coldis.library.persistence.model.AbstractTimestampableEntity;
@@ -71,6 +72,7 @@ public class TestHistoricalEntityHistory extends AbstractTimestampableEntity
 	@Id
 	@Override
 	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "TestHistoricalEntityHistorySequence")
+	@SequenceGenerator(name = "TestHistoricalEntityHistorySequence", sequenceName = "TestHistoricalEntityHistorySequence", allocationSize = 50)
 	public Long getId() {
 		return id;
 	}
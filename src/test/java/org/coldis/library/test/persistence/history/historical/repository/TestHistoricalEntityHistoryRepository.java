@@ -1,6 +1,6 @@
 package org.coldis.library.test.persistence.history.historical.repository;
 
-import org.springframework.data.repository.CrudRepository;
+import org.coldis.library.persistence.repository.PostgresJpaRepository;
 import org.springframework.stereotype.Repository;
 
 import org.coldis.library.test.persistence.history.historical.model.TestHistoricalEntityHistory;
@@ -9,6 +9,6 @@ import org.coldis.library.test.persistence.history.historical.model.TestHistoric
  * JPA entity history repository for {@link org.coldis.library.test.persistence.history.TestHistoricalEntity}.
  */
 @Repository(value = "")
-public interface TestHistoricalEntityHistoryRepository extends CrudRepository<TestHistoricalEntityHistory, Long> {
+public interface TestHistoricalEntityHistoryRepository extends PostgresJpaRepository<TestHistoricalEntityHistory, Long> {
 
 }
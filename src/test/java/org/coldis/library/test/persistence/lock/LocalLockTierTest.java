@@ -0,0 +1,241 @@
+package org.coldis.library.test.persistence.lock;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.coldis.library.exception.BusinessException;
+import org.coldis.library.persistence.LockBehavior;
+import org.coldis.library.persistence.lock.LockServiceComponent;
+import org.coldis.library.persistence.lock.LockType;
+import org.coldis.library.test.SpringTestHelper;
+import org.coldis.library.test.StartTestWithContainerExtension;
+import org.coldis.library.test.StopTestWithContainerExtension;
+import org.coldis.library.test.TestHelper;
+import org.coldis.library.test.TestWithContainer;
+import org.coldis.library.test.persistence.TestApplication;
+import org.coldis.library.test.persistence.model.TestEntityRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.GenericContainer;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Lock service test with the in-JVM tier enabled
+ * ({@code org.coldis.configuration.persistence.lock.local-tier.enabled=true}).
+ */
+@TestWithContainer
+@ExtendWith(StartTestWithContainerExtension.class)
+@SpringBootTest(
+		webEnvironment = WebEnvironment.RANDOM_PORT,
+		classes = TestApplication.class,
+		properties = { "org.coldis.configuration.persistence.lock.local-tier.enabled=true" }
+)
+@ExtendWith(StopTestWithContainerExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+public class LocalLockTierTest extends SpringTestHelper {
+
+	public static GenericContainer<?> POSTGRES_CONTAINER = TestHelper.createPostgresContainer();
+
+	public static GenericContainer<?> ARTEMIS_CONTAINER = TestHelper.createArtemisContainer();
+
+	private static final long HOLD_PERIOD_MS = 1500L;
+
+	@Autowired
+	private LockServiceComponent lockService;
+
+	@Autowired
+	private TestEntityRepository repository;
+
+	@Autowired
+	private DataSource dataSource;
+
+	private final List<Boolean> acquireOutcomes = Collections.synchronizedList(new ArrayList<>());
+
+	@BeforeEach
+	public void beforeEach() {
+		this.acquireOutcomes.clear();
+	}
+
+	/**
+	 * Locks the keys, signals, and holds the tx open.
+	 */
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public void lockAndHold(
+			final List<String> keys,
+			final CountDownLatch acquired,
+			final long holdMillis) throws InterruptedException, BusinessException {
+		this.lockService.lockKeysBlocking(keys);
+		acquired.countDown();
+		Thread.sleep(holdMillis);
+	}
+
+	/**
+	 * Locks the keys with a transaction lock timeout.
+	 */
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public void lockWithTimeout(
+			final List<String> keys,
+			final Duration timeout) throws BusinessException {
+		this.repository.setLockTimeout(timeout);
+		this.lockService.lockKeysBlocking(keys);
+	}
+
+	/**
+	 * Tries to lock the keys, recording the outcome.
+	 */
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public void tryLock(
+			final List<String> keys) throws BusinessException {
+		this.acquireOutcomes.add(this.lockService.lockKeys(LockBehavior.LOCK_SKIP, LockType.ADVISORY, LockServiceComponent.DEFAULT_NAMESPACE, keys));
+	}
+
+	/**
+	 * Locks the same key twice in one transaction.
+	 */
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public void lockTwice(
+			final String key) throws BusinessException {
+		this.lockService.lockKeysBlocking(List.of(key));
+		this.lockService.lockKeysBlocking(List.of(key, key + "-other"));
+	}
+
+	/**
+	 * Counts the advisory lock requests waiting in Postgres.
+	 */
+	private long countAdvisoryWaiters() throws SQLException {
+		try (Connection connection = this.dataSource.getConnection();
+				Statement statement = connection.createStatement();
+				ResultSet resultSet = statement.executeQuery("SELECT count(*) FROM pg_locks WHERE locktype = 'advisory' AND NOT granted")) {
+			resultSet.next();
+			return resultSet.getLong(1);
+		}
+	}
+
+	/**
+	 * Counts the active connections of the primary pool.
+	 */
+	private int countActiveConnections() throws SQLException {
+		return this.dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean().getActiveConnections();
+	}
+
+	private class LockThread extends Thread {
+
+		final List<String> keys;
+		final long holdMs;
+		final CountDownLatch acquired = new CountDownLatch(1);
+		boolean finished = false;
+		Exception error;
+
+		LockThread(final List<String> keys, final long holdMs) {
+			this.keys = keys;
+			this.holdMs = holdMs;
+		}
+
+		@Override
+		public void run() {
+			try {
+				LocalLockTierTest.this.lockAndHold(this.keys, this.acquired, this.holdMs);
+			}
+			catch (final Exception exception) {
+				this.error = exception;
+			}
+			this.finished = true;
+		}
+	}
+
+	@Test
+	@DisplayName("LOCAL TIER: only the holder contends in Postgres, the other local waiters queue in the JVM")
+	public void testLocalTierQueuesContendersInJvm() throws Exception {
+		final String key = "local-tier-" + System.nanoTime();
+		this.lockTwice(key);
+		final LockThread holder = new LockThread(List.of(key), LocalLockTierTest.HOLD_PERIOD_MS);
+		holder.start();
+		Assertions.assertTrue(holder.acquired.await(5, TimeUnit.SECONDS));
+		final List<LockThread> waiters = List.of(new LockThread(List.of(key), 0), new LockThread(List.of(key), 0), new LockThread(List.of(key), 0));
+		waiters.forEach(Thread::start);
+		this.tryLock(List.of(key));
+		Thread.sleep(300);
+		Assertions.assertEquals(0L, this.countAdvisoryWaiters(), "the holder's local permit keeps the waiters out of Postgres");
+		Assertions.assertTrue(TestHelper.waitUntilValid(() -> holder.finished && waiters.stream().allMatch(waiter -> waiter.finished), finished -> finished,
+				TestHelper.VERY_LONG_WAIT, TestHelper.REGULAR_WAIT));
+		Assertions.assertTrue((holder.error == null) && waiters.stream().allMatch(waiter -> waiter.error == null));
+		Assertions.assertEquals(List.of(false), this.acquireOutcomes, "skip must be answered locally while the key is held");
+	}
+
+	@Test
+	@DisplayName("LOCAL TIER: the local waiters hold no pool connection")
+	public void testLocalTierWaitersHoldNoConnection() throws Exception {
+		final String key = "local-tier-connections-" + System.nanoTime();
+		Assertions.assertInstanceOf(LazyConnectionDataSourceProxy.class, this.dataSource);
+		final int idleActiveConnections = this.countActiveConnections();
+		final LockThread holder = new LockThread(List.of(key), LocalLockTierTest.HOLD_PERIOD_MS);
+		holder.start();
+		Assertions.assertTrue(holder.acquired.await(5, TimeUnit.SECONDS));
+		final List<LockThread> waiters = List.of(new LockThread(List.of(key), 0), new LockThread(List.of(key), 0), new LockThread(List.of(key), 0));
+		waiters.forEach(Thread::start);
+		Thread.sleep(300);
+		final int activeConnections = this.countActiveConnections();
+		Assertions.assertTrue(activeConnections <= (idleActiveConnections + 1),
+				"only the holder should hold a connection (active=" + activeConnections + ", before=" + idleActiveConnections + ")");
+		Assertions.assertTrue(TestHelper.waitUntilValid(() -> holder.finished && waiters.stream().allMatch(waiter -> waiter.finished), finished -> finished,
+				TestHelper.VERY_LONG_WAIT, TestHelper.REGULAR_WAIT));
+		Assertions.assertTrue((holder.error == null) && waiters.stream().allMatch(waiter -> waiter.error == null));
+	}
+
+	@Test
+	@DisplayName("LOCAL TIER: a local wait is bounded by the transaction lock timeout")
+	public void testLocalTierWaitBoundedByLockTimeout() throws Exception {
+		final String key = "local-tier-timeout-" + System.nanoTime();
+		final LockThread holder = new LockThread(List.of(key), LocalLockTierTest.HOLD_PERIOD_MS * 2);
+		holder.start();
+		Assertions.assertTrue(holder.acquired.await(5, TimeUnit.SECONDS));
+		final long start = System.currentTimeMillis();
+		Assertions.assertThrows(CannotAcquireLockException.class, () -> this.lockWithTimeout(List.of(key), Duration.ofMillis(300)));
+		final long elapsed = System.currentTimeMillis() - start;
+		Assertions.assertTrue(elapsed < LocalLockTierTest.HOLD_PERIOD_MS, "the wait should end at the lock timeout (elapsed=" + elapsed + "ms)");
+		// The timed out wait must not have kept a permit.
+		Assertions.assertTrue(TestHelper.waitUntilValid(() -> holder.finished, finished -> finished, TestHelper.VERY_LONG_WAIT, TestHelper.REGULAR_WAIT));
+		this.tryLock(List.of(key));
+		Assertions.assertEquals(List.of(true), this.acquireOutcomes);
+	}
+
+	@Test
+	@DisplayName("LOCAL TIER: an interrupted local wait gives up")
+	public void testLocalTierWaitInterrupted() throws Exception {
+		final String key = "local-tier-interrupted-" + System.nanoTime();
+		final LockThread holder = new LockThread(List.of(key), LocalLockTierTest.HOLD_PERIOD_MS * 2);
+		holder.start();
+		Assertions.assertTrue(holder.acquired.await(5, TimeUnit.SECONDS));
+		final LockThread waiter = new LockThread(List.of(key), 0);
+		waiter.start();
+		Thread.sleep(200);
+		waiter.interrupt();
+		Assertions.assertTrue(TestHelper.waitUntilValid(() -> waiter.finished, finished -> finished, TestHelper.LONG_WAIT, TestHelper.SHORT_WAIT));
+		Assertions.assertFalse(holder.finished, "the waiter should give up before the holder releases");
+		Assertions.assertInstanceOf(CannotAcquireLockException.class, waiter.error);
+		Assertions.assertTrue(TestHelper.waitUntilValid(() -> holder.finished, finished -> finished, TestHelper.VERY_LONG_WAIT, TestHelper.REGULAR_WAIT));
+	}
+
+}
@@ -1,16 +1,25 @@
 package org.coldis.library.test.persistence.lock;
 
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
 
 import org.coldis.library.exception.BusinessException;
 import org.coldis.library.helper.DateTimeHelper;
 import org.coldis.library.persistence.LockBehavior;
 import org.coldis.library.persistence.lock.LockServiceComponent;
 import org.coldis.library.persistence.lock.LockType;
+import org.coldis.library.persistence.lock.SessionLock;
 import org.coldis.library.test.SpringTestHelper;
 import org.coldis.library.test.StartTestWithContainerExtension;
 import org.coldis.library.test.StopTestWithContainerExtension;
@@ -25,19 +34,21 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.testcontainers.containers.GenericContainer;
 
 /**
- * Lock service test — covers both {@link LockType#ADVISORY} and {@link LockType#TABLE}.
+ * Lock service test — covers {@link LockType#ADVISORY}, {@link LockType#ADVISORY_64} and {@link LockType#TABLE}.
  */
 @TestWithContainer
 @ExtendWith(StartTestWithContainerExtension.class)
 @SpringBootTest(
 		webEnvironment = WebEnvironment.RANDOM_PORT,
-		classes = TestApplication.class
+		classes = TestApplication.class,
+		properties = "org.coldis.configuration.persistence.lock.session-heartbeat-interval=200ms"
 )
 @ExtendWith(StopTestWithContainerExtension.class)
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
@@ -52,6 +63,9 @@ public class LockTest extends SpringTestHelper {
 	@Autowired
 	private LockServiceComponent lockService;
 
+	@Autowired
+	private DataSource dataSource;
+
 	private final List<LocalDateTime> lockAcquiredAt = Collections.synchronizedList(new ArrayList<>());
 
 	private final List<Boolean> acquireOutcomes = Collections.synchronizedList(new ArrayList<>());
@@ -63,29 +77,33 @@ public class LockTest extends SpringTestHelper {
 	}
 
 	/**
-	 * Acquires locks (default namespace), records the timestamp, holds the tx open.
+	 * Acquires locks (default namespace), records the timestamp, signals, holds the tx open.
 	 */
 	@Transactional(propagation = Propagation.REQUIRES_NEW)
 	public void lockAndHold(
 			final LockType type,
 			final List<String> keys,
+			final CountDownLatch acquired,
 			final long holdMillis) throws InterruptedException, BusinessException {
 		this.lockService.lockKeys(LockBehavior.WAIT_AND_LOCK, type, LockServiceComponent.DEFAULT_NAMESPACE, keys);
 		this.lockAcquiredAt.add(DateTimeHelper.getCurrentLocalDateTime());
+		acquired.countDown();
 		Thread.sleep(holdMillis);
 	}
 
 	/**
-	 * Acquires locks under a numeric namespace, records the timestamp, holds the tx open.
+	 * Acquires locks under a numeric namespace, records the timestamp, signals, holds the tx open.
 	 */
 	@Transactional(propagation = Propagation.REQUIRES_NEW)
 	public void lockNamespacedAndHold(
 			final LockType type,
 			final int namespace,
 			final List<String> keys,
+			final CountDownLatch acquired,
 			final long holdMillis) throws InterruptedException, BusinessException {
 		this.lockService.lockKeys(LockBehavior.WAIT_AND_LOCK, type, namespace, keys);
 		this.lockAcquiredAt.add(DateTimeHelper.getCurrentLocalDateTime());
+		acquired.countDown();
 		Thread.sleep(holdMillis);
 	}
 
@@ -112,6 +130,7 @@ public class LockTest extends SpringTestHelper {
 		final Integer namespace;
 		final List<String> keys;
 		final long holdMs;
+		final CountDownLatch acquired = new CountDownLatch(1);
 		boolean finished = false;
 		String error = "";
 
@@ -130,10 +149,10 @@ public class LockTest extends SpringTestHelper {
 		public void run() {
 			try {
 				if (this.namespace == null) {
-					LockTest.this.lockAndHold(this.type, this.keys, this.holdMs);
+					LockTest.this.lockAndHold(this.type, this.keys, this.acquired, this.holdMs);
 				}
 				else {
-					LockTest.this.lockNamespacedAndHold(this.type, this.namespace, this.keys, this.holdMs);
+					LockTest.this.lockNamespacedAndHold(this.type, this.namespace, this.keys, this.acquired, this.holdMs);
 				}
 			}
 			catch (final Exception exception) {
@@ -232,7 +251,7 @@ public class LockTest extends SpringTestHelper {
 	@Test
 	@DisplayName("ADVISORY: empty key collection is a no-op")
 	public void testAdvisoryEmptyKeysIsNoOp() throws Exception {
-		this.lockAndHold(LockType.ADVISORY, List.of(), 0);
+		this.lockAndHold(LockType.ADVISORY, List.of(), new CountDownLatch(1), 0);
 		Assertions.assertEquals(1, this.lockAcquiredAt.size());
 	}
 
@@ -254,6 +273,178 @@ public class LockTest extends SpringTestHelper {
 		Assertions.assertEquals(2, this.lockAcquiredAt.size());
 	}
 
+	// =========================================================================================
+	// ADVISORY_64 mode tests.
+	// =========================================================================================
+
+	@Test
+	@DisplayName("ADVISORY_64: same key in two transactions serializes — second acquires only after the first commits")
+	public void testAdvisory64SameKeyBlocks() throws Exception {
+		final String key = "advisory64-test-same-key-" + System.nanoTime();
+		final LockThread t1 = new LockThread(LockType.ADVISORY_64, List.of(key), LockTest.HOLD_PERIOD_MS);
+		final LockThread t2 = new LockThread(LockType.ADVISORY_64, List.of(key), LockTest.HOLD_PERIOD_MS);
+		t1.start();
+		Thread.sleep(150);
+		t2.start();
+		Assertions.assertTrue(TestHelper.waitUntilValid(() -> t1.finished && t2.finished, finished -> finished, TestHelper.VERY_LONG_WAIT,
+				TestHelper.REGULAR_WAIT));
+		Assertions.assertTrue(t1.error.isEmpty() && t2.error.isEmpty(), "t1.error=" + t1.error + " t2.error=" + t2.error);
+		Assertions.assertEquals(2, this.lockAcquiredAt.size());
+		final LocalDateTime first = this.lockAcquiredAt.get(0);
+		final LocalDateTime second = this.lockAcquiredAt.get(1);
+		Assertions.assertTrue(first.until(second, ChronoUnit.MILLIS) >= (LockTest.HOLD_PERIOD_MS - 200),
+				"second acquired only " + first.until(second, ChronoUnit.MILLIS) + " ms after first");
+	}
+
+	@Test
+	@DisplayName("ADVISORY_64: same key in different namespaces, or under ADVISORY, does not block")
+	public void testAdvisory64DistinctLocksDontBlock() throws Exception {
+		final String key = "advisory64-distinct-" + System.nanoTime();
+		final LockThread t1 = new LockThread(LockType.ADVISORY_64, 1, List.of(key), LockTest.HOLD_PERIOD_MS);
+		final LockThread t2 = new LockThread(LockType.ADVISORY_64, 2, List.of(key), LockTest.HOLD_PERIOD_MS);
+		final LockThread t3 = new LockThread(LockType.ADVISORY, 1, List.of(key), LockTest.HOLD_PERIOD_MS);
+		t1.start();
+		t2.start();
+		t3.start();
+		Assertions.assertTrue(TestHelper.waitUntilValid(() -> t1.finished && t2.finished && t3.finished, finished -> finished,
+				TestHelper.VERY_LONG_WAIT, TestHelper.REGULAR_WAIT));
+		Assertions.assertTrue(t1.error.isEmpty() && t2.error.isEmpty() && t3.error.isEmpty(),
+				"t1.error=" + t1.error + " t2.error=" + t2.error + " t3.error=" + t3.error);
+		Assertions.assertEquals(3, this.lockAcquiredAt.size());
+		Assertions.assertTrue(this.lockAcquiredAt.get(0).until(this.lockAcquiredAt.get(2), ChronoUnit.MILLIS) < LockTest.HOLD_PERIOD_MS);
+	}
+
+	@Test
+	@DisplayName("ADVISORY_64: LOCK_SKIP returns false immediately when the key is held by another transaction")
+	public void testAdvisory64SkipReturnsFalseWhenContended() throws Exception {
+		final String key = "advisory64-skip-" + System.nanoTime();
+		final LockThread holder = new LockThread(LockType.ADVISORY_64, List.of(key), LockTest.HOLD_PERIOD_MS);
+		holder.start();
+		Thread.sleep(200);
+		final TryLockThread skipper = new TryLockThread(LockBehavior.LOCK_SKIP, LockType.ADVISORY_64, List.of(key, key + "-free"), 0);
+		skipper.start();
+		Assertions.assertTrue(TestHelper.waitUntilValid(() -> skipper.finished, finished -> finished, TestHelper.LONG_WAIT, TestHelper.SHORT_WAIT));
+		Assertions.assertTrue(skipper.error.isEmpty(), "skip should not throw: " + skipper.error);
+		Assertions.assertEquals(List.of(false), this.acquireOutcomes);
+		Assertions.assertTrue(TestHelper.waitUntilValid(() -> holder.finished, finished -> finished, TestHelper.VERY_LONG_WAIT, TestHelper.REGULAR_WAIT));
+	}
+
+	/**
+	 * Tries to lock the keys, then checks (from another transaction) whether a free key is lockable
+	 * while this transaction is still open.
+	 */
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public Set<String> tryLockKeysThenProbe(
+			final LockType type,
+			final List<String> keys,
+			final String freeKey) throws InterruptedException, BusinessException {
+		final Set<String> unavailable = this.lockService.tryLockKeys(type, LockServiceComponent.DEFAULT_NAMESPACE, keys);
+		this.tryLockAndHold(LockBehavior.LOCK_SKIP, type, List.of(freeKey), 0);
+		return unavailable;
+	}
+
+	@Test
+	@DisplayName("ADVISORY: a failed non-blocking batch reports the contended keys and releases the ones it got")
+	public void testAdvisoryTryLockReleasesPartialAcquisitions() throws Exception {
+		for (final LockType type : List.of(LockType.ADVISORY, LockType.ADVISORY_64)) {
+			this.acquireOutcomes.clear();
+			final String key = "advisory-partial-" + System.nanoTime();
+			final LockThread holder = new LockThread(type, List.of(key), LockTest.HOLD_PERIOD_MS);
+			holder.start();
+			Thread.sleep(200);
+			Assertions.assertEquals(Set.of(key), this.tryLockKeysThenProbe(type, List.of(key + "-free", key), key + "-free"));
+			Assertions.assertEquals(List.of(true), this.acquireOutcomes, "the free key must not stay locked by the failed batch");
+			Assertions.assertTrue(TestHelper.waitUntilValid(() -> holder.finished, finished -> finished, TestHelper.VERY_LONG_WAIT, TestHelper.REGULAR_WAIT));
+			Assertions.assertEquals(Set.of(), this.tryLockKeysThenProbe(type, List.of(key), key + "-other"));
+			// The savepoint needs a transaction.
+			Assertions.assertThrows(InvalidDataAccessApiUsageException.class,
+					() -> this.lockService.tryLockKeys(type, LockServiceComponent.DEFAULT_NAMESPACE, List.of(key, key + "-other")));
+		}
+	}
+
+	/**
+	 * Locks the available keys, then checks (from another transaction) whether an acquired key is
+	 * lockable while this transaction is still open.
+	 */
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public Set<String> lockAvailableKeysThenProbe(
+			final LockType type,
+			final List<String> keys,
+			final String acquiredKey) throws InterruptedException, BusinessException {
+		final Set<String> acquired = this.lockService.lockAvailableKeys(type, LockServiceComponent.DEFAULT_NAMESPACE, keys);
+		this.tryLockAndHold(LockBehavior.LOCK_SKIP, type, List.of(acquiredKey), 0);
+		return acquired;
+	}
+
+	@Test
+	@DisplayName("PARTIAL: locks every key that is not contended and returns them")
+	public void testLockAvailableKeysReturnsAcquiredSubset() throws Exception {
+		for (final LockType type : LockType.values()) {
+			this.acquireOutcomes.clear();
+			final String key = "partial-" + type + "-" + System.nanoTime();
+			final List<String> keys = List.of(key + "-a", key + "-b", key, key + "-c", key + "-d");
+			final LockThread holder = new LockThread(type, List.of(key), LockTest.HOLD_PERIOD_MS);
+			holder.start();
+			Assertions.assertTrue(holder.acquired.await(5, TimeUnit.SECONDS), "holder failed to acquire the lock: " + type);
+			Assertions.assertEquals(Set.of(key + "-a", key + "-b", key + "-c", key + "-d"), this.lockAvailableKeysThenProbe(type, keys, key + "-c"),
+					type.toString());
+			Assertions.assertEquals(List.of(false), this.acquireOutcomes, "the acquired keys must stay locked: " + type);
+			Assertions.assertTrue(TestHelper.waitUntilValid(() -> holder.finished, finished -> finished, TestHelper.VERY_LONG_WAIT, TestHelper.REGULAR_WAIT));
+			Assertions.assertTrue(holder.error.isEmpty(), holder.error);
+			Assertions.assertEquals(Set.of(key), this.lockAvailableKeysThenProbe(type, List.of(key), key + "-other"), type.toString());
+			Assertions.assertEquals(Set.of(), this.lockService.lockAvailableKeys(type, LockServiceComponent.DEFAULT_NAMESPACE, List.of()));
+		}
+	}
+
+	// =========================================================================================
+	// Session-scoped lock tests.
+	// =========================================================================================
+
+	@Test
+	@DisplayName("SESSION: held across transactions until closed, excluding transaction-scoped and other session locks on the key")
+	public void testSessionLockHeldUntilClosed() throws Exception {
+		final String key = "session-" + System.nanoTime();
+		final SessionLock lock = this.lockService.lockKeysForSession(LockBehavior.LOCK_FAIL_FAST, LockType.ADVISORY_64,
+				LockServiceComponent.DEFAULT_NAMESPACE, List.of(key));
+		try (lock) {
+			Assertions.assertNotNull(lock);
+			Assertions.assertTrue(lock.isHeld());
+			this.tryLockAndHold(LockBehavior.LOCK_SKIP, LockType.ADVISORY_64, List.of(key), 0);
+			Assertions.assertNull(this.lockService.lockKeysForSession(LockBehavior.LOCK_SKIP, LockType.ADVISORY_64, LockServiceComponent.DEFAULT_NAMESPACE,
+					List.of(key + "-free", key)));
+			lock.verify();
+		}
+		Assertions.assertFalse(lock.isHeld());
+		Assertions.assertThrows(BusinessException.class, lock::verify);
+		this.tryLockAndHold(LockBehavior.LOCK_SKIP, LockType.ADVISORY_64, List.of(key), 0);
+		// The failed session attempt must not have kept its partial acquisition.
+		this.tryLockAndHold(LockBehavior.LOCK_SKIP, LockType.ADVISORY_64, List.of(key + "-free"), 0);
+		Assertions.assertEquals(List.of(false, true, true), this.acquireOutcomes);
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> this.lockService.lockKeysForSession(LockBehavior.WAIT_AND_LOCK, LockType.TABLE, LockServiceComponent.DEFAULT_NAMESPACE, List.of(key)));
+	}
+
+	@Test
+	@DisplayName("SESSION: a terminated backend is reported as a lost lock and releases the key")
+	public void testSessionLockReportsTerminatedBackend() throws Exception {
+		final String key = "session-lost-" + System.nanoTime();
+		try (SessionLock lock = this.lockService.lockKeysForSession(LockBehavior.LOCK_FAIL_FAST, LockType.ADVISORY_64,
+				LockServiceComponent.DEFAULT_NAMESPACE, List.of(key))) {
+			Assertions.assertTrue(lock.isHeld());
+			try (Connection connection = this.dataSource.getConnection();
+					Statement statement = connection.createStatement();
+					ResultSet resultSet = statement.executeQuery("SELECT count(pg_terminate_backend(pid)) FROM (SELECT DISTINCT pid FROM pg_locks "
+							+ "WHERE locktype = 'advisory' AND granted AND pid <> pg_backend_pid()) AS holders")) {
+				resultSet.next();
+				Assertions.assertEquals(1L, resultSet.getLong(1));
+			}
+			Assertions.assertTrue(TestHelper.waitUntilValid(() -> lock.isHeld(), held -> !held, TestHelper.VERY_LONG_WAIT, TestHelper.REGULAR_WAIT));
+			Assertions.assertThrows(BusinessException.class, lock::verify);
+		}
+		this.tryLockAndHold(LockBehavior.LOCK_SKIP, LockType.ADVISORY_64, List.of(key), 0);
+		Assertions.assertEquals(List.of(true), this.acquireOutcomes);
+	}
+
 	// =========================================================================================
 	// TABLE mode tests.
 	// =========================================================================================
@@ -2,22 +2,32 @@ package org.coldis.library.test.persistence.model;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.List;
 
+import org.coldis.library.helper.DateTimeHelper;
+import org.coldis.library.persistence.model.ExpiredEntityReaperComponent;
 import org.coldis.library.test.SpringTestHelper;
 import org.coldis.library.test.StartTestWithContainerExtension;
 import org.coldis.library.test.StopTestWithContainerExtension;
 import org.coldis.library.test.TestHelper;
 import org.coldis.library.test.TestWithContainer;
 import org.coldis.library.test.persistence.TestApplication;
+import org.coldis.library.test.persistence.repository.PostgresJpaRepositoryTest;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.annotation.DirtiesContext;
 import org.testcontainers.containers.GenericContainer;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.metamodel.EntityType;
+
 /**
  * Persistence model test.
  */
@@ -28,6 +38,7 @@ import org.testcontainers.containers.GenericContainer;
 		properties = "test.properties",
 		classes = TestApplication.class
 )
+@Import(value = { PostgresJpaRepositoryTest.MeterRegistryConfiguration.class })
 @ExtendWith(StopTestWithContainerExtension.class)
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
 public class PersistenceTest extends SpringTestHelper {
@@ -48,6 +59,24 @@ public class PersistenceTest extends SpringTestHelper {
 	@Autowired
 	private TestEntityRepository testEntityRepository;
 
+	/**
+	 * Expired entity reaper.
+	 */
+	@Autowired
+	private ExpiredEntityReaperComponent expiredEntityReaper;
+
+	/**
+	 * Meter registry.
+	 */
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	/**
+	 * Entity manager.
+	 */
+	@PersistenceContext
+	private EntityManager entityManager;
+
 	/**
 	 * Test entity service.
 	 */
@@ -147,4 +176,34 @@ public class PersistenceTest extends SpringTestHelper {
 		Assertions.assertEquals("22", testEntity.getAttribute3().get(1).getAttribute2());
 	}
 
+	/**
+	 * Tests the expired entity reaper.
+	 */
+	@Test
+	public void testExpiredEntityReaper() {
+		// Creates expired and live entities.
+		final List<Long> expiredIds = new ArrayList<>();
+		for (int index = 0; index < 5; index++) {
+			final TestEntity testEntity = new TestEntity();
+			testEntity.setExpiredAt(DateTimeHelper.getCurrentLocalDateTime().minusMinutes(1));
+			expiredIds.add(this.testEntityService.save(testEntity).getId());
+		}
+		final TestEntity liveEntity = new TestEntity();
+		liveEntity.setExpiredAt(DateTimeHelper.getCurrentLocalDateTime().plusHours(1));
+		final Long liveId = this.testEntityService.save(liveEntity).getId();
+		// Reaps the test entity table (in chunks of 2).
+		final EntityType<TestEntity> entityType = this.entityManager.getMetamodel().entity(TestEntity.class);
+		Assertions.assertTrue(this.expiredEntityReaper.getStatistics().containsKey(entityType.getName()));
+		Assertions.assertTrue(this.expiredEntityReaper.reap(entityType) >= expiredIds.size());
+		// Makes sure only the expired rows are gone.
+		Assertions.assertTrue(this.testEntityRepository.findAllById(expiredIds).isEmpty());
+		Assertions.assertTrue(this.testEntityRepository.findById(liveId).isPresent());
+		Assertions.assertTrue(this.expiredEntityReaper.getStatistics().get(entityType.getName()).getDeletedRows() >= expiredIds.size());
+		// The counters are published to the meter registry.
+		Assertions.assertTrue(this.meterRegistry.get(ExpiredEntityReaperComponent.DELETED_METER).tag("entity", entityType.getName()).functionCounter()
+				.count() >= expiredIds.size());
+		Assertions.assertTrue(
+				this.meterRegistry.get(ExpiredEntityReaperComponent.RUNS_METER).tag("entity", entityType.getName()).functionCounter().count() >= 1);
+	}
+
 }
@@ -0,0 +1,81 @@
+package org.coldis.library.test.persistence.model;
+
+import java.io.Serializable;
+
+import jakarta.persistence.Embeddable;
+
+/**
+ * Embedded amount (exercises embedded columns in {@code bulkCopy}).
+ */
+@Embeddable
+public class TestCopyAmount implements Serializable {
+
+	/**
+	 * Serial.
+	 */
+	private static final long serialVersionUID = 4182231957284377914L;
+
+	/**
+	 * Amount value.
+	 */
+	private Long amountValue;
+
+	/**
+	 * Amount currency.
+	 */
+	private String amountCurrency;
+
+	/**
+	 * No arguments constructor.
+	 */
+	public TestCopyAmount() {
+	}
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param amountValue    Amount value.
+	 * @param amountCurrency Amount currency.
+	 */
+	public TestCopyAmount(final Long amountValue, final String amountCurrency) {
+		this.amountValue = amountValue;
+		this.amountCurrency = amountCurrency;
+	}
+
+	/**
+	 * Gets the amount value.
+	 *
+	 * @return The amount value.
+	 */
+	public Long getAmountValue() {
+		return this.amountValue;
+	}
+
+	/**
+	 * Sets the amount value.
+	 *
+	 * @param amountValue New amount value.
+	 */
+	public void setAmountValue(final Long amountValue) {
+		this.amountValue = amountValue;
+	}
+
+	/**
+	 * Gets the amount currency.
+	 *
+	 * @return The amount currency.
+	 */
+	public String getAmountCurrency() {
+		return this.amountCurrency;
+	}
+
+	/**
+	 * Sets the amount currency.
+	 *
+	 * @param amountCurrency New amount currency.
+	 */
+	public void setAmountCurrency(final String amountCurrency) {
+		this.amountCurrency = amountCurrency;
+	}
+
+}
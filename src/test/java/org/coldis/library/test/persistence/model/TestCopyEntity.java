@@ -0,0 +1,121 @@
+package org.coldis.library.test.persistence.model;
+
+import java.io.Serializable;
+
+import jakarta.persistence.Embedded;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.ManyToOne;
+
+/**
+ * Test entity with an identity id, a many-to-one association and an embedded attribute (exercises
+ * {@code bulkCopy} column mapping).
+ */
+@Entity
+public class TestCopyEntity implements Serializable {
+
+	/**
+	 * Serial.
+	 */
+	private static final long serialVersionUID = -6050413914571260833L;
+
+	/**
+	 * Identifier.
+	 */
+	private Long id;
+
+	/**
+	 * Name.
+	 */
+	private String name;
+
+	/**
+	 * Parent entity.
+	 */
+	private TestEntity parent;
+
+	/**
+	 * Amount.
+	 */
+	private TestCopyAmount amount;
+
+	/**
+	 * Gets the id.
+	 *
+	 * @return The id.
+	 */
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	public Long getId() {
+		return this.id;
+	}
+
+	/**
+	 * Sets the id.
+	 *
+	 * @param id New id.
+	 */
+	public void setId(final Long id) {
+		this.id = id;
+	}
+
+	/**
+	 * Gets the name.
+	 *
+	 * @return The name.
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Sets the name.
+	 *
+	 * @param name New name.
+	 */
+	public void setName(final String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Gets the parent entity.
+	 *
+	 * @return The parent entity.
+	 */
+	@ManyToOne(fetch = FetchType.LAZY)
+	public TestEntity getParent() {
+		return this.parent;
+	}
+
+	/**
+	 * Sets the parent entity.
+	 *
+	 * @param parent New parent entity.
+	 */
+	public void setParent(final TestEntity parent) {
+		this.parent = parent;
+	}
+
+	/**
+	 * Gets the amount.
+	 *
+	 * @return The amount.
+	 */
+	@Embedded
+	public TestCopyAmount getAmount() {
+		return this.amount;
+	}
+
+	/**
+	 * Sets the amount.
+	 *
+	 * @param amount New amount.
+	 */
+	public void setAmount(final TestCopyAmount amount) {
+		this.amount = amount;
+	}
+
+}
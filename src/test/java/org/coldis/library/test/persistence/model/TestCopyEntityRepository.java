@@ -0,0 +1,12 @@
+package org.coldis.library.test.persistence.model;
+
+import org.coldis.library.persistence.repository.PostgresJpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Test copy entity repository.
+ */
+@Repository
+public interface TestCopyEntityRepository extends PostgresJpaRepository<TestCopyEntity, Long> {
+
+}
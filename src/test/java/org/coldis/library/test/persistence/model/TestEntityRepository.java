@@ -1,6 +1,8 @@
 package org.coldis.library.test.persistence.model;
 
 import org.coldis.library.persistence.repository.PostgresJpaRepository;
+import org.coldis.library.persistence.repository.QueryBudget;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,4 +14,16 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 public interface TestEntityRepository extends PostgresJpaRepository<TestEntity, Long> {
 
+	/**
+	 * Gets the statement timeout in effect, under a query budget.
+	 *
+	 * @return The statement timeout.
+	 */
+	@QueryBudget(statementTimeout = "1500ms")
+	@Query(
+			value = "SELECT current_setting('statement_timeout')",
+			nativeQuery = true
+	)
+	String findBudgetedStatementTimeout();
+
 }
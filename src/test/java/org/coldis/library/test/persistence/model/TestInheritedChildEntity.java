@@ -0,0 +1,39 @@
+package org.coldis.library.test.persistence.model;
+
+import jakarta.persistence.Entity;
+
+/**
+ * Test inheritance child.
+ */
+@Entity
+public class TestInheritedChildEntity extends TestInheritedEntity {
+
+	/**
+	 * Serial.
+	 */
+	private static final long serialVersionUID = -3630921651412470046L;
+
+	/**
+	 * Child attribute.
+	 */
+	private String childAttribute;
+
+	/**
+	 * Gets the child attribute.
+	 *
+	 * @return The child attribute.
+	 */
+	public String getChildAttribute() {
+		return this.childAttribute;
+	}
+
+	/**
+	 * Sets the child attribute.
+	 *
+	 * @param childAttribute New child attribute.
+	 */
+	public void setChildAttribute(final String childAttribute) {
+		this.childAttribute = childAttribute;
+	}
+
+}
@@ -0,0 +1,49 @@
+package org.coldis.library.test.persistence.model;
+
+import java.io.Serializable;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Inheritance;
+import jakarta.persistence.InheritanceType;
+
+/**
+ * Test inheritance root (mappings {@code bulkCopy} rejects).
+ */
+@Entity
+@Inheritance(strategy = InheritanceType.SINGLE_TABLE)
+public class TestInheritedEntity implements Serializable {
+
+	/**
+	 * Serial.
+	 */
+	private static final long serialVersionUID = 2985716040326127813L;
+
+	/**
+	 * Identifier.
+	 */
+	private Long id;
+
+	/**
+	 * Gets the id.
+	 *
+	 * @return The id.
+	 */
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE)
+	public Long getId() {
+		return this.id;
+	}
+
+	/**
+	 * Sets the id.
+	 *
+	 * @param id New id.
+	 */
+	public void setId(final Long id) {
+		this.id = id;
+	}
+
+}
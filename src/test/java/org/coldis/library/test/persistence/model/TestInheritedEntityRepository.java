@@ -0,0 +1,12 @@
+package org.coldis.library.test.persistence.model;
+
+import org.coldis.library.persistence.repository.PostgresJpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Test inheritance root repository.
+ */
+@Repository
+public interface TestInheritedEntityRepository extends PostgresJpaRepository<TestInheritedEntity, Long> {
+
+}
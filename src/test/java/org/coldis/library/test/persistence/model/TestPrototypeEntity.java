@@ -0,0 +1,113 @@
+package org.coldis.library.test.persistence.model;
+
+import org.coldis.library.persistence.model.AbstractTimestampableEntity;
+
+import jakarta.persistence.Embedded;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+/**
+ * Test entity with an assigned id and an embedded attribute (exercises find-or-create from a
+ * prototype).
+ */
+@Entity
+public class TestPrototypeEntity extends AbstractTimestampableEntity {
+
+	/**
+	 * Serial.
+	 */
+	private static final long serialVersionUID = 3016861520713457292L;
+
+	/**
+	 * Identifier.
+	 */
+	private String id;
+
+	/**
+	 * Name.
+	 */
+	private String name;
+
+	/**
+	 * Amount.
+	 */
+	private TestCopyAmount amount;
+
+	/**
+	 * No arguments constructor.
+	 */
+	public TestPrototypeEntity() {
+		super();
+	}
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param id     Identifier.
+	 * @param name   Name.
+	 * @param amount Amount.
+	 */
+	public TestPrototypeEntity(final String id, final String name, final TestCopyAmount amount) {
+		super();
+		this.id = id;
+		this.name = name;
+		this.amount = amount;
+	}
+
+	/**
+	 * Gets the id.
+	 *
+	 * @return The id.
+	 */
+	@Id
+	public String getId() {
+		return this.id;
+	}
+
+	/**
+	 * Sets the id.
+	 *
+	 * @param id New id.
+	 */
+	public void setId(final String id) {
+		this.id = id;
+	}
+
+	/**
+	 * Gets the name.
+	 *
+	 * @return The name.
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Sets the name.
+	 *
+	 * @param name New name.
+	 */
+	public void setName(final String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Gets the amount.
+	 *
+	 * @return The amount.
+	 */
+	@Embedded
+	public TestCopyAmount getAmount() {
+		return this.amount;
+	}
+
+	/**
+	 * Sets the amount.
+	 *
+	 * @param amount New amount.
+	 */
+	public void setAmount(final TestCopyAmount amount) {
+		this.amount = amount;
+	}
+
+}
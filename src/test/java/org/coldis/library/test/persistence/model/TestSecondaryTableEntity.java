@@ -0,0 +1,73 @@
+package org.coldis.library.test.persistence.model;
+
+import java.io.Serializable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SecondaryTable;
+
+/**
+ * Test entity spread over a secondary table (a mapping {@code bulkCopy} rejects).
+ */
+@Entity
+@SecondaryTable(name = "TestSecondaryTableEntityDetail")
+public class TestSecondaryTableEntity implements Serializable {
+
+	/**
+	 * Serial.
+	 */
+	private static final long serialVersionUID = 7720398147551316032L;
+
+	/**
+	 * Identifier.
+	 */
+	private Long id;
+
+	/**
+	 * Detail (in the secondary table).
+	 */
+	private String detail;
+
+	/**
+	 * Gets the id.
+	 *
+	 * @return The id.
+	 */
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE)
+	public Long getId() {
+		return this.id;
+	}
+
+	/**
+	 * Sets the id.
+	 *
+	 * @param id New id.
+	 */
+	public void setId(final Long id) {
+		this.id = id;
+	}
+
+	/**
+	 * Gets the detail.
+	 *
+	 * @return The detail.
+	 */
+	@Column(table = "TestSecondaryTableEntityDetail")
+	public String getDetail() {
+		return this.detail;
+	}
+
+	/**
+	 * Sets the detail.
+	 *
+	 * @param detail New detail.
+	 */
+	public void setDetail(final String detail) {
+		this.detail = detail;
+	}
+
+}
@@ -0,0 +1,12 @@
+package org.coldis.library.test.persistence.model;
+
+import org.coldis.library.persistence.repository.PostgresJpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Test secondary-table entity repository.
+ */
+@Repository
+public interface TestSecondaryTableEntityRepository extends PostgresJpaRepository<TestSecondaryTableEntity, Long> {
+
+}
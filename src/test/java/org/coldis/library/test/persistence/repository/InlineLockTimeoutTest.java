@@ -0,0 +1,170 @@
+package org.coldis.library.test.persistence.repository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.coldis.library.helper.DateTimeHelper;
+import org.coldis.library.persistence.repository.TransactionSettings;
+import org.coldis.library.test.SpringTestHelper;
+import org.coldis.library.test.StartTestWithContainerExtension;
+import org.coldis.library.test.StopTestWithContainerExtension;
+import org.coldis.library.test.TestHelper;
+import org.coldis.library.test.TestWithContainer;
+import org.coldis.library.test.persistence.TestApplication;
+import org.coldis.library.test.persistence.model.TestEntity;
+import org.coldis.library.test.persistence.model.TestEntityRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.GenericContainer;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Tests the single-statement bounded lock ({@code org.coldis.configuration.persistence.lock-timeout.inline=true}).
+ */
+@TestWithContainer
+@ExtendWith(StartTestWithContainerExtension.class)
+@SpringBootTest(
+		webEnvironment = WebEnvironment.RANDOM_PORT,
+		classes = TestApplication.class,
+		properties = { "org.coldis.configuration.persistence.lock-timeout.inline=true" }
+)
+@ExtendWith(StopTestWithContainerExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+public class InlineLockTimeoutTest extends SpringTestHelper {
+
+	public static GenericContainer<?> POSTGRES_CONTAINER = TestHelper.createPostgresContainer();
+
+	public static GenericContainer<?> ARTEMIS_CONTAINER = TestHelper.createArtemisContainer();
+
+	/** How long the contention holder keeps the row lock. */
+	private static final long HOLD_MS = 2500L;
+
+	@Autowired
+	private TestEntityRepository repository;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	/** Id of a row saved fresh before each test. */
+	private Long entityId;
+
+	@BeforeEach
+	public void beforeEach() {
+		this.entityId = this.createEntity();
+	}
+
+	/**
+	 * Saves a fresh entity and returns its id.
+	 */
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public Long createEntity() {
+		return this.repository.save(new TestEntity()).getId();
+	}
+
+	/**
+	 * Holds the row lock for {@link #HOLD_MS}, signalling once acquired.
+	 */
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public void lockAndHold(
+			final Long id,
+			final CountDownLatch acquired) throws InterruptedException {
+		this.repository.findByIdForUpdateWait(id);
+		acquired.countDown();
+		Thread.sleep(InlineLockTimeoutTest.HOLD_MS);
+	}
+
+	/**
+	 * Locks the row with a bounded wait in a fresh transaction, returning the tracked and actual
+	 * {@code lock_timeout}.
+	 */
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public List<String> lockInline(
+			final Long id) {
+		Assertions.assertTrue(this.repository.findByIdForUpdateWait(id, Duration.ofSeconds(1)).isPresent());
+		return List.of(TransactionSettings.get(this.entityManager.getEntityManagerFactory(), "lock_timeout"),
+				(String) this.entityManager.createNativeQuery("SELECT current_setting('lock_timeout')").getSingleResult());
+	}
+
+	/**
+	 * Dirties the managed row, then locks it with a bounded wait, in a fresh transaction.
+	 */
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public void lockInlineWhileDirty(
+			final Long id,
+			final Duration timeout) {
+		this.repository.findById(id).orElseThrow().setLeasedUntil(DateTimeHelper.getCurrentLocalDateTime().plusMinutes(1));
+		this.repository.findByIdForUpdateWait(id, timeout);
+	}
+
+	@Test
+	@DisplayName("findByIdForUpdateWait(timeout) sets lock_timeout inside the locking statement")
+	public void testInlineLockTimeoutApplied() {
+		Assertions.assertEquals(List.of("1000", "1s"), this.lockInline(this.entityId));
+		Assertions.assertEquals(Optional.of(true), ((Optional<?>) ReflectionTestUtils.getField(AopTestUtils.getUltimateTargetObject(this.repository),
+				"inlineLockQuery")).map(query -> ((String) query).contains("set_config")), "the single-statement query should have been used");
+	}
+
+	@Test
+	@DisplayName("findByIdForUpdateWait(timeout) with an inline timeout fails fast, well before the holder releases")
+	public void testInlineLockTimeoutFailsFast() throws InterruptedException {
+		final CountDownLatch acquired = new CountDownLatch(1);
+		final Thread holder = new Thread(() -> {
+			try {
+				this.lockAndHold(this.entityId, acquired);
+			}
+			catch (final InterruptedException exception) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		holder.setDaemon(true);
+		holder.start();
+		Assertions.assertTrue(acquired.await(5, TimeUnit.SECONDS), "holder failed to acquire the lock");
+		final long start = System.currentTimeMillis();
+		Assertions.assertThrows(PessimisticLockingFailureException.class,
+				() -> this.repository.findByIdForUpdateWait(this.entityId, Duration.ofMillis(200)));
+		final long elapsed = System.currentTimeMillis() - start;
+		Assertions.assertTrue(elapsed < InlineLockTimeoutTest.HOLD_MS, "bounded wait should fail before the holder releases (elapsed=" + elapsed + "ms)");
+		holder.join();
+	}
+
+	@Test
+	@DisplayName("findByIdForUpdateWait(timeout) with an inline timeout does not flush a dirty entity before the timeout applies")
+	public void testInlineLockTimeoutDoesNotAutoFlush() throws InterruptedException {
+		final CountDownLatch acquired = new CountDownLatch(1);
+		final Thread holder = new Thread(() -> {
+			try {
+				this.lockAndHold(this.entityId, acquired);
+			}
+			catch (final InterruptedException exception) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		holder.setDaemon(true);
+		holder.start();
+		Assertions.assertTrue(acquired.await(5, TimeUnit.SECONDS), "holder failed to acquire the lock");
+		final long start = System.currentTimeMillis();
+		// An auto-flushed UPDATE would wait for the holder, with no lock timeout yet.
+		Assertions.assertThrows(PessimisticLockingFailureException.class, () -> this.lockInlineWhileDirty(this.entityId, Duration.ofMillis(200)));
+		final long elapsed = System.currentTimeMillis() - start;
+		Assertions.assertTrue(elapsed < InlineLockTimeoutTest.HOLD_MS, "the dirty entity must not be flushed before the lock timeout (elapsed=" + elapsed + "ms)");
+		holder.join();
+	}
+
+}
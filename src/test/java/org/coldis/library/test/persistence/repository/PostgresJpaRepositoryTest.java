@@ -1,13 +1,30 @@
 package org.coldis.library.test.persistence.repository;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.coldis.library.exception.BusinessException;
+import org.coldis.library.helper.DateTimeHelper;
 import org.coldis.library.persistence.LockBehavior;
+import org.coldis.library.persistence.instrumentation.PersistenceInstrumentation;
 import org.coldis.library.persistence.keyvalue.KeyValue;
 import org.coldis.library.persistence.keyvalue.KeyValueRepository;
+import org.coldis.library.persistence.lock.LockServiceComponent;
+import org.coldis.library.persistence.lock.LockType;
+import org.coldis.library.persistence.properties.DefaultSearchProperties;
+import org.coldis.library.persistence.repository.KeysetCursor;
+import org.coldis.library.persistence.repository.KeysetSlice;
+import org.coldis.library.persistence.repository.TransactionSettings;
 import org.coldis.library.test.SpringTestHelper;
 import org.coldis.library.test.StartTestWithContainerExtension;
 import org.coldis.library.test.StopTestWithContainerExtension;
@@ -15,8 +32,18 @@ import org.coldis.library.test.TestHelper;
 import org.coldis.library.test.TestWithContainer;
 import org.coldis.library.test.persistence.TestApplication;
 import org.coldis.library.test.persistence.keyvalue.TestValue;
+import org.coldis.library.test.persistence.model.TestCopyAmount;
+import org.coldis.library.test.persistence.model.TestCopyEntity;
+import org.coldis.library.test.persistence.model.TestCopyEntityRepository;
 import org.coldis.library.test.persistence.model.TestEntity;
 import org.coldis.library.test.persistence.model.TestEntityRepository;
+import org.coldis.library.test.persistence.model.TestInheritedEntity;
+import org.coldis.library.test.persistence.model.TestInheritedEntityRepository;
+import org.coldis.library.test.persistence.model.TestPrototypeEntity;
+import org.coldis.library.test.persistence.model.TestPrototypeEntityRepository;
+import org.coldis.library.test.persistence.model.TestSecondaryTableEntity;
+import org.coldis.library.test.persistence.model.TestSecondaryTableEntityRepository;
+import org.hibernate.Session;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -25,13 +52,22 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.IllegalTransactionStateException;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.testcontainers.containers.GenericContainer;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.search.Search;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 
@@ -42,8 +78,10 @@ import jakarta.persistence.PersistenceContext;
 @ExtendWith(StartTestWithContainerExtension.class)
 @SpringBootTest(
 		webEnvironment = WebEnvironment.RANDOM_PORT,
-		classes = TestApplication.class
+		classes = TestApplication.class,
+		properties = { "org.coldis.configuration.persistence.instrumentation.enabled=true" }
 )
+@Import(value = { PostgresJpaRepositoryTest.MeterRegistryConfiguration.class })
 @ExtendWith(StopTestWithContainerExtension.class)
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
 public class PostgresJpaRepositoryTest extends SpringTestHelper {
@@ -61,9 +99,39 @@ public class PostgresJpaRepositoryTest extends SpringTestHelper {
 	@Autowired
 	private KeyValueRepository<TestValue> keyValueRepository;
 
+	@Autowired
+	private TestCopyEntityRepository copyEntityRepository;
+
+	@Autowired
+	private TestInheritedEntityRepository inheritedEntityRepository;
+
+	@Autowired
+	private TestSecondaryTableEntityRepository secondaryTableEntityRepository;
+
+	@Autowired
+	private TestPrototypeEntityRepository prototypeEntityRepository;
+
+	@Autowired
+	private LockServiceComponent lockService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
 	@PersistenceContext
 	private EntityManager entityManager;
 
+	/**
+	 * Meter registry for the instrumentation test.
+	 */
+	public static class MeterRegistryConfiguration {
+
+		@Bean
+		public MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+
+	}
+
 	/** Id of a row saved fresh before each test. */
 	private Long entityId;
 
@@ -167,6 +235,60 @@ public class PostgresJpaRepositoryTest extends SpringTestHelper {
 		holder.join();
 	}
 
+	/**
+	 * Locks a batch of rows in a fresh transaction, returning the ids actually locked.
+	 */
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public List<Long> lockBatch(
+			final List<Long> ids,
+			final LockBehavior behavior) {
+		return this.repository.findAllByIdForUpdate(ids, behavior, null).stream().map(TestEntity::getId).toList();
+	}
+
+	@Test
+	@DisplayName("findAllByIdForUpdate(LOCK_SKIP) locks the free rows in id order and leaves out the held one")
+	public void testFindAllByIdForUpdateSkipsLockedRows() throws InterruptedException {
+		final Long second = this.createEntity();
+		final Long third = this.createEntity();
+		final Thread holder = this.startHolder();
+		Assertions.assertEquals(List.of(second, third), this.lockBatch(List.of(third, this.entityId, second), LockBehavior.LOCK_SKIP));
+		holder.join();
+	}
+
+	@Test
+	@DisplayName("findAllByIdForUpdate(LOCK_FAIL_FAST) fails the whole batch when any row is locked")
+	public void testFindAllByIdForUpdateFailsWhenAnyLocked() throws InterruptedException {
+		final Long second = this.createEntity();
+		final Thread holder = this.startHolder();
+		Assertions.assertThrows(PessimisticLockingFailureException.class, () -> this.lockBatch(List.of(this.entityId, second), LockBehavior.LOCK_FAIL_FAST));
+		holder.join();
+	}
+
+	/**
+	 * Claims (and leases) up to {@code limit} of the given rows in a fresh transaction.
+	 */
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public List<Long> claimLeasedBatch(
+			final List<Long> ids,
+			final int limit) {
+		final List<TestEntity> claimed = this.repository.claimBatch((root, query, builder) -> root.get("id").in(ids), Sort.by("id"), limit, "leasedUntil",
+				Duration.ofMinutes(1));
+		Assertions.assertTrue(claimed.stream().allMatch(entity -> entity.getLeasedUntil() != null), "claimed entities must carry the lease");
+		Assertions.assertFalse(this.entityManager.unwrap(Session.class).isDirty(), "the lease stamp must not leave one UPDATE per row to flush");
+		return claimed.stream().map(TestEntity::getId).toList();
+	}
+
+	@Test
+	@DisplayName("claimBatch with a lease claims disjoint batches until the queue is drained")
+	public void testClaimBatchWithLeaseDrainsQueue() {
+		final Long second = this.createEntity();
+		final Long third = this.createEntity();
+		final List<Long> ids = List.of(this.entityId, second, third);
+		Assertions.assertEquals(List.of(this.entityId, second), this.claimLeasedBatch(ids, 2));
+		Assertions.assertEquals(List.of(third), this.claimLeasedBatch(ids, 2), "leased rows must not be claimed again");
+		Assertions.assertTrue(this.claimLeasedBatch(ids, 2).isEmpty());
+	}
+
 	@Test
 	@DisplayName("findById(NO_LOCK) returns the row without taking a lock")
 	public void testDispatchNoLock() {
@@ -237,6 +359,18 @@ public class PostgresJpaRepositoryTest extends SpringTestHelper {
 				"claim should win again after release");
 	}
 
+	@Test
+	@DisplayName("claimLeases claims only the free leases in one call, and releaseLeases frees them all")
+	public void testClaimLeasesAndRelease() {
+		final Long second = this.createEntity();
+		Assertions.assertTrue(this.repository.claimLease(this.entityId, "leasedUntil", Duration.ofMinutes(1)));
+		Assertions.assertEquals(Set.of(second), this.repository.claimLeases(List.of(this.entityId, second), "leasedUntil", Duration.ofMinutes(1)),
+				"only the row without a live lease should be claimed");
+		this.repository.releaseLeases(List.of(this.entityId, second), "leasedUntil");
+		Assertions.assertEquals(Set.of(this.entityId, second),
+				this.repository.claimLeases(List.of(this.entityId, second), "leasedUntil", Duration.ofMinutes(1)));
+	}
+
 	@Test
 	@DisplayName("claimLease whitelists the lease attribute against the metamodel (no injection)")
 	public void testClaimLeaseRejectsUnknownAttribute() {
@@ -246,6 +380,20 @@ public class PostgresJpaRepositoryTest extends SpringTestHelper {
 				() -> this.repository.claimLease(this.entityId, "leasedUntil = NULL OR 1=1", Duration.ofMinutes(1)));
 	}
 
+	@Test
+	@DisplayName("lease statements are built once per attribute, and unknown attributes are never cached")
+	public void testLeaseStatementsCached() {
+		final Map<?, ?> statements = (Map<?, ?>) ReflectionTestUtils.getField(AopTestUtils.getUltimateTargetObject(this.repository), "leaseStatements");
+		this.repository.claimLease(this.entityId, "leasedUntil", Duration.ofMinutes(1));
+		final Object cached = statements.get("leasedUntil");
+		Assertions.assertNotNull(cached, "the first call must cache the statements");
+		this.repository.releaseLeases(List.of(this.entityId), "leasedUntil");
+		this.repository.claimLeases(List.of(this.entityId), "leasedUntil", Duration.ofMinutes(1));
+		Assertions.assertSame(cached, statements.get("leasedUntil"), "later calls must reuse the cached statements");
+		Assertions.assertThrows(InvalidDataAccessApiUsageException.class, () -> this.repository.claimLease(this.entityId, "unknown", Duration.ofMinutes(1)));
+		Assertions.assertFalse(statements.containsKey("unknown"));
+	}
+
 	@Test
 	@DisplayName("polling claimLease acquires once the holder's lease expires")
 	public void testClaimLeasePollingAcquiresAfterExpiry() {
@@ -267,4 +415,319 @@ public class PostgresJpaRepositoryTest extends SpringTestHelper {
 		Assertions.assertTrue(System.currentTimeMillis() - start >= 1000L, "should have polled until maxWait");
 	}
 
+	@Test
+	@DisplayName("polling claimLease is woken by the release notification instead of waiting for the next poll")
+	public void testClaimLeasePollingWokenByRelease() throws InterruptedException {
+		Assertions.assertTrue(this.repository.claimLease(this.entityId, "leasedUntil", Duration.ofMinutes(1)));
+		final Thread releaser = new Thread(() -> {
+			try {
+				Thread.sleep(500L);
+				this.repository.releaseLease(this.entityId, "leasedUntil");
+			}
+			catch (final InterruptedException exception) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		releaser.start();
+		final long start = System.currentTimeMillis();
+		Assertions.assertTrue(
+				this.repository.claimLease(this.entityId, "leasedUntil", Duration.ofMinutes(1), Duration.ofSeconds(30), Duration.ofSeconds(30)),
+				"poll should acquire once the holder releases");
+		Assertions.assertTrue(System.currentTimeMillis() - start < 5000L, "release should wake the waiter well before the 30s poll interval");
+		releaser.join();
+	}
+
+	@Test
+	@DisplayName("claimLeaseAsync acquires once the holder's lease expires, and a cancelled claim stops retrying")
+	public void testClaimLeaseAsync() throws Exception {
+		Assertions.assertTrue(this.repository.claimLease(this.entityId, "leasedUntil", Duration.ofSeconds(1)));
+		Assertions.assertTrue(this.repository
+				.claimLeaseAsync(this.entityId, "leasedUntil", Duration.ofMinutes(1), Duration.ofMillis(200), Duration.ofSeconds(5))
+				.get(10, TimeUnit.SECONDS), "async claim should acquire after the 1s lease expires");
+		final CompletableFuture<Boolean> cancelled = this.repository.claimLeaseAsync(this.entityId, "leasedUntil", Duration.ofMinutes(1),
+				Duration.ofMillis(200), Duration.ofSeconds(30));
+		Assertions.assertTrue(cancelled.cancel(true));
+		Assertions.assertTrue(cancelled.isCancelled());
+		this.repository.releaseLease(this.entityId, "leasedUntil");
+		Thread.sleep(500L);
+		Assertions.assertTrue(this.repository.claimLease(this.entityId, "leasedUntil", Duration.ofMinutes(1)),
+				"a cancelled async claim must not keep the lease");
+	}
+
+	/**
+	 * Sets the lock timeout twice in a fresh transaction and returns the tracked and actual values.
+	 */
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public List<String> setLockTimeoutTwice() {
+		this.repository.setLockTimeout(Duration.ofSeconds(1));
+		this.repository.setLockTimeout(Duration.ofSeconds(1));
+		return List.of(TransactionSettings.get(this.entityManager.getEntityManagerFactory(), "lock_timeout"),
+				(String) this.entityManager.createNativeQuery("SELECT current_setting('lock_timeout')").getSingleResult());
+	}
+
+	@Test
+	@DisplayName("lock_timeout is tracked per transaction and dropped when it completes")
+	public void testLockTimeoutTrackedPerTransaction() {
+		Assertions.assertEquals(List.of("1000", "1s"), this.setLockTimeoutTwice());
+		Assertions.assertNull(TransactionSettings.get(this.entityManager.getEntityManagerFactory(), "lock_timeout"),
+				"settings must not outlive the transaction");
+	}
+
+	/**
+	 * Reads the statement timeout under a query budget, then outside it, in a fresh transaction.
+	 */
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public List<String> readBudgetedStatementTimeout() {
+		this.repository.setStatementTimeout(Duration.ofSeconds(5));
+		return List.of(this.repository.findBudgetedStatementTimeout(),
+				(String) this.entityManager.createNativeQuery("SELECT current_setting('statement_timeout')").getSingleResult());
+	}
+
+	@Test
+	@DisplayName("@QueryBudget caps statement_timeout for the annotated method and restores it afterwards")
+	public void testQueryBudgetAppliedAndRestored() {
+		Assertions.assertEquals(List.of("1500ms", "5s"), this.readBudgetedStatementTimeout());
+		Assertions.assertEquals("1500ms", this.repository.findBudgetedStatementTimeout(), "the budget must also apply in its own transaction");
+	}
+
+	/**
+	 * Takes an advisory lock in a fresh transaction.
+	 */
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public boolean lockInNewTransaction(
+			final String key) throws BusinessException {
+		return this.lockService.lockKeys(LockBehavior.LOCK_SKIP, LockType.ADVISORY, "instrumentation", List.of(key));
+	}
+
+	/**
+	 * Locks the available keys in a new transaction.
+	 */
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public Set<String> lockAvailableInNewTransaction(
+			final String key) {
+		return this.lockService.lockAvailableKeys(LockType.ADVISORY, "instrumentation", List.of(key));
+	}
+
+	@Test
+	@DisplayName("instrumentation records latency, rows and errors per repository method and lock mode")
+	public void testInstrumentation() throws BusinessException {
+		// The context is shared with the other tests, so only the increments are checked.
+		final String[] findAllTags = { "repository", "TestEntityRepository", "method", "findAllById" };
+		final String[] streamAllTags = { "repository", "TestEntityRepository", "method", "streamAll" };
+		final String[] lockTags = { "behavior", "LOCK_SKIP", "type", "ADVISORY" };
+		final String[] availableLockTags = { "behavior", LockServiceComponent.AVAILABLE_BEHAVIOR, "type", "ADVISORY" };
+		final double findAllCalls = this.count(PersistenceInstrumentation.REPOSITORY_METER, findAllTags);
+		final double findAllRows = this.count(PersistenceInstrumentation.REPOSITORY_METER + ".rows", findAllTags);
+		final double streamAllErrors = this.count(PersistenceInstrumentation.REPOSITORY_METER + ".errors", streamAllTags);
+		final double locks = this.count(PersistenceInstrumentation.LOCK_METER, lockTags);
+		final double availableLocks = this.count(PersistenceInstrumentation.LOCK_METER, availableLockTags);
+		final List<Long> ids = List.of(this.entityId, this.createEntity());
+		Assertions.assertEquals(2, this.repository.findAllById(ids).size());
+		Assertions.assertThrows(IllegalTransactionStateException.class, () -> this.repository.streamAll(null, 2));
+		Assertions.assertTrue(this.lockInNewTransaction("instrumented"));
+		Assertions.assertEquals(Set.of("instrumented-available"), this.lockAvailableInNewTransaction("instrumented-available"));
+		Assertions.assertEquals(findAllCalls + 1, this.count(PersistenceInstrumentation.REPOSITORY_METER, findAllTags));
+		Assertions.assertEquals(findAllRows + 2, this.count(PersistenceInstrumentation.REPOSITORY_METER + ".rows", findAllTags));
+		Assertions.assertEquals(streamAllErrors + 1, this.count(PersistenceInstrumentation.REPOSITORY_METER + ".errors", streamAllTags));
+		Assertions.assertEquals(locks + 1, this.count(PersistenceInstrumentation.LOCK_METER, lockTags));
+		Assertions.assertEquals(availableLocks + 1, this.count(PersistenceInstrumentation.LOCK_METER, availableLockTags));
+	}
+
+	/**
+	 * Gets the count of a timer or counter ({@code 0} if it does not exist yet).
+	 */
+	private double count(
+			final String meter,
+			final String... tags) {
+		final Search search = this.meterRegistry.find(meter).tags(tags);
+		return (search.timer() != null) ? search.timer().count() : ((search.counter() != null) ? search.counter().count() : 0D);
+	}
+
+	/**
+	 * Runs the generic find-or-create against the key/value table and returns the locked value.
+	 */
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public TestValue findOrCreate(
+			final String key,
+			final TestValue value,
+			final boolean insertFirst) {
+		final KeyValue<TestValue> result = this.keyValueRepository.findByIdForUpdateOrCreate(new KeyValue<>(key, value), insertFirst);
+		Assertions.assertTrue(this.entityManager.contains(result), "find-or-create must return the managed row");
+		return result.getValue();
+	}
+
+	@Test
+	@DisplayName("generic findByIdForUpdateOrCreate creates from the prototype once, then returns the existing row")
+	public void testFindOrCreateFromPrototype() {
+		final String key = "post-jpa-prototype";
+		Assertions.assertEquals(10L, this.findOrCreate(key, new TestValue("first", 10L), false).getAttribute2());
+		Assertions.assertEquals(10L, this.findOrCreate(key, new TestValue("second", 20L), false).getAttribute2(),
+				"an existing row must not be overwritten");
+		Assertions.assertEquals(10L, this.findOrCreate(key, new TestValue("third", 30L), true).getAttribute2(),
+				"insert-first must be a no-op on an existing row");
+	}
+
+	/**
+	 * Runs the generic find-or-create against the prototype entity table and returns the locked row.
+	 */
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public TestPrototypeEntity findOrCreatePrototype(
+			final TestPrototypeEntity prototype) {
+		return this.prototypeEntityRepository.findByIdForUpdateOrCreate(prototype, true);
+	}
+
+	@Test
+	@DisplayName("generic findByIdForUpdateOrCreate inserts embedded columns and timestamps without changing the prototype")
+	public void testFindOrCreateFromPrototypeWithEmbedded() {
+		final TestPrototypeEntity prototype = new TestPrototypeEntity("post-jpa-prototype-embedded", "embedded", new TestCopyAmount(150L, "BRL"));
+		final TestPrototypeEntity created = this.findOrCreatePrototype(prototype);
+		Assertions.assertNull(prototype.getCreatedAt(), "the prototype must not be changed");
+		Assertions.assertNull(prototype.getUpdatedAt(), "the prototype must not be changed");
+		Assertions.assertEquals("embedded", created.getName());
+		Assertions.assertEquals(150L, created.getAmount().getAmountValue(), "embedded columns must be inserted");
+		Assertions.assertEquals("BRL", created.getAmount().getAmountCurrency(), "embedded columns must be inserted");
+		Assertions.assertNotNull(created.getCreatedAt());
+		Assertions.assertNotNull(created.getUpdatedAt());
+	}
+
+	/**
+	 * Streams the given rows in a fresh read-only transaction and returns their ids.
+	 */
+	@Transactional(
+			propagation = Propagation.REQUIRES_NEW,
+			readOnly = true
+	)
+	public List<Long> streamIds(
+			final List<Long> ids) {
+		try (Stream<TestEntity> entities = this.repository.streamAll((root, query, builder) -> root.get("id").in(ids), 2)) {
+			return entities.peek(entity -> Assertions.assertFalse(this.entityManager.contains(entity), "streamed entities must be detached"))
+					.map(TestEntity::getId).sorted().toList();
+		}
+	}
+
+	@Test
+	@DisplayName("streamAll streams every matching row, detached, inside a read-only transaction")
+	public void testStreamAll() {
+		final List<Long> ids = List.of(this.entityId, this.createEntity(), this.createEntity());
+		Assertions.assertEquals(ids, this.streamIds(ids));
+		Assertions.assertThrows(IllegalTransactionStateException.class, () -> this.repository.streamAll(null, 2),
+				"streamAll requires the caller's transaction");
+	}
+
+	/**
+	 * Visits the given rows in descending id chunks of two in a fresh read-only transaction and returns
+	 * the chunk ids.
+	 */
+	@Transactional(
+			propagation = Propagation.REQUIRES_NEW,
+			readOnly = true
+	)
+	public List<List<Long>> chunkIds(
+			final List<Long> ids) {
+		final List<List<Long>> chunks = new ArrayList<>();
+		this.repository.forEachChunk((root, query, builder) -> root.get("id").in(ids), Sort.by(Sort.Direction.DESC, "id"), 2,
+				chunk -> chunks.add(chunk.stream().map(TestEntity::getId).toList()));
+		return chunks;
+	}
+
+	@Test
+	@DisplayName("forEachChunk visits every matching row once, in keyset chunks")
+	public void testForEachChunk() {
+		final List<Long> ids = List.of(this.entityId, this.createEntity(), this.createEntity(), this.createEntity(), this.createEntity());
+		Assertions.assertEquals(List.of(List.of(ids.get(4), ids.get(3)), List.of(ids.get(2), ids.get(1)), List.of(ids.get(0))), this.chunkIds(ids));
+		Assertions.assertThrows(IllegalTransactionStateException.class,
+				() -> this.repository.forEachChunk(null, null, 2, chunk -> {}), "forEachChunk requires the caller's transaction");
+	}
+
+	@Test
+	@DisplayName("findSlice pages with an opaque keyset cursor until the last slice")
+	public void testFindSlice() {
+		final List<Long> ids = List.of(this.entityId, this.createEntity(), this.createEntity(), this.createEntity(), this.createEntity());
+		final List<List<Long>> slices = new ArrayList<>();
+		String cursor = DefaultSearchProperties.CURSOR_STR;
+		KeysetSlice<TestEntity> slice;
+		do {
+			slice = this.repository.findSlice((root, query, builder) -> root.get("id").in(ids), Sort.by(Sort.Direction.DESC, "id"),
+					KeysetCursor.decode(cursor), 2);
+			slices.add(slice.getContent().stream().map(TestEntity::getId).toList());
+			cursor = slice.hasNext() ? slice.getNextCursor().encode() : null;
+		}
+		while (slice.hasNext());
+		Assertions.assertEquals(List.of(List.of(ids.get(4), ids.get(3)), List.of(ids.get(2), ids.get(1)), List.of(ids.get(0))), slices);
+		Assertions.assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("not-a-cursor"));
+	}
+
+	@Test
+	@DisplayName("saveAllBatched inserts and updates every entity across several batches")
+	public void testSaveAllBatched() {
+		final List<TestEntity> created = this.repository.saveAllBatched(List.of(new TestEntity(), new TestEntity(), new TestEntity(), new TestEntity(),
+				new TestEntity()), 2);
+		final List<Long> ids = created.stream().map(TestEntity::getId).toList();
+		Assertions.assertEquals(5, ids.stream().distinct().count(), "every new entity should get its own id");
+		created.forEach(entity -> entity.setLeasedUntil(DateTimeHelper.getCurrentLocalDateTime().plusMinutes(1)));
+		this.repository.saveAllBatched(created, 2);
+		Assertions.assertTrue(this.repository.findAllById(ids).stream().allMatch(entity -> entity.getLeasedUntil() != null),
+				"existing entities should be updated");
+	}
+
+	@Test
+	@DisplayName("bulkCopy loads every entity with generated ids and converted values")
+	public void testBulkCopy() {
+		final List<TestEntity> entities = List.of(new TestEntity(), new TestEntity(), new TestEntity());
+		entities.get(0).setLeasedUntil(DateTimeHelper.getCurrentLocalDateTime().plusMinutes(1));
+		Assertions.assertEquals(3L, this.repository.bulkCopy(entities.stream()));
+		final List<Long> ids = entities.stream().map(TestEntity::getId).toList();
+		Assertions.assertTrue(ids.stream().allMatch(id -> id != null), "null ids should be generated");
+		Assertions.assertEquals(3, this.repository.findAllById(ids).size());
+		Assertions.assertNotNull(this.repository.findById(ids.get(0)).orElseThrow().getLeasedUntil());
+		final KeyValue<TestValue> keyValue = new KeyValue<>("post-jpa-copy", new TestValue("copied", 1L));
+		Assertions.assertEquals(1L, this.keyValueRepository.bulkCopy(List.of(keyValue).stream()));
+		Assertions.assertEquals("copied", this.keyValueRepository.findById("post-jpa-copy").orElseThrow().getValue().getAttribute1(),
+				"values should go through the JSONB converter");
+	}
+
+	@Test
+	@DisplayName("bulkCopy writes foreign key and embedded columns and leaves identity ids to the database")
+	public void testBulkCopyAssociationsAndEmbedded() {
+		final TestEntity parent = this.repository.findById(this.entityId).orElseThrow();
+		final List<TestCopyEntity> entities = List.of(new TestCopyEntity(), new TestCopyEntity());
+		entities.get(0).setName("with-parent");
+		entities.get(0).setParent(parent);
+		entities.get(0).setAmount(new TestCopyAmount(10L, "BRL"));
+		entities.get(1).setName("without-parent");
+		Assertions.assertEquals(2L, this.copyEntityRepository.bulkCopy(entities.stream()));
+		Assertions.assertTrue(entities.stream().allMatch(entity -> entity.getId() == null), "identity ids are not set on the entities");
+		final Map<String, TestCopyEntity> copied = this.copyEntityRepository.findAll().stream()
+				.collect(Collectors.toMap(TestCopyEntity::getName, Function.identity()));
+		Assertions.assertTrue(copied.values().stream().allMatch(entity -> entity.getId() != null), "the database should generate identity ids");
+		Assertions.assertEquals(this.entityId, copied.get("with-parent").getParent().getId());
+		Assertions.assertEquals(10L, copied.get("with-parent").getAmount().getAmountValue());
+		Assertions.assertEquals("BRL", copied.get("with-parent").getAmount().getAmountCurrency());
+		Assertions.assertNull(copied.get("without-parent").getParent());
+		Assertions.assertNull(copied.get("without-parent").getAmount());
+	}
+
+	@Test
+	@DisplayName("bulkCopy rejects inheritance and secondary-table mappings")
+	public void testBulkCopyRejectsMultiTableMappings() {
+		Assertions.assertThrows(InvalidDataAccessApiUsageException.class,
+				() -> this.inheritedEntityRepository.bulkCopy(Stream.of(new TestInheritedEntity())));
+		Assertions.assertThrows(InvalidDataAccessApiUsageException.class,
+				() -> this.secondaryTableEntityRepository.bulkCopy(Stream.of(new TestSecondaryTableEntity())));
+		Assertions.assertEquals(0L, this.inheritedEntityRepository.count());
+		Assertions.assertEquals(0L, this.secondaryTableEntityRepository.count());
+	}
+
+	@Test
+	@DisplayName("updateWhere and delete(specification) change matching rows with set-based statements, also in chunks")
+	public void testUpdateAndDeleteWhere() {
+		final List<Long> ids = List.of(this.entityId, this.createEntity(), this.createEntity(), this.createEntity(), this.createEntity());
+		Assertions.assertEquals(5L, this.repository.updateWhere((root, query, builder) -> root.get("id").in(ids),
+				Map.of("leasedUntil", DateTimeHelper.getCurrentLocalDateTime().plusMinutes(1))));
+		Assertions.assertTrue(this.repository.findAllById(ids).stream().allMatch(entity -> entity.getLeasedUntil() != null));
+		Assertions.assertEquals(1L, this.repository.delete((root, query, builder) -> builder.equal(root.get("id"), ids.get(0))));
+		Assertions.assertEquals(4L, this.repository.deleteWhere((root, query, builder) -> root.get("id").in(ids), 3));
+		Assertions.assertTrue(this.repository.findAllById(ids).isEmpty());
+	}
+
 }
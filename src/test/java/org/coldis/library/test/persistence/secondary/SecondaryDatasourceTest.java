@@ -3,9 +3,12 @@ package org.coldis.library.test.persistence.secondary;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.time.Duration;
 
 import javax.sql.DataSource;
 
+import org.coldis.library.persistence.configuration.DataSourcePoolConfigurer;
+import org.coldis.library.persistence.configuration.ReplicaRoutingDataSource;
 import org.coldis.library.test.SpringTestHelper;
 import org.coldis.library.test.StartTestWithContainerExtension;
 import org.coldis.library.test.StopTestWithContainerExtension;
@@ -13,28 +16,42 @@ import org.coldis.library.test.TestHelper;
 import org.coldis.library.test.TestWithContainer;
 import org.coldis.library.test.persistence.TestApplication;
 import org.coldis.library.test.persistence.model.TestEntity;
+import org.coldis.library.test.persistence.model.TestEntityRepository;
 import org.coldis.library.test.persistence.model.TestEntityService;
+import org.coldis.library.test.persistence.repository.PostgresJpaRepositoryTest;
 import org.coldis.library.test.persistence.secondary.model.TestSecondaryEntity;
 import org.coldis.library.test.persistence.tertiary.TestTertiaryEntityRepository;
 import org.coldis.library.test.persistence.tertiary.TestTertiaryEntityService;
 import org.coldis.library.test.persistence.tertiary.model.TestTertiaryEntity;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Transactional;
 import org.testcontainers.containers.GenericContainer;
 
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
 /**
  * Multi-datasource integration test against <strong>three</strong> real PostgreSQL instances: the
  * explicit primary plus two property-driven secondaries ({@code secondary}, {@code tertiary}),
  * proving N secondaries. Unit membership is annotation-driven ({@code @DatasourceUnit} on the
  * entities and repositories; the properties carry only connection settings). It asserts routing and
  * isolation (a unit's entities exist ONLY in that unit's database) and that the primary keeps working
- * alongside them.
+ * alongside them. Units bootstrap in parallel, and the tertiary one lazily.
  */
 @TestWithContainer
 @ExtendWith(StartTestWithContainerExtension.class)
@@ -43,15 +60,24 @@ import org.testcontainers.containers.GenericContainer;
 		properties = {
 				"test.properties",
 				"org.coldis.configuration.persistence.explicit-primary=true",
+				"org.coldis.configuration.persistence.primary.replicas[0].url=jdbc:postgresql://localhost:${POSTGRES_CONTAINER_5432}/test",
 				"org.coldis.configuration.persistence.datasources.secondary.url=jdbc:postgresql://localhost:${POSTGRES_CONTAINER_SECONDARY_5432}/test",
 				"org.coldis.configuration.persistence.datasources.secondary.username=test",
 				"org.coldis.configuration.persistence.datasources.secondary.password=test",
 				"org.coldis.configuration.persistence.datasources.tertiary.url=jdbc:postgresql://localhost:${POSTGRES_CONTAINER_TERTIARY_5432}/test",
 				"org.coldis.configuration.persistence.datasources.tertiary.username=test",
-				"org.coldis.configuration.persistence.datasources.tertiary.password=test" },
+				"org.coldis.configuration.persistence.datasources.tertiary.password=test",
+				"org.coldis.configuration.persistence.datasources.tertiary.lazy=true",
+				"org.coldis.configuration.persistence.parallel-bootstrap.enabled=true",
+				"spring.datasource.hikari.leak-detection-threshold=30000",
+				"org.coldis.configuration.persistence.datasources.secondary.hikari.minimum-idle=1",
+				"org.coldis.configuration.persistence.datasources.secondary.hikari.maximum-pool-size=1000" },
 		classes = TestApplication.class)
+@Import(value = { PostgresJpaRepositoryTest.MeterRegistryConfiguration.class })
 @ExtendWith(StopTestWithContainerExtension.class)
+@ExtendWith(OutputCaptureExtension.class)
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 public class SecondaryDatasourceTest extends SpringTestHelper {
 
 	/** Primary Postgres container. */
@@ -86,6 +112,10 @@ public class SecondaryDatasourceTest extends SpringTestHelper {
 	@Autowired
 	private TestEntityService testEntityService;
 
+	/** Primary-datasource repository. */
+	@Autowired
+	private TestEntityRepository testEntityRepository;
+
 	/** Primary datasource (the {@code @Primary} bean → first container). */
 	@Autowired
 	private DataSource dataSource;
@@ -100,6 +130,33 @@ public class SecondaryDatasourceTest extends SpringTestHelper {
 	@Qualifier(value = "tertiaryDataSource")
 	private DataSource tertiaryDataSource;
 
+	/** Bean factory. */
+	@Autowired
+	private ConfigurableListableBeanFactory beanFactory;
+
+	/** Pool configurer. */
+	@Autowired
+	private DataSourcePoolConfigurer dataSourcePoolConfigurer;
+
+	/** Meter registry. */
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	/**
+	 * The lazy tertiary unit is not bootstrapped with the context (its repositories are injected as
+	 * lazy proxies), only on first use. Runs first, before any other test uses the unit.
+	 */
+	@Test
+	@Order(1)
+	public void testLazyUnitBootstrapsOnFirstUse() {
+		Assertions.assertFalse(this.beanFactory.containsSingleton("tertiaryEntityManagerFactory"),
+				"the lazy unit's entity manager factory should not be created at startup");
+		Assertions.assertFalse(this.beanFactory.containsSingleton("tertiaryTransactionManager"));
+		Assertions.assertTrue(this.beanFactory.containsSingleton("secondaryEntityManagerFactory"), "eager units are created at startup");
+		Assertions.assertEquals(0L, this.testTertiaryEntityRepository.count());
+		Assertions.assertTrue(this.beanFactory.containsSingleton("tertiaryEntityManagerFactory"), "first use bootstraps the lazy unit");
+	}
+
 	/**
 	 * The three datasources are genuinely distinct beans pointing at different databases.
 	 */
@@ -158,6 +215,96 @@ public class SecondaryDatasourceTest extends SpringTestHelper {
 		Assertions.assertFalse(this.tableExists(this.tertiaryDataSource, "test_entity"));
 	}
 
+	/**
+	 * Every pool is named after its unit (replicas after their unit and index).
+	 */
+	@Test
+	public void testPoolsNamedAfterUnits() {
+		final ReplicaRoutingDataSource routingDataSource = (ReplicaRoutingDataSource) this.dataSource;
+		Assertions.assertEquals("primary", ((HikariDataSource) routingDataSource.getPrimaryDataSource()).getPoolName());
+		Assertions.assertEquals("primary-replica-0", ((HikariDataSource) routingDataSource.getReplicaDataSources().get(0)).getPoolName());
+		Assertions.assertEquals("secondary", ((HikariDataSource) this.secondaryDataSource).getPoolName());
+		Assertions.assertEquals("tertiary", ((HikariDataSource) this.tertiaryDataSource).getPoolName());
+	}
+
+	/**
+	 * Secondary pools are tuned by their own {@code hikari.*} properties only: the primary's
+	 * {@code spring.datasource.hikari.*} tuning is not inherited unless opted in.
+	 */
+	@Test
+	public void testSecondaryPoolsDoNotInheritPrimaryTuning() {
+		final ReplicaRoutingDataSource routingDataSource = (ReplicaRoutingDataSource) this.dataSource;
+		Assertions.assertEquals(30000L, ((HikariDataSource) routingDataSource.getPrimaryDataSource()).getLeakDetectionThreshold());
+		Assertions.assertEquals(0L, ((HikariDataSource) this.secondaryDataSource).getLeakDetectionThreshold());
+		Assertions.assertEquals(1000, ((HikariDataSource) this.secondaryDataSource).getMaximumPoolSize());
+	}
+
+	/**
+	 * Every started pool publishes Hikari's Micrometer meters, tagged with its pool name.
+	 */
+	@Test
+	public void testPoolMetrics() {
+		Assertions.assertNotNull(this.meterRegistry.find("hikaricp.connections.active").tag("pool", "primary").gauge());
+		Assertions.assertNotNull(this.meterRegistry.find("hikaricp.connections.active").tag("pool", "secondary").gauge());
+		Assertions.assertNotNull(this.meterRegistry.find("hikaricp.connections.acquire").tag("pool", "secondary").timer());
+	}
+
+	/**
+	 * The sizing check warns about the secondary server, whose pool may open more connections than it
+	 * accepts, and not about the primary one.
+	 *
+	 * @param output Captured output.
+	 */
+	@Test
+	public void testPoolSizingWarning(
+			final CapturedOutput output) {
+		this.dataSourcePoolConfigurer.onApplicationEvent(null);
+		final String secondaryServer = "localhost:" + SecondaryDatasourceTest.POSTGRES_CONTAINER_SECONDARY.getMappedPort(5432);
+		final String primaryServer = "localhost:" + SecondaryDatasourceTest.POSTGRES_CONTAINER.getMappedPort(5432);
+		Assertions.assertTrue(output.getOut().contains("Pools [secondary] of server '" + secondaryServer + "' may open up to 1000 connections"),
+				"the oversized secondary pool should be reported");
+		Assertions.assertFalse(output.getOut().contains("of server '" + primaryServer + "'"), "the primary server pools fit");
+	}
+
+	/**
+	 * The primary unit has a (self-pointing) replica: plain connections and read-write transactions stay
+	 * on the primary pool, while {@code findByIdForRead} (a read-only transaction) is served by the
+	 * replica pool.
+	 *
+	 * @throws Exception If the test fails.
+	 */
+	@Test
+	public void testReadOnlyTransactionsRouteToReplica() throws Exception {
+		final ReplicaRoutingDataSource routingDataSource = (ReplicaRoutingDataSource) this.dataSource;
+		final HikariDataSource replicaDataSource = (HikariDataSource) routingDataSource.getReplicaDataSources().get(0);
+		final TestEntity entity = this.testEntityService.save(new TestEntity());
+		Assertions.assertTrue(this.tableExists(this.dataSource, "test_entity"));
+		Assertions.assertEquals(entity.getId(), this.testEntityRepository.findByIdForRead(entity.getId()).orElseThrow().getId());
+		// The replica pool only starts on its first connection.
+		Assertions.assertNotNull(replicaDataSource.getHikariPoolMXBean());
+	}
+
+	/**
+	 * Sets the primary {@code lock_timeout} and then the same value on the secondary unit, from inside
+	 * the primary transaction.
+	 *
+	 * @return The {@code lock_timeout} in effect on the secondary connection.
+	 */
+	@Transactional
+	public String setLockTimeoutOnBothUnits() {
+		this.testEntityRepository.setLockTimeout(Duration.ofSeconds(1));
+		return this.testSecondaryEntityService.setAndReadLockTimeout(Duration.ofSeconds(1));
+	}
+
+	/**
+	 * Applied settings are tracked per unit: a value already set on the primary connection does not
+	 * make the nested secondary transaction skip its own {@code SET}.
+	 */
+	@Test
+	public void testTransactionSettingsTrackedPerUnit() {
+		Assertions.assertEquals("1s", this.setLockTimeoutOnBothUnits());
+	}
+
 	/**
 	 * Checks whether a table exists in the given datasource's database.
 	 *
@@ -1,8 +1,9 @@
 package org.coldis.library.test.persistence.secondary;
 
 import org.coldis.library.persistence.configuration.DatasourceUnit;
+import org.coldis.library.persistence.repository.PostgresJpaRepository;
 import org.coldis.library.test.persistence.secondary.model.TestSecondaryEntity;
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -12,6 +13,17 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 @DatasourceUnit(value = "secondary")
-public interface TestSecondaryEntityRepository extends JpaRepository<TestSecondaryEntity, Long> {
+public interface TestSecondaryEntityRepository extends PostgresJpaRepository<TestSecondaryEntity, Long> {
+
+	/**
+	 * Reads the {@code lock_timeout} in effect on the current connection.
+	 *
+	 * @return The current {@code lock_timeout}.
+	 */
+	@Query(
+			value = "SELECT current_setting('lock_timeout')",
+			nativeQuery = true
+	)
+	String findLockTimeout();
 
 }
@@ -1,5 +1,7 @@
 package org.coldis.library.test.persistence.secondary;
 
+import java.time.Duration;
+
 import org.coldis.library.test.persistence.secondary.model.TestSecondaryEntity;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -31,4 +33,17 @@ public class TestSecondaryEntityService {
 		return this.testSecondaryEntityRepository.save(entity);
 	}
 
+	/**
+	 * Sets the secondary connection's {@code lock_timeout} and reads it back.
+	 *
+	 * @param  timeout Lock timeout.
+	 * @return         The {@code lock_timeout} in effect on the secondary connection.
+	 */
+	@Transactional(transactionManager = "secondaryTransactionManager")
+	public String setAndReadLockTimeout(
+			final Duration timeout) {
+		this.testSecondaryEntityRepository.setLockTimeout(timeout);
+		return this.testSecondaryEntityRepository.findLockTimeout();
+	}
+
 }